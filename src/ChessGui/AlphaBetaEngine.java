@@ -0,0 +1,608 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Iterative-deepening negamax with alpha-beta pruning, a transposition table and a captures-only
+// quiescence search. Moves are tried in the order: transposition table / previous principal
+// variation move, captures by MVV-LVA (most valuable victim, least valuable attacker), killer
+// moves, then quiet moves by history score.
+// Each iteration is reported with its depth, nodes/sec and principal variation. With a
+// tablebase set, positions it covers are scored exactly instead of searched.
+// Usage: AlphaBetaEngine [depth] [time=ms]
+public class AlphaBetaEngine implements ChessEngine
+{
+    public static final int MAX_PLY = 64;
+    public static final int MATE = 100_000;   // Score for mate at the root; mate in n plies scores MATE - n
+    public static final int LONGEST_MATE = 256; // Plies; tablebase mates can be further off than the search looks
+    public static final int INFINITY = 1_000_000;
+    public static final int DRAW = 0;
+    private static final int NOT_IN_TABLEBASE = Integer.MIN_VALUE;
+
+    private static final int TIME_CHECK_INTERVAL = 2048; // Nodes between clock reads, a power of two
+
+    // Move ordering bands, highest first
+    private static final int PV_SCORE = 4_000_000;
+    private static final int CAPTURE_SCORE = 3_000_000;
+    private static final int PROMOTION_SCORE = 2_900_000;
+    private static final int FIRST_KILLER_SCORE = 2_000_000;
+    private static final int SECOND_KILLER_SCORE = 1_999_999;
+    private static final int HISTORY_LIMIT = 1_000_000; // Keeps history scores below the killers
+
+    private final TranspositionTable table;
+    private final PawnHashTable pawnTable = new PawnHashTable(); // Per engine, so per thread
+    private volatile Tablebase tablebase; // null for none
+    private long tablebaseHits;
+    private Board board;
+    private volatile boolean stopRequested;
+    private SearchListener listener; // Of the current search, for its own stop request
+    private boolean stopped;
+    private boolean canStop; // The first iteration always completes so there is a move to play
+    private long deadline;   // System.nanoTime() at which to stop, 0 for none
+    private long nodes;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][MoveList.DEFAULT_CAPACITY];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY]; // pvTable[ply] = best line from ply onwards
+    private final int[] pvLength = new int[MAX_PLY];
+    private int[] previousPv = new int[0];
+    private final int[][] killers = new int[MAX_PLY][2];     // Quiet moves that caused a cutoff at each ply
+    private final int[][][] history = new int[2][64][64];     // [color][from][to] cutoff counts for quiet moves
+    private final long[] pathKeys = new long[MAX_PLY + 1];   // Zobrist keys from the root, for repetitions
+
+    public AlphaBetaEngine()
+    {
+        this(new TranspositionTable());
+    }
+
+    // Searches with the given table, which other engines may be using at the same time
+    public AlphaBetaEngine(TranspositionTable table)
+    {
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++)
+        {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int depth = SearchLimits.MAX_DEPTH;
+        long timeMillis = 0;
+        try
+        {
+            for (String arg : args)
+            {
+                if (arg.startsWith("time="))
+                {
+                    timeMillis = Long.parseLong(arg.substring("time=".length()));
+                }
+                else
+                {
+                    depth = Integer.parseInt(arg);
+                }
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            System.err.println("Usage: AlphaBetaEngine [depth] [time=ms]");
+            return;
+        }
+        if (timeMillis == 0 && depth == SearchLimits.MAX_DEPTH)
+        {
+            depth = 6;
+        }
+
+        Board board = new Board();
+        board.initializeStandardBoard();
+        SearchLimits limits = new SearchLimits(depth, timeMillis);
+        System.out.println("Searching the standard starting position, " + limits);
+        AlphaBetaEngine engine = new AlphaBetaEngine();
+        SearchResult result = engine.search(board, PieceColor.WHITE, limits, System.out::println);
+        System.out.println("Best move: " + Move.toString(result.getBestMove()));
+        System.out.println(engine.getTranspositionTable());
+        System.out.println(engine.getPawnHashTable());
+    }
+
+    @Override
+    public SearchResult search(Board position, PieceColor sideToMove, SearchLimits limits, SearchListener listener)
+    {
+        stopRequested = false;
+        table.newSearch();
+        return runSearch(position, sideToMove, limits, listener, 1, false);
+    }
+
+    // The iterative deepening loop, without starting a new table generation. Lazy SMP helpers
+    // start at a later depth so they don't duplicate the main thread's work, can be stopped
+    // before finishing an iteration, and keep deepening until stopped.
+    SearchResult runSearch(Board position, PieceColor sideToMove, SearchLimits limits, SearchListener listener,
+                           int startDepth, boolean helper)
+    {
+        board = new Board(position);
+        board.setSideToMove(sideToMove);
+        this.listener = listener;
+        stopped = false;
+        canStop = helper;
+        nodes = 0;
+        tablebaseHits = 0;
+        previousPv = new int[0];
+        clearHeuristics();
+
+        long start = System.nanoTime();
+        deadline = limits.hasTimeLimit() ? start + limits.getTimeMillis() * 1_000_000L : 0;
+        pathKeys[0] = board.getZobristKey();
+
+        SearchResult best = null;
+        for (int depth = startDepth; depth <= limits.getMaxDepth(); depth++)
+        {
+            int score = search(depth, 0, -INFINITY, INFINITY);
+            if (stopped)
+            {
+                break; // An unfinished iteration is discarded; the previous one stands
+            }
+            previousPv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, pvLength[0]);
+            int bestMove = (pvLength[0] > 0) ? pvTable[0][0] : Move.NONE;
+            best = new SearchResult(bestMove, score, depth, nodes, System.nanoTime() - start, previousPv);
+            if (listener != null)
+            {
+                listener.onIteration(best);
+            }
+            canStop = true;
+
+            if (bestMove == Move.NONE || best.isMate())
+            {
+                break; // No legal moves, or a forced mate that deeper searches won't improve on
+            }
+            // The next iteration takes several times as long as this one, so don't start it
+            // if it can't finish
+            if (!helper && deadline != 0 && System.nanoTime() - start > (deadline - start) / 2)
+            {
+                break;
+            }
+        }
+        board = null;
+        this.listener = null;
+        return best;
+    }
+
+    @Override
+    public void stop()
+    {
+        stopRequested = true;
+    }
+
+    // Clears a previous stop() before this engine is handed to another thread to search
+    void resetStop()
+    {
+        stopRequested = false;
+    }
+
+    // Nodes searched so far by the current or last search. Read from another thread while a
+    // search is running it may lag slightly behind.
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return table;
+    }
+
+    public PawnHashTable getPawnHashTable()
+    {
+        return pawnTable;
+    }
+
+    public void setTablebase(Tablebase tablebase)
+    {
+        this.tablebase = tablebase;
+    }
+
+    // Positions scored from the tablebase by the current or last search
+    public long getTablebaseHits()
+    {
+        return tablebaseHits;
+    }
+
+    private void clearHeuristics()
+    {
+        for (int[] plyKillers : killers)
+        {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        for (int[][] colorHistory : history)
+        {
+            for (int[] fromHistory : colorHistory)
+            {
+                java.util.Arrays.fill(fromHistory, 0);
+            }
+        }
+    }
+
+    // Polled every few thousand nodes; once set, every node returns straight away
+    private void checkStop()
+    {
+        if (canStop && (stopRequested || (listener != null && listener.shouldStop())
+                || (deadline != 0 && System.nanoTime() >= deadline)))
+        {
+            stopped = true;
+        }
+    }
+
+    private int search(int depth, int ply, int alpha, int beta)
+    {
+        pvLength[ply] = ply;
+        if (depth <= 0)
+        {
+            return quiescence(ply, alpha, beta);
+        }
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0)
+        {
+            checkStop();
+        }
+        if (stopped)
+        {
+            return 0;
+        }
+        if (ply > 0 && isRepetition(ply))
+        {
+            return DRAW;
+        }
+        int tablebaseScore = (ply > 0) ? probeTablebase(ply) : NOT_IN_TABLEBASE;
+        if (tablebaseScore != NOT_IN_TABLEBASE)
+        {
+            return tablebaseScore;
+        }
+        if (ply >= MAX_PLY - 1)
+        {
+            return Evaluation.evaluate(board, pawnTable);
+        }
+
+        // A deep enough result for this position from elsewhere in the tree may settle it
+        // outright; otherwise its best move is still the best guess to try first
+        long key = board.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0)
+        {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth)
+            {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha))
+                {
+                    return score;
+                }
+            }
+        }
+
+        PieceColor side = board.getSideToMove();
+        boolean inCheck = board.isKingInCheck(side);
+        if (inCheck)
+        {
+            depth++; // Check extension: don't let a check push a threat over the horizon
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generatePseudoLegalMoves(board, side.index(), moves);
+        scoreMoves(ply, moves, side.index(), hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++)
+        {
+            int move = pickNextMove(ply, moves, i);
+            MoveUndo undo = board.makeMove(move);
+            if (board.isKingInCheck(side))
+            {
+                board.unmakeMove(undo);
+                continue;
+            }
+            legalMoves++;
+            pathKeys[ply + 1] = board.getZobristKey();
+            int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+            if (stopped)
+            {
+                return 0;
+            }
+
+            if (score > bestScore)
+            {
+                bestScore = score;
+                if (score > alpha)
+                {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (score >= beta)
+                    {
+                        if (!Move.isCapture(move) && !Move.isPromotion(move))
+                        {
+                            recordQuietCutoff(ply, move, side.index(), depth);
+                        }
+                        table.store(key, move, scoreToTable(score, ply), depth, TranspositionTable.BOUND_LOWER);
+                        return score;
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0)
+        {
+            return inCheck ? -MATE + ply : DRAW; // Checkmate, or stalemate
+        }
+        int bound = (alpha > originalAlpha) ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    // Mate scores count plies from the root, but a table entry can be reached at any ply, so
+    // they are stored as distance from the node instead
+    private static int scoreToTable(int score, int ply)
+    {
+        if (score >= MATE - LONGEST_MATE)
+        {
+            return score + ply;
+        }
+        if (score <= -(MATE - LONGEST_MATE))
+        {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply)
+    {
+        if (score >= MATE - LONGEST_MATE)
+        {
+            return score - ply;
+        }
+        if (score <= -(MATE - LONGEST_MATE))
+        {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // The exact score of the position from the tablebase, with mates counted from the root like
+    // any other, or NOT_IN_TABLEBASE
+    private int probeTablebase(int ply)
+    {
+        Tablebase probed = tablebase;
+        int result = (probed != null) ? probed.probe(board) : Tablebase.NOT_FOUND;
+        if (result == Tablebase.NOT_FOUND)
+        {
+            return NOT_IN_TABLEBASE;
+        }
+        tablebaseHits++;
+        if (Tablebase.isWin(result))
+        {
+            return MATE - (ply + Tablebase.pliesToMate(result));
+        }
+        if (Tablebase.isLoss(result))
+        {
+            return -MATE + ply + Tablebase.pliesToMate(result);
+        }
+        return DRAW;
+    }
+
+    // Searches captures and promotions only, so the static evaluation is never taken in the
+    // middle of an exchange. The side to move may "stand pat" on the evaluation instead.
+    private int quiescence(int ply, int alpha, int beta)
+    {
+        pvLength[ply] = ply;
+        if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0)
+        {
+            checkStop();
+        }
+        if (stopped)
+        {
+            return 0;
+        }
+        int tablebaseScore = probeTablebase(ply);
+        if (tablebaseScore != NOT_IN_TABLEBASE)
+        {
+            return tablebaseScore;
+        }
+
+        int standPat = Evaluation.evaluate(board, pawnTable);
+        if (ply >= MAX_PLY - 1 || standPat >= beta)
+        {
+            return standPat;
+        }
+        if (standPat > alpha)
+        {
+            alpha = standPat;
+        }
+
+        PieceColor side = board.getSideToMove();
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generatePseudoLegalMoves(board, side.index(), moves);
+        int captures = 0;
+        for (int i = 0; i < moves.size(); i++)
+        {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.isPromotion(move))
+            {
+                moves.set(captures++, move);
+            }
+        }
+        moves.truncate(captures);
+        scoreMoves(ply, moves, side.index(), Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++)
+        {
+            int move = pickNextMove(ply, moves, i);
+            MoveUndo undo = board.makeMove(move);
+            if (board.isKingInCheck(side))
+            {
+                board.unmakeMove(undo);
+                continue;
+            }
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(undo);
+            if (stopped)
+            {
+                return 0;
+            }
+            if (score > alpha)
+            {
+                alpha = score;
+                updatePv(ply, move);
+                if (score >= beta)
+                {
+                    return score;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    // A position that already occurred on the current line with the same side to move is scored
+    // as a draw, which stops the search from shuffling pieces back and forth
+    private boolean isRepetition(int ply)
+    {
+        long key = pathKeys[ply];
+        for (int earlier = ply - 2; earlier >= 0; earlier -= 2)
+        {
+            if (pathKeys[earlier] == key)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePv(int ply, int move)
+    {
+        // The child at ply + 1 has just been searched, so its line is current
+        pvTable[ply][ply] = move;
+        for (int next = ply + 1; next < pvLength[ply + 1]; next++)
+        {
+            pvTable[ply][next] = pvTable[ply + 1][next];
+        }
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    private void recordQuietCutoff(int ply, int move, int color, int depth)
+    {
+        if (killers[ply][0] != move)
+        {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] fromHistory = history[color][Move.from(move)];
+        fromHistory[Move.to(move)] += depth * depth;
+        if (fromHistory[Move.to(move)] >= HISTORY_LIMIT)
+        {
+            // Halve everything so recent cutoffs keep outweighing old ones
+            for (int[][] colorHistory : history)
+            {
+                for (int[] squares : colorHistory)
+                {
+                    for (int to = 0; to < squares.length; to++)
+                    {
+                        squares[to] /= 2;
+                    }
+                }
+            }
+        }
+    }
+
+    private void scoreMoves(int ply, MoveList moves, int color, int hashMove)
+    {
+        int[] scores = moveScores[ply];
+        if (scores.length < moves.size())
+        {
+            scores = moveScores[ply] = new int[moves.size()];
+        }
+        int pvMove = hashMove;
+        if (pvMove == Move.NONE && ply < previousPv.length)
+        {
+            pvMove = previousPv[ply];
+        }
+        for (int i = 0; i < moves.size(); i++)
+        {
+            int move = moves.get(i);
+            if (move == pvMove)
+            {
+                scores[i] = PV_SCORE;
+            }
+            else if (Move.isCapture(move))
+            {
+                scores[i] = CAPTURE_SCORE + 10 * capturedType(move) - movingType(move);
+                if (Move.isPromotion(move))
+                {
+                    scores[i] += Move.promotionType(move);
+                }
+            }
+            else if (Move.isPromotion(move))
+            {
+                scores[i] = PROMOTION_SCORE + Move.promotionType(move);
+            }
+            else if (move == killers[ply][0])
+            {
+                scores[i] = FIRST_KILLER_SCORE;
+            }
+            else if (move == killers[ply][1])
+            {
+                scores[i] = SECOND_KILLER_SCORE;
+            }
+            else
+            {
+                scores[i] = history[color][Move.from(move)][Move.to(move)];
+            }
+        }
+    }
+
+    // Selection sort step: swaps the best remaining move into position index and returns it,
+    // so a cutoff after the first few moves doesn't pay for sorting the whole list
+    private int pickNextMove(int ply, MoveList moves, int index)
+    {
+        int[] scores = moveScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++)
+        {
+            if (scores[i] > scores[best])
+            {
+                best = i;
+            }
+        }
+        if (best != index)
+        {
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves.get(index);
+    }
+
+    private int capturedType(int move)
+    {
+        if (Move.isEnPassant(move))
+        {
+            return Bitboard.PAWN;
+        }
+        return board.getPiece(Move.toRow(move), Move.toCol(move)).getType().index();
+    }
+
+    private int movingType(int move)
+    {
+        return board.getPiece(Move.fromRow(move), Move.fromCol(move)).getType().index();
+    }
+}
@@ -0,0 +1,170 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Precomputed attack tables for answering "is this square attacked by that colour" with a few
+// bit operations on Board's bitboards, looking outward from the target square rather than asking
+// every opposing piece whether it can move there. Squares use Bitboard.square numbering (a8 = 0).
+public class Attacks
+{
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64]; // [color][square] squares a pawn on square attacks
+
+    // Ray directions as {rowStep, colStep}. The first four run towards higher square indices,
+    // so their nearest blocker is the lowest set bit; the last four run towards lower indices.
+    private static final int[][] DIRECTIONS = {
+        {1, 0}, {0, 1}, {1, 1}, {1, -1},    // South, east, south-east, south-west
+        {-1, 0}, {0, -1}, {-1, -1}, {-1, 1} // North, west, north-west, north-east
+    };
+    private static final int SOUTH = 0, EAST = 1, SOUTH_EAST = 2, SOUTH_WEST = 3;
+    private static final int NORTH = 4, WEST = 5, NORTH_WEST = 6, NORTH_EAST = 7;
+    private static final long[][] RAYS = new long[8][64]; // [direction][square] squares up to the board edge
+
+    static
+    {
+        int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        for (int row = 0; row < Board.SIZE; row++)
+        {
+            for (int col = 0; col < Board.SIZE; col++)
+            {
+                int square = Bitboard.square(row, col);
+                for (int[] step : knightSteps)
+                {
+                    KNIGHT[square] |= bitIfOnBoard(row + step[0], col + step[1]);
+                }
+                for (int[] direction : DIRECTIONS)
+                {
+                    KING[square] |= bitIfOnBoard(row + direction[0], col + direction[1]);
+                }
+                // White pawns move towards row 0, black pawns towards row 7
+                PAWN[Bitboard.WHITE][square] = bitIfOnBoard(row - 1, col - 1) | bitIfOnBoard(row - 1, col + 1);
+                PAWN[Bitboard.BLACK][square] = bitIfOnBoard(row + 1, col - 1) | bitIfOnBoard(row + 1, col + 1);
+
+                for (int d = 0; d < DIRECTIONS.length; d++)
+                {
+                    int r = row + DIRECTIONS[d][0];
+                    int c = col + DIRECTIONS[d][1];
+                    while (r >= 0 && r < Board.SIZE && c >= 0 && c < Board.SIZE)
+                    {
+                        RAYS[d][square] |= Bitboard.bit(r, c);
+                        r += DIRECTIONS[d][0];
+                        c += DIRECTIONS[d][1];
+                    }
+                }
+            }
+        }
+    }
+
+    private Attacks()
+    {
+    }
+
+    private static long bitIfOnBoard(int row, int col)
+    {
+        return (row >= 0 && row < Board.SIZE && col >= 0 && col < Board.SIZE) ? Bitboard.bit(row, col) : 0L;
+    }
+
+    public static long knight(int square)
+    {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square)
+    {
+        return KING[square];
+    }
+
+    // Squares attacked by a pawn of the given colour standing on square
+    public static long pawn(int color, int square)
+    {
+        return PAWN[color][square];
+    }
+
+    public static long rook(int square, long occupied)
+    {
+        return positiveRay(SOUTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(NORTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    public static long bishop(int square, long occupied)
+    {
+        return positiveRay(SOUTH_EAST, square, occupied) | positiveRay(SOUTH_WEST, square, occupied)
+                | negativeRay(NORTH_WEST, square, occupied) | negativeRay(NORTH_EAST, square, occupied);
+    }
+
+    public static long queen(int square, long occupied)
+    {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    // Ray squares up to and including the first blocker
+    private static long positiveRay(int direction, int square, long occupied)
+    {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers != 0)
+        {
+            ray ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static long negativeRay(int direction, int square, long occupied)
+    {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers != 0)
+        {
+            ray ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    // True if any piece of attackerColor attacks square
+    public static boolean isSquareAttacked(Bitboard bitboards, int square, int attackerColor)
+    {
+        long occupied = bitboards.getOccupied();
+        long queens = bitboards.getPieces(attackerColor, Bitboard.QUEEN);
+        // A pawn of the defending colour on square attacks exactly the squares an attacking pawn would attack it from
+        return (PAWN[1 - attackerColor][square] & bitboards.getPieces(attackerColor, Bitboard.PAWN)) != 0
+                || (KNIGHT[square] & bitboards.getPieces(attackerColor, Bitboard.KNIGHT)) != 0
+                || (KING[square] & bitboards.getPieces(attackerColor, Bitboard.KING)) != 0
+                || (bishop(square, occupied) & (bitboards.getPieces(attackerColor, Bitboard.BISHOP) | queens)) != 0
+                || (rook(square, occupied) & (bitboards.getPieces(attackerColor, Bitboard.ROOK) | queens)) != 0;
+    }
+
+    // Attack map: every square attacked by at least one piece of color
+    public static long attackMap(Bitboard bitboards, int color)
+    {
+        long occupied = bitboards.getOccupied();
+        long attacks = 0L;
+        for (int type = Bitboard.PAWN; type <= Bitboard.KING; type++)
+        {
+            long pieces = bitboards.getPieces(color, type);
+            while (pieces != 0)
+            {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                attacks |= attacksFrom(type, color, square, occupied);
+            }
+        }
+        return attacks;
+    }
+
+    // Squares a piece of the given Bitboard type and colour attacks from square
+    public static long attacksFrom(int type, int color, int square, long occupied)
+    {
+        switch (type)
+        {
+            case Bitboard.PAWN: return PAWN[color][square];
+            case Bitboard.KNIGHT: return KNIGHT[square];
+            case Bitboard.BISHOP: return bishop(square, occupied);
+            case Bitboard.ROOK: return rook(square, occupied);
+            case Bitboard.QUEEN: return queen(square, occupied);
+            default: return KING[square];
+        }
+    }
+}
@@ -7,9 +7,9 @@ package ChessGui;
 public class Bishop extends Piece 
 {
 
-    public Bishop(String color) 
+    public Bishop(PieceColor color) 
     {
-        super("Bishop", color);
+        super(PieceType.BISHOP, color);
     }
 
     @Override
@@ -44,6 +44,6 @@ public class Bishop extends Piece
 
         // Check if the destination square is empty or contains an opponent's piece.
         Piece destinationPiece = board.getPiece(endRow, endCol);
-        return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+        return destinationPiece == null || destinationPiece.getColor() != getColor();
     }
 }
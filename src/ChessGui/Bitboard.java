@@ -0,0 +1,131 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Bitboard view of a position: one 64-bit set per piece type and colour, plus occupancy masks.
+// Bit index = row * 8 + col, so bit 0 is a8 (row 0, col 0) and bit 63 is h1 (row 7, col 7),
+// matching the row/col layout of Board's Piece[][] grid.
+// Board keeps this in sync with its grid, so occupancy and piece lookups don't need to scan 64 squares.
+public class Bitboard
+{
+    // Piece type indices
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int PIECE_TYPES = 6;
+
+    // Colour indices
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    private final long[] pieces;   // [color * PIECE_TYPES + type]
+    private final long[] occupancy; // [color]
+    private long occupied;
+
+    public Bitboard()
+    {
+        this.pieces = new long[2 * PIECE_TYPES];
+        this.occupancy = new long[2];
+        this.occupied = 0L;
+    }
+
+    // Empties every set
+    public void clear()
+    {
+        for (int i = 0; i < pieces.length; i++)
+        {
+            pieces[i] = 0L;
+        }
+        occupancy[WHITE] = 0L;
+        occupancy[BLACK] = 0L;
+        occupied = 0L;
+    }
+
+    // Adds a piece on row/col to its piece set and the occupancy masks
+    public void add(Piece piece, int row, int col)
+    {
+        long bit = bit(row, col);
+        int color = colorIndex(piece);
+        pieces[pieceIndex(piece)] |= bit;
+        occupancy[color] |= bit;
+        occupied |= bit;
+    }
+
+    // Removes a piece on row/col from its piece set and the occupancy masks
+    public void remove(Piece piece, int row, int col)
+    {
+        long bit = ~bit(row, col);
+        int color = colorIndex(piece);
+        pieces[pieceIndex(piece)] &= bit;
+        occupancy[color] &= bit;
+        occupied &= bit;
+    }
+
+    public long getPieces(int color, int type)
+    {
+        return pieces[color * PIECE_TYPES + type];
+    }
+
+    public long getOccupancy(int color)
+    {
+        return occupancy[color];
+    }
+
+    public long getOccupied()
+    {
+        return occupied;
+    }
+
+    public boolean isOccupied(int row, int col)
+    {
+        return (occupied & bit(row, col)) != 0;
+    }
+
+    // Square index of the given colour's king, or -1 if there isn't one on the board
+    public int findKing(int color)
+    {
+        long king = pieces[color * PIECE_TYPES + KING];
+        return (king == 0) ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    public static int square(int row, int col)
+    {
+        return row * Board.SIZE + col;
+    }
+
+    public static int rowOf(int square)
+    {
+        return square >>> 3;
+    }
+
+    public static int colOf(int square)
+    {
+        return square & 7;
+    }
+
+    public static long bit(int row, int col)
+    {
+        return 1L << square(row, col);
+    }
+
+    public static int colorIndex(Piece piece)
+    {
+        return piece.getColor().index();
+    }
+
+    // Index into the twelve piece sets: color * PIECE_TYPES + type
+    public static int pieceIndex(Piece piece)
+    {
+        return colorIndex(piece) * PIECE_TYPES + typeIndex(piece);
+    }
+
+    public static int typeIndex(Piece piece)
+    {
+        return piece.getType().index();
+    }
+}
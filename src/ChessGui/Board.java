@@ -8,8 +8,52 @@ public class Board
 {
     public static final int SIZE = 8;
     private Piece[][] squares;
-    private int[] enPassantTarget; // [row, col] of the square behind the pawn that just moved two squares (null if EP not possible)
+    private final Bitboard bitboards; // Kept in sync with squares for fast occupancy/attack queries
+    private int enPassantSquare; // Square (Bitboard numbering) behind the pawn that just moved two squares, -1 if EP not possible
+    private PieceColor sideToMove;
+    private int castlingRights; // CASTLE_* bits; the board, not the King/Rook objects, remembers what has moved
+    private int halfmoveClock;  // Plies since the last capture or pawn move, for the fifty-move rule
+    private int fullmoveNumber; // Starts at 1 and goes up after each black move
+    private long zobristKey; // Updated incrementally on every change to the position
+    private long pawnKey;    // Zobrist key of the pawns alone, for the pawn structure cache
+    // Material plus piece-square totals (white minus black) and game phase, kept up to date
+    // the same way so the evaluation doesn't have to add them up at every leaf
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
     
+    // Castling right bits
+    public static final int CASTLE_WHITE_KINGSIDE = 1;
+    public static final int CASTLE_WHITE_QUEENSIDE = 2;
+    public static final int CASTLE_BLACK_KINGSIDE = 4;
+    public static final int CASTLE_BLACK_QUEENSIDE = 8;
+    public static final int CASTLE_ALL = 15;
+
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String FEN_PIECES = "PNBRQKpnbrqk"; // By Bitboard piece index
+    private static final Piece[] FEN_PIECE_LOOKUP = new Piece['z' + 1]; // Piece by FEN letter
+
+    // Rights kept when a piece moves from or to each square: touching a king or rook home
+    // square loses the rights that depend on it
+    private static final int[] CASTLING_MASK = new int[SIZE * SIZE];
+
+    static
+    {
+        java.util.Arrays.fill(CASTLING_MASK, CASTLE_ALL);
+        CASTLING_MASK[Bitboard.square(7, 4)] &= ~(CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE);
+        CASTLING_MASK[Bitboard.square(7, 7)] &= ~CASTLE_WHITE_KINGSIDE;
+        CASTLING_MASK[Bitboard.square(7, 0)] &= ~CASTLE_WHITE_QUEENSIDE;
+        CASTLING_MASK[Bitboard.square(0, 4)] &= ~(CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE);
+        CASTLING_MASK[Bitboard.square(0, 7)] &= ~CASTLE_BLACK_KINGSIDE;
+        CASTLING_MASK[Bitboard.square(0, 0)] &= ~CASTLE_BLACK_QUEENSIDE;
+
+        for (int index = 0; index < FEN_PIECES.length(); index++)
+        {
+            FEN_PIECE_LOOKUP[FEN_PIECES.charAt(index)] = Piece.of(PieceType.fromIndex(index % Bitboard.PIECE_TYPES),
+                    PieceColor.fromIndex(index / Bitboard.PIECE_TYPES));
+        }
+    }
+
     // Constants to describe move results for logging
     public static final String MOVE_ILLEGAL = "illegal";
     public static final String MOVE_OK = "ok";
@@ -19,10 +63,33 @@ public class Board
     public Board() 
     {
         this.squares = new Piece[SIZE][SIZE];
-        this.enPassantTarget = null;
+        this.bitboards = new Bitboard();
         initializeEmptyBoard();
     }
 
+    // Independent copy of another board, e.g. for a worker thread. Pieces are immutable,
+    // so the copy shares them and only the grid and position state are duplicated.
+    public Board(Board other) 
+    {
+        this();
+        for (int row = 0; row < SIZE; row++) 
+        {
+            for (int col = 0; col < SIZE; col++) 
+            {
+                Piece piece = other.squares[row][col];
+                if (piece != null) 
+                {
+                    setSquare(row, col, piece);
+                }
+            }
+        }
+        setEnPassant(other.enPassantSquare);
+        setSideToMove(other.sideToMove);
+        setCastling(other.castlingRights);
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+    }
+
     // Creates a (size)-by-(size) 2D array of nulls
     public void initializeEmptyBoard() 
     {
@@ -33,6 +100,17 @@ public class Board
                 this.squares[row][col] = null;
             }
         }
+        bitboards.clear();
+        this.enPassantSquare = -1;
+        this.sideToMove = PieceColor.WHITE;
+        this.castlingRights = 0;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.zobristKey = Zobrist.castling(0);
+        this.pawnKey = 0L;
+        this.middlegameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
     }
 
     // Sets designated row/col to piece (if in bounds)
@@ -40,7 +118,8 @@ public class Board
     {
         if (isValidPosition(row, col)) 
         {
-            this.squares[row][col] = piece;
+            setSquare(row, col, piece);
+            setCastling(castlingRights & possibleCastlingRights());
         } 
         else 
         {
@@ -67,7 +146,8 @@ public class Board
     {
         if (isValidPosition(row, col)) 
         {
-            this.squares[row][col] = null;
+            setSquare(row, col, null);
+            setCastling(castlingRights & possibleCastlingRights());
         } 
         else 
         {
@@ -75,6 +155,201 @@ public class Board
         }
     }
 
+    // Bitboard view of this position
+    public Bitboard getBitboards()
+    {
+        return bitboards;
+    }
+
+    // All grid writes go through here so the bitboards and hash key never drift from squares
+    private void setSquare(int row, int col, Piece piece)
+    {
+        int square = Bitboard.square(row, col);
+        Piece previous = squares[row][col];
+        if (previous != null)
+        {
+            int index = Bitboard.pieceIndex(previous);
+            bitboards.remove(previous, row, col);
+            zobristKey ^= Zobrist.piece(index, square);
+            if (previous.getType() == PieceType.PAWN)
+            {
+                pawnKey ^= Zobrist.piece(index, square);
+            }
+            middlegameScore -= Evaluation.middlegame(index, square);
+            endgameScore -= Evaluation.endgame(index, square);
+            phase -= Evaluation.phaseWeight(Bitboard.typeIndex(previous));
+        }
+        squares[row][col] = piece;
+        if (piece != null)
+        {
+            int index = Bitboard.pieceIndex(piece);
+            bitboards.add(piece, row, col);
+            zobristKey ^= Zobrist.piece(index, square);
+            if (piece.getType() == PieceType.PAWN)
+            {
+                pawnKey ^= Zobrist.piece(index, square);
+            }
+            middlegameScore += Evaluation.middlegame(index, square);
+            endgameScore += Evaluation.endgame(index, square);
+            phase += Evaluation.phaseWeight(Bitboard.typeIndex(piece));
+        }
+    }
+
+    // Material and piece-square total for the middlegame, white minus black
+    public int getMiddlegameScore()
+    {
+        return middlegameScore;
+    }
+
+    public int getEndgameScore()
+    {
+        return endgameScore;
+    }
+
+    // Non-pawn material left, from 0 (pawn endgame) to Evaluation.MAX_PHASE at the start
+    public int getPhase()
+    {
+        return phase;
+    }
+
+    // 64-bit Zobrist key of the position: pieces, side to move, castling rights and en passant file
+    public long getZobristKey()
+    {
+        return zobristKey;
+    }
+
+    // Recomputes the key from scratch; should always equal getZobristKey()
+    public long computeZobristKey()
+    {
+        long key = 0L;
+        for (int row = 0; row < SIZE; row++)
+        {
+            for (int col = 0; col < SIZE; col++)
+            {
+                if (squares[row][col] != null)
+                {
+                    key ^= Zobrist.piece(Bitboard.pieceIndex(squares[row][col]), Bitboard.square(row, col));
+                }
+            }
+        }
+        key ^= Zobrist.castling(castlingRights);
+        if (enPassantSquare >= 0)
+        {
+            key ^= Zobrist.enPassantFile(Bitboard.colOf(enPassantSquare));
+        }
+        if (sideToMove == PieceColor.BLACK)
+        {
+            key ^= Zobrist.SIDE;
+        }
+        return key;
+    }
+
+    // Key of the pawns alone: changes only when a pawn moves, is captured or promotes
+    public long getPawnKey()
+    {
+        return pawnKey;
+    }
+
+    // Recomputes the pawn key from scratch; should always equal getPawnKey()
+    public long computePawnKey()
+    {
+        long key = 0L;
+        for (int color = Bitboard.WHITE; color <= Bitboard.BLACK; color++)
+        {
+            long pawns = bitboards.getPieces(color, Bitboard.PAWN);
+            while (pawns != 0)
+            {
+                key ^= Zobrist.piece(color * Bitboard.PIECE_TYPES + Bitboard.PAWN, Long.numberOfTrailingZeros(pawns));
+                pawns &= pawns - 1;
+            }
+        }
+        return key;
+    }
+
+    public PieceColor getSideToMove()
+    {
+        return sideToMove;
+    }
+
+    public void setSideToMove(PieceColor color)
+    {
+        if (color != sideToMove)
+        {
+            sideToMove = color;
+            zobristKey ^= Zobrist.SIDE;
+        }
+    }
+
+    public int getCastlingRights()
+    {
+        return castlingRights;
+    }
+
+    // Plies since the last capture or pawn move
+    public int getHalfmoveClock()
+    {
+        return halfmoveClock;
+    }
+
+    // Number of the current move: 1 until black has made a move, then 2, and so on
+    public int getFullmoveNumber()
+    {
+        return fullmoveNumber;
+    }
+
+    // For setting up positions. Rights whose king or rook is not on its home square are dropped.
+    public void setCastlingRights(int rights)
+    {
+        setCastling(rights & possibleCastlingRights());
+    }
+
+    // Rights that the pieces on the board allow at all: king and rook still on their home squares
+    private int possibleCastlingRights()
+    {
+        int rights = 0;
+        if (isPieceAt(7, 4, PieceType.KING, PieceColor.WHITE))
+        {
+            if (isPieceAt(7, 7, PieceType.ROOK, PieceColor.WHITE)) rights |= CASTLE_WHITE_KINGSIDE;
+            if (isPieceAt(7, 0, PieceType.ROOK, PieceColor.WHITE)) rights |= CASTLE_WHITE_QUEENSIDE;
+        }
+        if (isPieceAt(0, 4, PieceType.KING, PieceColor.BLACK))
+        {
+            if (isPieceAt(0, 7, PieceType.ROOK, PieceColor.BLACK)) rights |= CASTLE_BLACK_KINGSIDE;
+            if (isPieceAt(0, 0, PieceType.ROOK, PieceColor.BLACK)) rights |= CASTLE_BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    private boolean isPieceAt(int row, int col, PieceType type, PieceColor color)
+    {
+        Piece piece = squares[row][col];
+        return piece != null && piece.getType() == type && piece.getColor() == color;
+    }
+
+    // All castling right changes go through here to keep the key's castling component in step
+    private void setCastling(int rights)
+    {
+        if (rights != castlingRights)
+        {
+            zobristKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+            castlingRights = rights;
+        }
+    }
+
+    // All en passant target changes go through here to keep the key's en passant file in step
+    private void setEnPassant(int square)
+    {
+        if (enPassantSquare >= 0)
+        {
+            zobristKey ^= Zobrist.enPassantFile(Bitboard.colOf(enPassantSquare));
+        }
+        enPassantSquare = square;
+        if (square >= 0)
+        {
+            zobristKey ^= Zobrist.enPassantFile(Bitboard.colOf(square));
+        }
+    }
+
     // Within board bounds
     private boolean isValidPosition(int row, int col) 
     {
@@ -91,8 +366,7 @@ public class Board
             return MOVE_ILLEGAL;
         }
 
-        int[] currentEnPassantTarget = this.enPassantTarget;
-        boolean isAttemptingEnPassant = (pieceToMove instanceof Pawn && currentEnPassantTarget != null && endRow == currentEnPassantTarget[0] && endCol == currentEnPassantTarget[1]);
+        boolean isAttemptingEnPassant = (pieceToMove instanceof Pawn && Bitboard.square(endRow, endCol) == enPassantSquare);
 
         if (!pieceToMove.canMove(startRow, startCol, endRow, endCol, this)) {
             if (!silenceInvalid) System.err.println("Invalid move pattern.");
@@ -101,76 +375,133 @@ public class Board
         
         // Check for capturing own piece
         Piece destinationPiece = getPiece(endRow, endCol);
-        if (!isAttemptingEnPassant && destinationPiece != null && destinationPiece.getColor().equals(pieceToMove.getColor())) {
+        if (!isAttemptingEnPassant && destinationPiece != null && destinationPiece.getColor() == pieceToMove.getColor()) {
             if (!silenceInvalid) System.err.println("Cannot capture your own piece.");
             return MOVE_ILLEGAL;
         }
 
-        // Simulation and self-check logic
-        Piece actualCapturedPiece = null;
-        int capturedPieceRow = -1, capturedPieceCol = -1;
-        squares[endRow][endCol] = pieceToMove;
-        squares[startRow][startCol] = null;
-
-        if (isAttemptingEnPassant) { // En passant attempt
-            capturedPieceRow = startRow; capturedPieceCol = endCol;
-            actualCapturedPiece = getPiece(capturedPieceRow, capturedPieceCol);
-            if (actualCapturedPiece instanceof Pawn && !actualCapturedPiece.getColor().equals(pieceToMove.getColor())) {
-                squares[capturedPieceRow][capturedPieceCol] = null;
-            } else { actualCapturedPiece = null; }
-        } else if (destinationPiece != null) {
-            actualCapturedPiece = destinationPiece;
-            capturedPieceRow = endRow; capturedPieceCol = endCol;
-        }
-
         // Can't make moves that would put the king in check
-        if (isKingInCheck(pieceToMove.getColor())) {
-            squares[startRow][startCol] = pieceToMove;
-            squares[endRow][endCol] = isAttemptingEnPassant ? null : destinationPiece;
-            if (isAttemptingEnPassant && actualCapturedPiece != null) {
-                squares[capturedPieceRow][capturedPieceCol] = actualCapturedPiece;
-            }
-            this.enPassantTarget = currentEnPassantTarget;
+        int move = createMove(startRow, startCol, endRow, endCol, Bitboard.PAWN);
+        if (leavesKingInCheck(move)) {
             if (!silenceInvalid) System.err.println("Move puts king in check.");
             return MOVE_ILLEGAL;
         }
 
-        // Move is valid, finalize board state
-        this.enPassantTarget = null;
-        String moveType = MOVE_OK; // Default return type for a standard move
-
-        if (pieceToMove instanceof King) {
-            ((King) pieceToMove).setHasMoved(true);
-            if (Math.abs(endCol - startCol) == 2) { // Castling
-                int rookStartCol = (endCol > startCol) ? 7 : 0;
-                int rookEndCol = (endCol > startCol) ? 5 : 3;
-                Piece rook = getPiece(startRow, rookStartCol);
-                if (rook instanceof Rook) {
-                    squares[startRow][rookEndCol] = rook;
-                    squares[startRow][rookStartCol] = null;
-                    ((Rook) rook).setHasMoved(true);
-                    moveType = MOVE_CASTLE; // Set special return type
-                }
+        // Move is valid, apply it
+        makeMove(move);
+        if (Move.isCastle(move)) {
+            return MOVE_CASTLE;
+        }
+        if (Move.isEnPassant(move)) {
+            return MOVE_EN_PASSANT;
+        }
+        return MOVE_OK;
+    }
+
+    // Packs a move between two squares, working out its flags from the current position.
+    // promotionType is the Bitboard piece type a pawn reaching the last rank becomes; pass
+    // Bitboard.PAWN to leave the pawn in place for a later promotePawn call.
+    public int createMove(int startRow, int startCol, int endRow, int endCol, int promotionType) {
+        Piece pieceToMove = squares[startRow][startCol];
+        boolean capture = squares[endRow][endCol] != null;
+        int flags = capture ? Move.CAPTURE : Move.QUIET;
+        if (pieceToMove instanceof Pawn) {
+            if (Math.abs(endRow - startRow) == 2) {
+                flags = Move.DOUBLE_PAWN_PUSH;
+            } else if (!capture && startCol != endCol) {
+                flags = Move.EN_PASSANT;
+            } else if ((endRow == 0 || endRow == SIZE - 1) && promotionType != Bitboard.PAWN) {
+                flags = Move.promotionFlags(promotionType, capture);
             }
-        } else if (pieceToMove instanceof Rook) {
-            ((Rook) pieceToMove).setHasMoved(true);
+        } else if (pieceToMove instanceof King && Math.abs(endCol - startCol) == 2) {
+            flags = (endCol > startCol) ? Move.KING_CASTLE : Move.QUEEN_CASTLE;
+        }
+        return Move.encode(Bitboard.square(startRow, startCol), Bitboard.square(endRow, endCol), flags);
+    }
+
+    // Plays a move that already follows the piece's movement rules, without any legality checks.
+    // move is a packed Move, as produced by MoveGenerator or createMove.
+    // Returns the record unmakeMove needs to restore the position in place.
+    public MoveUndo makeMove(int move) {
+        int startRow = Move.fromRow(move), startCol = Move.fromCol(move);
+        int endRow = Move.toRow(move), endCol = Move.toCol(move);
+        Piece pieceToMove = squares[startRow][startCol];
+        Piece capturedPiece = squares[endRow][endCol];
+        int previousEnPassantSquare = this.enPassantSquare;
+        int previousCastlingRights = this.castlingRights;
+
+        if (Move.isEnPassant(move)) {
+            capturedPiece = squares[startRow][endCol]; // The captured pawn is beside the capturing pawn
+            setSquare(startRow, endCol, null);
         }
+        setSquare(endRow, endCol, pieceToMove);
+        setSquare(startRow, startCol, null);
 
-        if (pieceToMove instanceof Pawn && Math.abs(endRow - startRow) == 2) {
-            this.enPassantTarget = new int[]{(startRow + endRow) / 2, startCol};
+        if (Move.isCastle(move)) {
+            int rookStartCol = (endCol > startCol) ? 7 : 0;
+            int rookEndCol = (endCol > startCol) ? 5 : 3;
+            setSquare(startRow, rookEndCol, squares[startRow][rookStartCol]);
+            setSquare(startRow, rookStartCol, null);
+        } else if (Move.isPromotion(move)) {
+            setSquare(endRow, endCol, Piece.of(PieceType.fromIndex(Move.promotionType(move)), pieceToMove.getColor()));
         }
-        
-        if (isAttemptingEnPassant) {
-            moveType = MOVE_EN_PASSANT; // Set special return type
+
+        setEnPassant(Move.isDoublePawnPush(move) ? Bitboard.square((startRow + endRow) / 2, startCol) : -1);
+        setCastling(castlingRights & CASTLING_MASK[Move.from(move)] & CASTLING_MASK[Move.to(move)]);
+        setSideToMove(pieceToMove.getColor().opposite());
+        int previousHalfmoveClock = this.halfmoveClock;
+        halfmoveClock = (pieceToMove.getType() == PieceType.PAWN || capturedPiece != null) ? 0 : halfmoveClock + 1;
+        if (pieceToMove.getColor() == PieceColor.BLACK) {
+            fullmoveNumber++;
+        }
+
+        return new MoveUndo(move, pieceToMove, capturedPiece, previousEnPassantSquare, previousCastlingRights,
+                previousHalfmoveClock);
+    }
+
+    // Reverses a makeMove, restoring captured pieces, castling rights, en passant target and promotions
+    public void unmakeMove(MoveUndo undo) {
+        int move = undo.move;
+        int startRow = Move.fromRow(move), startCol = Move.fromCol(move);
+        int endRow = Move.toRow(move), endCol = Move.toCol(move);
+
+        setSquare(startRow, startCol, undo.movedPiece); // Also turns a promoted piece back into the pawn
+        setSquare(endRow, endCol, null);
+        if (Move.isEnPassant(move)) {
+            setSquare(startRow, endCol, undo.capturedPiece);
+        } else if (undo.capturedPiece != null) {
+            setSquare(endRow, endCol, undo.capturedPiece);
+        }
+
+        if (Move.isCastle(move)) {
+            int rookStartCol = (endCol > startCol) ? 7 : 0;
+            int rookEndCol = (endCol > startCol) ? 5 : 3;
+            setSquare(startRow, rookStartCol, squares[startRow][rookEndCol]);
+            setSquare(startRow, rookEndCol, null);
         }
 
-        return moveType;
+        setEnPassant(undo.previousEnPassantSquare);
+        setCastling(undo.previousCastlingRights);
+        setSideToMove(undo.movedPiece.getColor());
+        halfmoveClock = undo.previousHalfmoveClock;
+        if (undo.movedPiece.getColor() == PieceColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    // Makes the move just long enough to see whether it leaves the mover's king in check
+    public boolean leavesKingInCheck(int move) {
+        PieceColor color = squares[Move.fromRow(move)][Move.fromCol(move)].getColor();
+        MoveUndo undo = makeMove(move);
+        boolean inCheck = isKingInCheck(color);
+        unmakeMove(undo);
+        return inCheck;
     }
 
     public void promotePawn(int row, int col, Piece newPiece) {
         if (isValidPosition(row, col) && getPiece(row, col) instanceof Pawn && newPiece != null) {
-            if (getPiece(row, col).getColor().equals(newPiece.getColor())) { // Ensure colors match
-               squares[row][col] = newPiece;
+            if (getPiece(row, col).getColor() == newPiece.getColor()) { // Ensure colors match
+               setSquare(row, col, newPiece);
             } else {
                  System.err.println("Promotion color mismatch at " + ChessGame.getAlgebraic(row, col));
             }
@@ -179,126 +510,343 @@ public class Board
         }
     }
 
+    // [row, col] of the en passant target, or null. Allocates, so move generation uses getEnPassantSquare.
     public int[] getEnPassantTarget() {
-        return (enPassantTarget == null) ? null : enPassantTarget.clone();
+        return (enPassantSquare < 0) ? null : new int[]{Bitboard.rowOf(enPassantSquare), Bitboard.colOf(enPassantSquare)};
+    }
+
+    // En passant target square (Bitboard numbering), or -1 if there isn't one
+    public int getEnPassantSquare() {
+        return enPassantSquare;
     }
     
-    
-    // Setter primarily for temporary board creation
+    // Setter for setting up positions
     public void setEnPassantTarget(int row, int col) {
-        if (isValidPosition(row, col)) {
-            this.enPassantTarget = new int[]{row, col};
-        } else {
-            this.enPassantTarget = null;
-        }
+        setEnPassant(isValidPosition(row, col) ? Bitboard.square(row, col) : -1);
     }
 
     // Overload for easy setting to null
     public void setEnPassantTarget(int[] target) {
-        if (target == null) {
-            this.enPassantTarget = null;
-        } else if (target.length == 2 && isValidPosition(target[0], target[1])) {
-            this.enPassantTarget = target.clone();
+        if (target != null && target.length == 2 && isValidPosition(target[0], target[1])) {
+            setEnPassant(Bitboard.square(target[0], target[1]));
         } else {
-             this.enPassantTarget = null;
+            setEnPassant(-1);
         }
     }
 
-    // Helper method to check if a square is attacked by any opponent's piece
-    private boolean isSquareAttacked(int row, int col, String attackingColor) 
+    // True if any piece of attackerColor (Bitboard.WHITE/BLACK) attacks row/col.
+    // Looks outward from the square using the precomputed attack tables.
+    public boolean isAttackedBy(int row, int col, int attackerColor)
+    {
+        return Attacks.isSquareAttacked(bitboards, Bitboard.square(row, col), attackerColor);
+    }
+
+    // Every square attacked by at least one piece of color
+    public long getAttackMap(PieceColor color)
+    {
+        return Attacks.attackMap(bitboards, color.index());
+    }
+
+    public boolean isKingInCheck(PieceColor color) 
     {
-        String opponentColor = (attackingColor.equals("white")) ? "black" : "white";
-        for (int i = 0; i < SIZE; i++) 
+        int colorIndex = color.index();
+        int kingSquare = bitboards.findKing(colorIndex);
+        if (kingSquare < 0) 
         {
-            for (int j = 0; j < SIZE; j++) 
+            return false;
+        }
+        return Attacks.isSquareAttacked(bitboards, kingSquare, 1 - colorIndex);
+    }
+
+    public void initializeStandardBoard() 
+    {
+        // Back ranks, from the a-file to the h-file
+        PieceType[] backRank = {
+            PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+            PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK
+        };
+
+        // Place white pieces
+        for (int i = 0; i < SIZE; i++) {
+            placePiece(Piece.of(backRank[i], PieceColor.WHITE), 7, i);
+            placePiece(Piece.of(PieceType.PAWN, PieceColor.WHITE), 6, i);
+        }
+
+        // Place black pieces
+        for (int i = 0; i < SIZE; i++) {
+            placePiece(Piece.of(backRank[i], PieceColor.BLACK), 0, i);
+            placePiece(Piece.of(PieceType.PAWN, PieceColor.BLACK), 1, i);
+        }
+        setCastlingRights(CASTLE_ALL);
+    }
+
+    // Sets the position from Forsyth-Edwards Notation: placement, side to move, castling rights,
+    // en passant target, then the halfmove clock and fullmove number, which may be left off.
+    // Reads fen in one pass without allocating, so large position files load quickly. Castling
+    // rights whose king or rook is not on its home square are dropped. Throws
+    // IllegalArgumentException for a malformed FEN, leaving the board empty.
+    public void setFromFen(CharSequence fen)
+    {
+        initializeEmptyBoard();
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        // Placement, from the eighth rank (row 0) down
+        int row = 0, col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++)
+        {
+            char c = fen.charAt(i);
+            if (c == '/')
+            {
+                if (col != SIZE || ++row == SIZE)
+                {
+                    throw badFen(fen, "wrong number of squares in a rank");
+                }
+                col = 0;
+            }
+            else if (c >= '1' && c <= '8')
             {
-                Piece piece = getPiece(i, j);
-                if (piece != null && piece.getColor().equals(opponentColor)) 
+                col += c - '0';
+                if (col > SIZE)
                 {
-                    if (piece.canMove(i, j, row, col, this)) 
-                    {
-                        return true;
-                    }
+                    throw badFen(fen, "wrong number of squares in a rank");
                 }
             }
+            else
+            {
+                Piece piece = (c < FEN_PIECE_LOOKUP.length) ? FEN_PIECE_LOOKUP[c] : null;
+                if (piece == null || col == SIZE)
+                {
+                    throw badFen(fen, (piece == null) ? "unknown piece '" + c + "'" : "wrong number of squares in a rank");
+                }
+                setSquare(row, col++, piece);
+            }
+        }
+        if (row != SIZE - 1 || col != SIZE)
+        {
+            throw badFen(fen, "placement does not cover eight ranks");
         }
-        return false;
-    }
 
-    // Checks each square for the king
-    private int[] findKing(String color) 
-    {
-        for (int row = 0; row < SIZE; row++) 
+        // Side to move
+        i = skipSpaces(fen, i);
+        if (i == length || !isFieldEnd(fen, i + 1) || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b'))
         {
-            for (int col = 0; col < SIZE; col++) 
+            throw badFen(fen, "side to move must be w or b");
+        }
+        setSideToMove((fen.charAt(i++) == 'w') ? PieceColor.WHITE : PieceColor.BLACK);
+
+        // Castling rights
+        i = skipSpaces(fen, i);
+        int rights = 0;
+        if (i < length && fen.charAt(i) == '-')
+        {
+            i++;
+        }
+        else
+        {
+            for (; i < length && fen.charAt(i) != ' '; i++)
             {
-                Piece piece = getPiece(row, col);
-                if (piece instanceof King && piece.getColor().equals(color)) 
+                int bit = "KQkq".indexOf(fen.charAt(i));
+                if (bit < 0)
                 {
-                    return new int[]{row, col};
+                    throw badFen(fen, "bad castling rights");
                 }
+                rights |= 1 << bit;
             }
         }
-        return null;
-    }
+        if (!isFieldEnd(fen, i))
+        {
+            throw badFen(fen, "bad castling rights");
+        }
+        setCastlingRights(rights);
 
-    public boolean isKingInCheck(String color) 
-    {
-        int[] kingPosition = findKing(color);
-        if (kingPosition == null) 
+        // En passant target: behind a pawn the other side has just moved two squares
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) == '-')
         {
-            return false;
+            i++;
+        }
+        else if (i + 1 < length)
+        {
+            int targetCol = fen.charAt(i) - 'a';
+            int targetRow = SIZE - (fen.charAt(i + 1) - '0');
+            int expectedRow = (sideToMove == PieceColor.WHITE) ? 2 : 5;
+            if (targetCol < 0 || targetCol >= SIZE || targetRow != expectedRow)
+            {
+                throw badFen(fen, "bad en passant square");
+            }
+            setEnPassant(Bitboard.square(targetRow, targetCol));
+            i += 2;
+        }
+        if (!isFieldEnd(fen, i))
+        {
+            throw badFen(fen, "bad en passant square");
         }
-        int kingRow = kingPosition[0];
-        int kingCol = kingPosition[1];
 
-        // Checks each square for a piece that has a valid move to the king's square
-        String opponentColor = (color.equals("white")) ? "black" : "white";
-        for (int row = 0; row < SIZE; row++) 
+        // Move counters, if given
+        i = skipSpaces(fen, i);
+        if (i < length)
         {
-            for (int col = 0; col < SIZE; col++) 
+            int end = counterEnd(fen, i);
+            halfmoveClock = parseCounter(fen, i, end);
+            i = skipSpaces(fen, end);
+            if (i < length)
             {
-                Piece piece = getPiece(row, col);
-                if (piece != null && piece.getColor().equals(opponentColor)) 
+                end = counterEnd(fen, i);
+                fullmoveNumber = Math.max(1, parseCounter(fen, i, end)); // Some programs write 0
+                i = skipSpaces(fen, end);
+            }
+        }
+        if (i < length)
+        {
+            throw badFen(fen, "unexpected text after the move counters");
+        }
+    }
+
+    // A new board set up from a FEN; see setFromFen
+    public static Board fromFen(CharSequence fen)
+    {
+        Board board = new Board();
+        board.setFromFen(fen);
+        return board;
+    }
+
+    // The position in Forsyth-Edwards Notation
+    public String toFen()
+    {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < SIZE; row++)
+        {
+            int empty = 0;
+            for (int col = 0; col < SIZE; col++)
+            {
+                Piece piece = squares[row][col];
+                if (piece == null)
                 {
-                    if (piece.canMove(row, col, kingRow, kingCol, this)) 
-                    {
-                        return true;
-                    }
+                    empty++;
+                    continue;
                 }
+                if (empty > 0)
+                {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(FEN_PIECES.charAt(Bitboard.pieceIndex(piece)));
+            }
+            if (empty > 0)
+            {
+                fen.append((char) ('0' + empty));
+            }
+            if (row < SIZE - 1)
+            {
+                fen.append('/');
+            }
+        }
+        fen.append(' ').append((sideToMove == PieceColor.WHITE) ? 'w' : 'b').append(' ');
+        if (castlingRights == 0)
+        {
+            fen.append('-');
+        }
+        for (int bit = 0; bit < 4; bit++)
+        {
+            if ((castlingRights & (1 << bit)) != 0)
+            {
+                fen.append("KQkq".charAt(bit));
             }
         }
+        fen.append(' ');
+        if (enPassantSquare < 0)
+        {
+            fen.append('-');
+        }
+        else
+        {
+            fen.append((char) ('a' + Bitboard.colOf(enPassantSquare))).append((char) ('0' + SIZE - Bitboard.rowOf(enPassantSquare)));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
 
-        return false;
+    private static int skipSpaces(CharSequence text, int i)
+    {
+        while (i < text.length() && text.charAt(i) == ' ')
+        {
+            i++;
+        }
+        return i;
     }
 
-    public void initializeStandardBoard() 
+    private static boolean isFieldEnd(CharSequence text, int i)
     {
-        // Place white pieces
-        placePiece(new Rook("white"), 7, 0);
-        placePiece(new Knight("white"), 7, 1);
-        placePiece(new Bishop("white"), 7, 2);
-        placePiece(new Queen("white"), 7, 3);
-        placePiece(new King("white"), 7, 4);
-        placePiece(new Bishop("white"), 7, 5);
-        placePiece(new Knight("white"), 7, 6);
-        placePiece(new Rook("white"), 7, 7);
-        for (int i = 0; i < SIZE; i++) {
-            placePiece(new Pawn("white"), 6, i);
+        return i >= text.length() || text.charAt(i) == ' ';
+    }
+
+    private static int counterEnd(CharSequence text, int i)
+    {
+        while (i < text.length() && text.charAt(i) != ' ')
+        {
+            i++;
         }
+        return i;
+    }
 
-        // Place black pieces
-        placePiece(new Rook("black"), 0, 0);
-        placePiece(new Knight("black"), 0, 1);
-        placePiece(new Bishop("black"), 0, 2);
-        placePiece(new Queen("black"), 0, 3);
-        placePiece(new King("black"), 0, 4);
-        placePiece(new Bishop("black"), 0, 5);
-        placePiece(new Knight("black"), 0, 6);
-        placePiece(new Rook("black"), 0, 7);
-        for (int i = 0; i < SIZE; i++) {
-            placePiece(new Pawn("black"), 1, i);
+    // Non-negative decimal number in text[start, end)
+    private int parseCounter(CharSequence text, int start, int end)
+    {
+        int value = 0;
+        for (int i = start; i < end; i++)
+        {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9' || value > (Integer.MAX_VALUE - 9) / 10)
+            {
+                throw badFen(text, "bad move counter");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Clears the half-parsed position before reporting the problem
+    private IllegalArgumentException badFen(CharSequence fen, String problem)
+    {
+        initializeEmptyBoard();
+        return new IllegalArgumentException("Invalid FEN (" + problem + "): " + fen);
+    }
+
+    // Times parsing and writing FEN, the kind of load position test suites put on it.
+    // Usage: Board [fen]
+    public static void main(String[] args)
+    {
+        String[] fens = (args.length > 0) ? new String[] {String.join(" ", args)} : new String[] {
+            STARTING_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2"
+        };
+        Board board = new Board();
+        int rounds = 1_000_000 / fens.length;
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++)
+        {
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++)
+            {
+                for (String fen : fens)
+                {
+                    board.setFromFen(fen);
+                    checksum += board.getZobristKey();
+                }
+            }
+            long parseNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int round = 0; round < rounds; round++)
+            {
+                checksum += board.toFen().length();
+            }
+            long writeNanos = System.nanoTime() - start;
+            System.out.println(String.format("Parse: %.0f ns per FEN (%.0f per second), write: %.0f ns per FEN",
+                    (double) parseNanos / (rounds * fens.length), rounds * fens.length * 1e9 / parseNanos,
+                    (double) writeNanos / rounds));
         }
+        System.out.println(board.toFen() + "  (checksum " + checksum + ")");
     }
 }
- 
\ No newline at end of file
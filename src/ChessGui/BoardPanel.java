@@ -4,10 +4,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  *
@@ -22,19 +18,19 @@ public class BoardPanel extends JPanel {
 
     private final ChessGame game;
     private final Board board;
-    private final Map<String, Image> pieceImages;
+    private final Image[] pieceImages; // Indexed by Bitboard.pieceIndex
 
     // State for handling drag-and-drop
     private Piece selectedPiece;
     private int startRow, startCol;
     private int dragX, dragY; // To draw the piece at the cursor's location
-    private List<Point> legalMoveDestinations;
+    private MoveList legalMoveDestinations; // Packed moves of the selected piece
 
     public BoardPanel(ChessGame game) {
         this.game = game;
         this.board = game.getBoard(); // Get the board from the game
-        this.pieceImages = new HashMap<>();
-        this.legalMoveDestinations = new ArrayList<>();
+        this.pieceImages = new Image[2 * Bitboard.PIECE_TYPES];
+        this.legalMoveDestinations = new MoveList();
         loadPieceImages();
 
         setPreferredSize(new Dimension(Board.SIZE * TILE_SIZE, Board.SIZE * TILE_SIZE));
@@ -45,18 +41,14 @@ public class BoardPanel extends JPanel {
     }
 
     private void loadPieceImages() {
-        String[] pieceNames = {"Pawn", "Rook", "Knight", "Bishop", "Queen", "King"};
-        for (String name : pieceNames) {
-            String whiteKey = "white" + name;
-            String blackKey = "black" + name;
-            String whitePath = "resources/pieces-png/white-" + name.toLowerCase() + ".png";
-            String blackPath = "resources/pieces-png/black-" + name.toLowerCase() + ".png";
-
-            try {
-                pieceImages.put(whiteKey, new ImageIcon(whitePath).getImage());
-                pieceImages.put(blackKey, new ImageIcon(blackPath).getImage());
-            } catch (Exception e) {
-                System.err.println("Could not load image for: " + name);
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                String path = "resources/pieces-png/" + color + "-" + type.getName().toLowerCase() + ".png";
+                try {
+                    pieceImages[Bitboard.pieceIndex(Piece.of(type, color))] = new ImageIcon(path).getImage();
+                } catch (Exception e) {
+                    System.err.println("Could not load image for: " + type.getName());
+                }
             }
         }
     }
@@ -94,8 +86,7 @@ public class BoardPanel extends JPanel {
     private void drawPiece(Graphics2D g, int row, int col) {
         Piece piece = board.getPiece(row, col);
         if (piece != null) {
-            String imageKey = piece.getColor() + piece.getName();
-            Image pieceImage = pieceImages.get(imageKey);
+            Image pieceImage = pieceImages[Bitboard.pieceIndex(piece)];
             if (pieceImage != null) {
                 g.drawImage(pieceImage, col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE, this);
             } else { // Fallback drawing
@@ -108,14 +99,14 @@ public class BoardPanel extends JPanel {
 
     private void drawHighlights(Graphics2D g) {
         g.setColor(HIGHLIGHT_COLOR);
-        for (Point dest : legalMoveDestinations) {
-            g.fillOval(dest.y * TILE_SIZE + TILE_SIZE / 4, dest.x * TILE_SIZE + TILE_SIZE / 4, TILE_SIZE / 2, TILE_SIZE / 2);
+        for (int i = 0; i < legalMoveDestinations.size(); i++) {
+            int move = legalMoveDestinations.get(i);
+            g.fillOval(Move.toCol(move) * TILE_SIZE + TILE_SIZE / 4, Move.toRow(move) * TILE_SIZE + TILE_SIZE / 4, TILE_SIZE / 2, TILE_SIZE / 2);
         }
     }
 
     private void drawDraggedPiece(Graphics2D g) {
-        String imageKey = selectedPiece.getColor() + selectedPiece.getName();
-        Image pieceImage = pieceImages.get(imageKey);
+        Image pieceImage = pieceImages[Bitboard.pieceIndex(selectedPiece)];
         if (pieceImage != null) {
             // Center the image on the cursor
             g.drawImage(pieceImage, dragX - TILE_SIZE / 2, dragY - TILE_SIZE / 2, TILE_SIZE, TILE_SIZE, this);
@@ -126,14 +117,14 @@ public class BoardPanel extends JPanel {
     private class MouseHandler extends MouseAdapter {
         @Override
         public void mousePressed(MouseEvent e) {
-            if (game.isGameOver()) return;
+            if (game.isGameOver() || game.isComputerTurn()) return;
 
             int col = e.getX() / TILE_SIZE;
             int row = e.getY() / TILE_SIZE;
 
             // Picking up piece
             Piece clickedPiece = board.getPiece(row, col);
-            if (clickedPiece != null && clickedPiece.getColor().equals(game.getCurrentPlayer())) {
+            if (clickedPiece != null && clickedPiece.getColor() == game.getCurrentPlayer()) {
                 selectedPiece = clickedPiece;
                 startRow = row;
                 startCol = col;
@@ -0,0 +1,142 @@
+package ChessGui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// A two-sided chess clock for one game. Only the side to move's time runs. Pressing the clock
+// charges that side for its move (less any delay), adds the increment and starts the other side.
+// Time is kept in nanoseconds from System.nanoTime, so it never drifts however often the display
+// reads it. Synchronized, because the display and flag timers read it off the event thread.
+public class ChessClock
+{
+    private final TimeControl timeControl;
+    private final LongSupplier nanoTime;
+    private final long[] remainingNanos = new long[2]; // Indexed by PieceColor.index(), as of turnStart
+    private PieceColor running; // Side whose time is running, null when stopped
+    private long turnStart;     // nanoTime when the running side's turn began
+
+    public ChessClock(TimeControl timeControl)
+    {
+        this(timeControl, System::nanoTime);
+    }
+
+    // For tests: a clock driven by the given time source, in nanoseconds
+    ChessClock(TimeControl timeControl, LongSupplier nanoTime)
+    {
+        this.timeControl = timeControl;
+        this.nanoTime = nanoTime;
+        long initial = TimeUnit.MILLISECONDS.toNanos(timeControl.getInitialMillis());
+        remainingNanos[0] = initial;
+        remainingNanos[1] = initial;
+    }
+
+    public synchronized void start(PieceColor side)
+    {
+        running = side;
+        turnStart = nanoTime.getAsLong();
+    }
+
+    // Ends the running side's turn and starts the other's. Returns false, leaving the clock
+    // stopped, if the running side's flag fell before it moved.
+    public synchronized boolean press()
+    {
+        if (running == null)
+        {
+            throw new IllegalStateException("The clock is not running");
+        }
+        long now = nanoTime.getAsLong();
+        int side = running.index();
+        remainingNanos[side] -= chargeable(now);
+        if (remainingNanos[side] <= 0)
+        {
+            remainingNanos[side] = 0;
+            running = null;
+            return false;
+        }
+        remainingNanos[side] += TimeUnit.MILLISECONDS.toNanos(timeControl.getIncrementMillis());
+        running = running.opposite();
+        turnStart = now;
+        return true;
+    }
+
+    // Freezes both sides' time, e.g. at the end of the game
+    public synchronized void stop()
+    {
+        if (running != null)
+        {
+            int side = running.index();
+            remainingNanos[side] = Math.max(0, remainingNanos[side] - chargeable(nanoTime.getAsLong()));
+            running = null;
+        }
+    }
+
+    // Time the running side has used since turnStart that counts against it
+    private long chargeable(long now)
+    {
+        return Math.max(0, now - turnStart - TimeUnit.MILLISECONDS.toNanos(timeControl.getDelayMillis()));
+    }
+
+    private long remainingNanos(PieceColor side)
+    {
+        long remaining = remainingNanos[side.index()];
+        if (side == running)
+        {
+            remaining -= chargeable(nanoTime.getAsLong());
+        }
+        return Math.max(0, remaining);
+    }
+
+    public synchronized long getRemainingMillis(PieceColor side)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos(side));
+    }
+
+    public synchronized boolean isFlagged(PieceColor side)
+    {
+        return remainingNanos(side) == 0;
+    }
+
+    // How long until the running side's flag falls if it doesn't move, including any delay
+    // still to run; -1 if the clock is stopped
+    public synchronized long getNanosUntilFlag()
+    {
+        if (running == null)
+        {
+            return -1;
+        }
+        long delayLeft = Math.max(0, turnStart + TimeUnit.MILLISECONDS.toNanos(timeControl.getDelayMillis())
+                - nanoTime.getAsLong());
+        return delayLeft + remainingNanos(running);
+    }
+
+    public synchronized PieceColor getRunningSide()
+    {
+        return running;
+    }
+
+    public TimeControl getTimeControl()
+    {
+        return timeControl;
+    }
+
+    // m:ss, with tenths of a second once under 20 seconds
+    public static String format(long millis)
+    {
+        long seconds = millis / 1000;
+        if (millis < 20_000)
+        {
+            return String.format("%d:%02d.%d", seconds / 60, seconds % 60, (millis % 1000) / 100);
+        }
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "White " + format(getRemainingMillis(PieceColor.WHITE)) + "   Black " + format(getRemainingMillis(PieceColor.BLACK));
+    }
+}
@@ -0,0 +1,24 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// A computer player: given a position and a budget, picks a move.
+// Implementations search their own copy of the board, so the caller's board is never touched
+// and the search can run on another thread while the GUI keeps using it.
+public interface ChessEngine
+{
+    // Searches the position with sideToMove to play until the limits are reached or stop() is
+    // called, reporting each completed iteration to listener (which may be null).
+    SearchResult search(Board board, PieceColor sideToMove, SearchLimits limits, SearchListener listener);
+
+    default SearchResult search(Board board, PieceColor sideToMove, SearchLimits limits)
+    {
+        return search(board, sideToMove, limits, null);
+    }
+
+    // Asks a running search to finish as soon as possible; it still returns its best move so far.
+    // Safe to call from any thread.
+    void stop();
+}
@@ -16,8 +16,11 @@ public class ChessGUI extends JFrame {
     private final JButton resignButton;
     private final JButton viewHistoryButton;
     private final JButton recalculateButton;
+    private final JButton moveNowButton;
 
     private final ChessGame game;
+    private String statusMessage = "";
+    private String clockText = "";
 
     public ChessGUI() {
         this.game = new ChessGame();
@@ -51,11 +54,11 @@ public class ChessGUI extends JFrame {
         JScrollPane logScrollPane = new JScrollPane(moveLogArea);
         sidePanel.add(logScrollPane, BorderLayout.CENTER);
 
-        JPanel buttonPanel = new JPanel(new GridLayout(2, 2, 5, 5)); // 2x2 grid for buttons
+        JPanel buttonPanel = new JPanel(new GridLayout(3, 2, 5, 5)); // 3x2 grid for buttons
         
         // Buttons
         newGameButton = new JButton("New Game");
-        newGameButton.addActionListener(e -> new Thread(game::startGame).start());
+        newGameButton.addActionListener(e -> game.startGame()); // Dialogs belong on the event thread
         buttonPanel.add(newGameButton);
         
         resignButton = new JButton("Resign");
@@ -70,6 +73,10 @@ public class ChessGUI extends JFrame {
         recalculateButton.addActionListener(e -> handleRecalculateRankings());
         buttonPanel.add(recalculateButton);
 
+        moveNowButton = new JButton("Move Now");
+        moveNowButton.addActionListener(e -> game.moveNow());
+        buttonPanel.add(moveNowButton);
+
         sidePanel.add(buttonPanel, BorderLayout.SOUTH);
 
         add(sidePanel, BorderLayout.EAST);
@@ -115,7 +122,18 @@ public class ChessGUI extends JFrame {
     }
 
     public void setStatusMessage(String message) {
-        statusLabel.setText(message);
+        statusMessage = message;
+        showStatus();
+    }
+
+    // Clock times shown after the status message; updates only the label, not the board
+    public void setClockText(String text) {
+        clockText = text;
+        showStatus();
+    }
+
+    private void showStatus() {
+        statusLabel.setText(clockText.isEmpty() ? statusMessage : statusMessage + "    " + clockText);
     }
 
     public void logMessage(String message) {
@@ -131,5 +149,11 @@ public class ChessGUI extends JFrame {
         viewHistoryButton.setEnabled(!inProgress);
         recalculateButton.setEnabled(!inProgress);
         resignButton.setEnabled(inProgress);
+        moveNowButton.setEnabled(false);
+    }
+
+    // Move Now is only useful while the computer is searching
+    public void setComputerThinking(boolean thinking) {
+        moveNowButton.setEnabled(thinking);
     }
 }
\ No newline at end of file
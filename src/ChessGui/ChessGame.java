@@ -1,9 +1,18 @@
 package ChessGui;
 
 import static ChessGui.Board.SIZE;
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
@@ -14,18 +23,37 @@ import javax.swing.SwingUtilities;
 public class ChessGame {
 
     private Board board;
-    private String currentPlayer;
+    private PieceColor currentPlayer;
     private PlayerData playerData;
+    private final LegalMoveCache legalMoveCache; // Shared by piece highlighting and game end checks
     private String whitePlayerName;
     private String blackPlayerName;
     private int gameResult = 0; // 1 = white win, 0 = draw, -1 = black win
     private boolean isGameOver = true; // Game is over until New Game is clicked
+    private PieceColor computerColor; // Side the computer plays, null when two people are playing
+    private ComputerPlayer computerPlayer; // Created the first time someone plays the computer
+    private Tablebase tablebase; // null until loaded in the background
+    private boolean tablebaseRequested;
+    private PgnGame record; // The game so far, in SAN, appended to GAMES_FILE when it ends
+    private final MoveList movesPlayed = new MoveList(); // The same moves packed, stored with the match
+
+    private TimeControl timeControl; // null for games without a clock
+    private ChessClock clock;
+    private ScheduledExecutorService clockTimer; // Created with the first timed game
+    private ScheduledFuture<?> clockTick;
+    private ScheduledFuture<?> flagCheck;
+    private boolean promoting; // The promotion dialog is open; the flag check leaves the move to finalizeTurn
+    private static final long CLOCK_TICK_MILLIS = 100;
+
+    public static final String COMPUTER_NAME = "Computer";
+    public static final Path GAMES_FILE = Paths.get("games.pgn");
 
     private ChessGUI gui;
 
     public ChessGame() {
         this.board = new Board();
-        this.currentPlayer = "white";
+        this.currentPlayer = PieceColor.WHITE;
+        this.legalMoveCache = new LegalMoveCache();
         // Pass reference to this game logic instance to PlayerData
         this.playerData = new PlayerData(this);
     }
@@ -43,7 +71,7 @@ public class ChessGame {
         return this.board;
     }
 
-    public String getCurrentPlayer() {
+    public PieceColor getCurrentPlayer() {
         return this.currentPlayer;
     }
 
@@ -51,11 +79,21 @@ public class ChessGame {
         return this.isGameOver;
     }
 
-    // Sets up and starts a new game
+    public LegalMoveCache getLegalMoveCache() {
+        return this.legalMoveCache;
+    }
+
+    // True while the computer is to move, when the board takes no input
+    public boolean isComputerTurn() {
+        return !isGameOver && currentPlayer == computerColor;
+    }
+
+    // Sets up and starts a new game. Runs on the Swing event thread, like every other game action.
     public void startGame() {
         gui.setGameInProgress(true);
+        loadTablebase();
 
-        if (!promptForPlayerNames()) {
+        if (!promptForOpponent() || !promptForTimeControl() || !promptForPlayerNames()) {
             gui.setGameInProgress(false); // Re-enable if cancelled
             return;
         }
@@ -63,44 +101,146 @@ public class ChessGame {
         isGameOver = false;
         board.initializeEmptyBoard();
         board.initializeStandardBoard();
-        currentPlayer = "white";
+        currentPlayer = PieceColor.WHITE;
         gui.logMessage("\n--- New Game Started ---");
         gui.logMessage(whitePlayerName + " (White) vs. " + blackPlayerName + " (Black)");
+        if (timeControl != null) {
+            gui.logMessage("Time control: " + timeControl);
+        }
+        startRecord();
         
         updateTurnAndStatus();
         gui.updateBoard();
+        startClock();
+        requestComputerMove();
+    }
+
+    private void startRecord() {
+        record = new PgnGame();
+        movesPlayed.clear();
+        record.setTag("Event", "Casual game");
+        record.setTag("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        record.setTag("White", whitePlayerName);
+        record.setTag("Black", blackPlayerName);
+        record.setTag("Result", PgnGame.UNKNOWN);
+        if (timeControl != null) {
+            // Seconds, as PGN has it: base time and increment
+            record.setTag("TimeControl", timeControl.getInitialMillis() / 1000 + "+" + timeControl.getIncrementMillis() / 1000);
+        }
+    }
+
+    // Sets the result and how the game ended (a PGN Termination value), and appends the finished
+    // game to GAMES_FILE, so no game is lost. Called once per game, next to the PlayerData update.
+    private void saveRecord(String termination) {
+        String result = (gameResult == 1) ? PgnGame.WHITE_WINS : (gameResult == -1) ? PgnGame.BLACK_WINS : PgnGame.DRAW;
+        record.setTag("Result", result);
+        record.setTag("Termination", termination);
+        record.setResult(result);
+        try (PgnWriter writer = new PgnWriter(Files.newBufferedWriter(GAMES_FILE, StandardCharsets.ISO_8859_1,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            writer.write(record);
+        } catch (IOException e) {
+            log("Game not saved to " + GAMES_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // Opens the endgame tablebase on a background thread the first time a game starts, since it
+    // is generated first if there isn't one yet
+    private void loadTablebase() {
+        if (tablebaseRequested) return;
+        tablebaseRequested = true;
+        Thread loader = new Thread(() -> {
+            try {
+                Tablebase loaded = Tablebase.openDefault();
+                SwingUtilities.invokeLater(() -> {
+                    tablebase = loaded;
+                    if (computerPlayer != null) {
+                        computerPlayer.setTablebase(loaded);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                SwingUtilities.invokeLater(() -> log("Endgame tablebase not loaded: " + e.getMessage()));
+            }
+        }, "Tablebase loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Asks for a time control. Returns false if cancelled.
+    private boolean promptForTimeControl() {
+        Object[] options = new Object[TimeControl.PRESETS.length + 1];
+        options[0] = "No Clock";
+        System.arraycopy(TimeControl.PRESETS, 0, options, 1, TimeControl.PRESETS.length);
+        Object choice = JOptionPane.showInputDialog(gui, "Choose a time control (minutes + increment seconds, d = delay):",
+                "New Game", JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        if (choice == null) return false;
+        timeControl = (choice instanceof TimeControl) ? (TimeControl) choice : null;
+        return true;
+    }
+
+    // Asks whether to play another person or the computer. Returns false if cancelled.
+    private boolean promptForOpponent() {
+        String[] options = {"Two Players", "Play White vs Computer", "Play Black vs Computer"};
+        int choice = JOptionPane.showOptionDialog(gui, "Choose an opponent:", "New Game", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        switch (choice) {
+            case 0: computerColor = null; break;
+            case 1: computerColor = PieceColor.BLACK; break;
+            case 2: computerColor = PieceColor.WHITE; break;
+            default: return false; // Dialog closed
+        }
+        if (computerColor != null && computerPlayer == null) {
+            computerPlayer = new ComputerPlayer(this::log);
+            computerPlayer.setTablebase(tablebase);
+            try {
+                computerPlayer.setOpeningBook(OpeningBook.openDefault());
+            } catch (IOException e) {
+                log("Opening book not loaded: " + e.getMessage());
+            }
+        }
+        return true;
     }
 
     // Returns true if names were entered successfully, false if cancelled
     private boolean promptForPlayerNames() {
         // Get White player's name
-        while (true) {
-            whitePlayerName = JOptionPane.showInputDialog(gui, "Enter White player's name:", "Player 1", JOptionPane.PLAIN_MESSAGE);
-            if (whitePlayerName == null) return false; // User cancelled
-            whitePlayerName = whitePlayerName.trim();
-            if (whitePlayerName.isEmpty()) {
-                JOptionPane.showMessageDialog(gui, "Player name cannot be empty.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
-            } else if (!whitePlayerName.matches("^[a-zA-Z]+$")) {
-                JOptionPane.showMessageDialog(gui, "Please use letters only (A-Z).", "Invalid Name", JOptionPane.ERROR_MESSAGE);
-            } else {
-                break;
+        if (computerColor == PieceColor.WHITE) {
+            whitePlayerName = COMPUTER_NAME;
+        } else {
+            while (true) {
+                whitePlayerName = JOptionPane.showInputDialog(gui, "Enter White player's name:", "Player 1", JOptionPane.PLAIN_MESSAGE);
+                if (whitePlayerName == null) return false; // User cancelled
+                whitePlayerName = whitePlayerName.trim();
+                if (whitePlayerName.isEmpty()) {
+                    JOptionPane.showMessageDialog(gui, "Player name cannot be empty.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else if (!whitePlayerName.matches("^[a-zA-Z]+$")) {
+                    JOptionPane.showMessageDialog(gui, "Please use letters only (A-Z).", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else if (computerColor != null && whitePlayerName.equalsIgnoreCase(COMPUTER_NAME)) {
+                    JOptionPane.showMessageDialog(gui, "That name is taken by the computer.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    break;
+                }
             }
         }
         playerData.checkOrAddPlayer(whitePlayerName);
 
         // Get Black player's name
-        while (true) {
-            blackPlayerName = JOptionPane.showInputDialog(gui, "Enter Black player's name:", "Player 2", JOptionPane.PLAIN_MESSAGE);
-            if (blackPlayerName == null) return false; // User cancelled
-            blackPlayerName = blackPlayerName.trim();
-            if (blackPlayerName.isEmpty()) {
-                JOptionPane.showMessageDialog(gui, "Player name cannot be empty.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
-            } else if (!blackPlayerName.matches("^[a-zA-Z]+$")) {
-                JOptionPane.showMessageDialog(gui, "Please use letters only (A-Z).", "Invalid Name", JOptionPane.ERROR_MESSAGE);
-            } else if (blackPlayerName.equalsIgnoreCase(whitePlayerName)) {
-                JOptionPane.showMessageDialog(gui, "Player names cannot be the same.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
-            } else {
-                break;
+        if (computerColor == PieceColor.BLACK) {
+            blackPlayerName = COMPUTER_NAME;
+        } else {
+            while (true) {
+                blackPlayerName = JOptionPane.showInputDialog(gui, "Enter Black player's name:", "Player 2", JOptionPane.PLAIN_MESSAGE);
+                if (blackPlayerName == null) return false; // User cancelled
+                blackPlayerName = blackPlayerName.trim();
+                if (blackPlayerName.isEmpty()) {
+                    JOptionPane.showMessageDialog(gui, "Player name cannot be empty.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else if (!blackPlayerName.matches("^[a-zA-Z]+$")) {
+                    JOptionPane.showMessageDialog(gui, "Please use letters only (A-Z).", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else if (blackPlayerName.equalsIgnoreCase(whitePlayerName)) {
+                    JOptionPane.showMessageDialog(gui, "Player names cannot be the same.", "Invalid Name", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    break;
+                }
             }
         }
         playerData.checkOrAddPlayer(blackPlayerName);
@@ -109,11 +249,12 @@ public class ChessGame {
 
     // Called by the GUI to try to perform a move
     public void attemptMove(int startRow, int startCol, int endRow, int endCol) {
-        if (isGameOver) return;
+        if (isGameOver || isComputerTurn() || checkFlagFall()) return;
         Piece pieceToMove = board.getPiece(startRow, startCol);
-        if (pieceToMove == null || !pieceToMove.getColor().equals(currentPlayer)) return;
+        if (pieceToMove == null || pieceToMove.getColor() != currentPlayer) return;
 
         // movePiece method returns a descriptive string
+        Board before = new Board(board); // For the move's SAN, once any promotion is chosen
         String moveResult = board.movePiece(startRow, startCol, endRow, endCol, false);
 
         // If the move was illegal, log it and do nothing else
@@ -126,11 +267,164 @@ public class ChessGame {
         logMove(moveResult, pieceToMove, startRow, startCol, endRow, endCol);
 
         // Check for promotion after a successful move
+        int promotionType = Bitboard.PAWN;
         if (pieceToMove instanceof Pawn && (endRow == 0 || endRow == 7)) {
-            handlePawnPromotion(endRow, endCol);
+            promoting = true;
+            try {
+                handlePawnPromotion(endRow, endCol);
+            } finally {
+                promoting = false;
+            }
+            promotionType = board.getPiece(endRow, endCol).getType().index();
+        }
+        finalizeTurn(before, before.createMove(startRow, startCol, endRow, endCol, promotionType));
+    }
+
+    // Starts the computer thinking if it is its turn. The search runs off the event thread and
+    // playComputerMove is called back on it with the result.
+    private void requestComputerMove() {
+        if (!isComputerTurn()) return;
+        long moveTime = (clock == null) ? ComputerPlayer.DEFAULT_MOVE_TIME_MS
+                : TimeManager.allocate(clock.getRemainingMillis(currentPlayer), timeControl, board.getFullmoveNumber());
+        computerPlayer.setMoveTimeMillis(moveTime);
+        gui.setComputerThinking(true);
+        computerPlayer.think(board, currentPlayer, this::playComputerMove);
+    }
+
+    private void playComputerMove(int move) {
+        gui.setComputerThinking(false);
+        if (!isComputerTurn() || move == Move.NONE || checkFlagFall()) return;
+        int startRow = Move.fromRow(move), startCol = Move.fromCol(move);
+        int endRow = Move.toRow(move), endCol = Move.toCol(move);
+        Piece pieceToMove = board.getPiece(startRow, startCol);
+        Board before = new Board(board);
+
+        String moveResult = board.movePiece(startRow, startCol, endRow, endCol, false);
+        if (moveResult.equals(Board.MOVE_ILLEGAL)) {
+            log("Computer chose an illegal move: " + Move.toString(move)); // Should never happen
+            return;
+        }
+        logMove(moveResult, pieceToMove, startRow, startCol, endRow, endCol);
+        if (Move.isPromotion(move)) {
+            PieceType type = PieceType.fromIndex(Move.promotionType(move));
+            board.promotePawn(endRow, endCol, Piece.of(type, currentPlayer));
+            gui.logMessage(currentPlayer + " promoted pawn to a " + type.getName() + ".");
+        }
+        finalizeTurn(before, move);
+    }
+
+    // Stops the computer thinking or pondering once the game is over
+    private void stopComputer() {
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+    }
+
+    // Starts white's clock for a timed game, and the timers that show it and catch a flag fall
+    private void startClock() {
+        if (timeControl == null) {
+            clock = null;
+            gui.setClockText("");
+            return;
+        }
+        if (clockTimer == null) {
+            clockTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Chess clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        clock = new ChessClock(timeControl);
+        clock.start(PieceColor.WHITE);
+        // Each tick only relabels the status line; the board itself is not repainted
+        clockTick = clockTimer.scheduleAtFixedRate(() -> SwingUtilities.invokeLater(this::showClock),
+                0, CLOCK_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        scheduleFlagCheck();
+    }
+
+    // Wakes up exactly when the side to move would run out of time
+    private void scheduleFlagCheck() {
+        if (flagCheck != null) {
+            flagCheck.cancel(false);
         }
+        long nanos = clock.getNanosUntilFlag();
+        if (nanos >= 0) {
+            flagCheck = clockTimer.schedule(() -> SwingUtilities.invokeLater(this::flagCheckDue), nanos, TimeUnit.NANOSECONDS);
+        }
+    }
 
-        finalizeTurn();
+    private void flagCheckDue() {
+        if (promoting) return; // The move's clock press finds the flag down, and takes the move back first
+        if (!checkFlagFall() && !isGameOver && clock != null) {
+            scheduleFlagCheck(); // Woken a little early
+        }
+    }
+
+    private void stopClock() {
+        if (clock == null) return;
+        clock.stop();
+        if (clockTick != null) {
+            clockTick.cancel(false);
+        }
+        if (flagCheck != null) {
+            flagCheck.cancel(false);
+        }
+        showClock();
+    }
+
+    private void showClock() {
+        if (clock != null) {
+            gui.setClockText(clock.toString());
+        }
+    }
+
+    // Ends the game if the side to move has run out of time. Returns true if it did.
+    private boolean checkFlagFall() {
+        if (isGameOver || clock == null || !clock.isFlagged(currentPlayer)) return false;
+
+        isGameOver = true;
+        gui.setGameInProgress(false); // Game is over, update button states
+        stopComputer();
+        stopClock();
+
+        PieceColor winnerColor = currentPlayer.opposite();
+        String loserName = (currentPlayer == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
+        String winnerName = (winnerColor == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
+        String message;
+        if (canCheckmate(winnerColor)) {
+            message = loserName + " ran out of time. " + winnerName + " (" + winnerColor.toString().toUpperCase() + ") wins.";
+            gameResult = (winnerColor == PieceColor.WHITE) ? 1 : -1;
+        } else {
+            message = loserName + " ran out of time, but " + winnerName + " cannot checkmate. The game is a draw.";
+            gameResult = 0;
+        }
+        log("--- GAME OVER ---");
+        log(message);
+        gui.setStatusMessage(message);
+        JOptionPane.showMessageDialog(gui, message, "Game Over", JOptionPane.INFORMATION_MESSAGE);
+        playerData.updateGameResults(whitePlayerName, blackPlayerName, gameResult, movesPlayed.toArray(), PgnGame.TIME_FORFEIT);
+        saveRecord(PgnGame.TIME_FORFEIT);
+        return true;
+    }
+
+    // False only when color has so little left that no sequence of moves could checkmate: a lone
+    // king, or a king and one minor piece against a lone king
+    private boolean canCheckmate(PieceColor color) {
+        Bitboard bitboards = board.getBitboards();
+        int own = color.index(), other = color.opposite().index();
+        long majors = bitboards.getPieces(own, Bitboard.PAWN) | bitboards.getPieces(own, Bitboard.ROOK)
+                | bitboards.getPieces(own, Bitboard.QUEEN);
+        int minors = Long.bitCount(bitboards.getPieces(own, Bitboard.KNIGHT) | bitboards.getPieces(own, Bitboard.BISHOP));
+        if (majors != 0 || minors >= 2) return true;
+        if (minors == 0) return false;
+        return Long.bitCount(bitboards.getOccupancy(other)) > 1; // The other side's pieces could block its own king in
+    }
+
+    // Makes the computer play the best move it has found so far
+    public void moveNow() {
+        if (computerPlayer != null) {
+            computerPlayer.moveNow();
+        }
     }
     
     private void logMove(String moveResult, Piece piece, int startRow, int startCol, int endRow, int endCol) {
@@ -163,24 +457,40 @@ public class ChessGame {
         }
     }
     
-    // Groups together the actions to take after any successful move
-    private void finalizeTurn() {
+    // Groups together the actions to take after any successful move. move has just been made on
+    // the board, and before is a copy of the position it was made in. A move finished after the
+    // mover's flag fell doesn't count: it is taken back and the game is lost on time without it.
+    private void finalizeTurn(Board before, int move) {
+        if (clock != null && !clock.press()) {
+            board.unmakeMove(new Board(before).makeMove(move)); // The copy's undo fits, being the same position
+            log("Move taken back: time ran out before it was completed.");
+            gui.updateBoard();
+            checkFlagFall();
+            return;
+        }
+        record.addMove(San.toSan(before, move));
+        movesPlayed.add(move);
+        if (clock != null) {
+            scheduleFlagCheck();
+            showClock();
+        }
         switchPlayer();
         updateTurnAndStatus();
         checkGameEndConditions();
         gui.updateBoard();
+        requestComputerMove();
     }
 
     private void switchPlayer() {
-        currentPlayer = (currentPlayer.equals("white")) ? "black" : "white";
+        currentPlayer = currentPlayer.opposite();
     }
     
     private void updateTurnAndStatus() {
-        String currentTurnPlayerName = currentPlayer.equals("white") ? whitePlayerName : blackPlayerName;
-        String status = String.format("%s's Turn (%s)", currentTurnPlayerName, currentPlayer.toUpperCase());
+        String currentTurnPlayerName = (currentPlayer == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
+        String status = String.format("%s's Turn (%s)", currentTurnPlayerName, currentPlayer.toString().toUpperCase());
         if (board.isKingInCheck(currentPlayer)) {
             status += " - CHECK!";
-            gui.logMessage(currentPlayer.toUpperCase() + " is in check!");
+            gui.logMessage(currentPlayer.toString().toUpperCase() + " is in check!");
         }
         gui.setStatusMessage(status);
     }
@@ -191,12 +501,16 @@ public class ChessGame {
         
         isGameOver = true;
         gui.setGameInProgress(false); // Game is over, update button states
+        stopComputer();
+        stopClock();
         
-        String resigningPlayerName = currentPlayer.equals("white") ? whitePlayerName : blackPlayerName;
-        String winnerColor = getOpponent(currentPlayer);
-        String winnerName = winnerColor.equals("white") ? whitePlayerName : blackPlayerName;
+        // Against the computer it is always the person resigning, even during the computer's turn
+        PieceColor resigningColor = (computerColor != null) ? computerColor.opposite() : currentPlayer;
+        String resigningPlayerName = (resigningColor == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
+        PieceColor winnerColor = resigningColor.opposite();
+        String winnerName = (winnerColor == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
         
-        gameResult = winnerColor.equals("white") ? 1 : -1;
+        gameResult = (winnerColor == PieceColor.WHITE) ? 1 : -1;
         
         String message = resigningPlayerName + " has resigned. " + winnerName + " wins.";
         
@@ -204,20 +518,23 @@ public class ChessGame {
         log(message);
         gui.setStatusMessage(message);
         JOptionPane.showMessageDialog(gui, message, "Game Over", JOptionPane.INFORMATION_MESSAGE);
-        playerData.updateGameResults(whitePlayerName, blackPlayerName, gameResult);
+        playerData.updateGameResults(whitePlayerName, blackPlayerName, gameResult, movesPlayed.toArray(), PgnGame.NORMAL_TERMINATION);
+        saveRecord(PgnGame.NORMAL_TERMINATION);
     }
     
     private void checkGameEndConditions() {
-        List<int[]> legalMoves = getAllPossibleMoves(currentPlayer);
+        MoveList legalMoves = getAllPossibleMoves(currentPlayer);
         if (legalMoves.isEmpty()) {
             isGameOver = true;
             gui.setGameInProgress(false); // Game is over, update button states
+            stopComputer();
+            stopClock();
             String message;
             if (board.isKingInCheck(currentPlayer)) {
-                String winnerColor = getOpponent(currentPlayer);
-                String winnerName = winnerColor.equals("white") ? whitePlayerName : blackPlayerName;
-                message = "Checkmate! " + winnerName + " ("+ winnerColor.toUpperCase() + ") wins.";
-                gameResult = winnerColor.equals("white") ? 1 : -1;
+                PieceColor winnerColor = currentPlayer.opposite();
+                String winnerName = (winnerColor == PieceColor.WHITE) ? whitePlayerName : blackPlayerName;
+                message = "Checkmate! " + winnerName + " ("+ winnerColor.toString().toUpperCase() + ") wins.";
+                gameResult = (winnerColor == PieceColor.WHITE) ? 1 : -1;
             } else {
                 message = "Stalemate! The game is a draw.";
                 gameResult = 0;
@@ -226,7 +543,14 @@ public class ChessGame {
             gui.logMessage(message);
             gui.setStatusMessage(message);
             JOptionPane.showMessageDialog(gui, message, "Game Over", JOptionPane.INFORMATION_MESSAGE);
-            playerData.updateGameResults(whitePlayerName, blackPlayerName, gameResult);
+            playerData.updateGameResults(whitePlayerName, blackPlayerName, gameResult, movesPlayed.toArray(), PgnGame.NORMAL_TERMINATION);
+            saveRecord(PgnGame.NORMAL_TERMINATION);
+        } else if (tablebase != null) {
+            // Few enough pieces left for the tablebase to know the result with best play
+            int result = tablebase.probe(board);
+            if (result != Tablebase.NOT_FOUND) {
+                gui.logMessage("Tablebase: " + Tablebase.describe(result, currentPlayer));
+            }
         }
     }
     
@@ -235,73 +559,42 @@ public class ChessGame {
         String choice = (String) JOptionPane.showInputDialog(gui, "Pawn promotion! Choose a piece:", "Promotion", JOptionPane.PLAIN_MESSAGE, null, options, "Queen");
         if (choice == null) choice = "Queen"; // Default if dialog is closed
 
-        Piece newPiece;
-        String color = (row == 0) ? "white" : "black";
+        PieceType type;
+        PieceColor color = (row == 0) ? PieceColor.WHITE : PieceColor.BLACK;
         switch (choice) {
-            case "Rook": newPiece = new Rook(color); break;
-            case "Bishop": newPiece = new Bishop(color); break;
-            case "Knight": newPiece = new Knight(color); break;
-            default: newPiece = new Queen(color); break;
+            case "Rook": type = PieceType.ROOK; break;
+            case "Bishop": type = PieceType.BISHOP; break;
+            case "Knight": type = PieceType.KNIGHT; break;
+            default: type = PieceType.QUEEN; break;
         }
+        Piece newPiece = Piece.of(type, color);
         board.promotePawn(row, col, newPiece);
         gui.logMessage(currentPlayer + " promoted pawn to a " + choice + ".");
     }
     
-    public List<Point> getLegalMovesForPiece(int startRow, int startCol) {
-        List<Point> legalDests = new ArrayList<>();
+    // Legal moves of the piece on the given square, one per destination
+    public MoveList getLegalMovesForPiece(int startRow, int startCol) {
+        MoveList legalMoves = new MoveList(32);
         Piece piece = board.getPiece(startRow, startCol);
-        if (piece == null || !piece.getColor().equals(currentPlayer)) {
-            return legalDests; // Return empty list if no piece or not current player's piece
+        if (piece == null || piece.getColor() != currentPlayer) {
+            return legalMoves; // Return empty list if no piece or not current player's piece
         }
 
-        for (int endRow = 0; endRow < Board.SIZE; endRow++) {
-            for (int endCol = 0; endCol < Board.SIZE; endCol++) {
-                // Create a temporary board to simulate the move
-                Board simulationBoard = createTemporaryBoard();
-                
-                // Get the string result from the move attempt
-                String moveResult = simulationBoard.movePiece(startRow, startCol, endRow, endCol, true);
-
-                // A move is legal if the result is anything other than "illegal"
-                if (!moveResult.equals(Board.MOVE_ILLEGAL)) {
-                    legalDests.add(new Point(endRow, endCol));
-                }
-            }
-        }
-        return legalDests;
-    }
-    
-    private List<int[]> getAllPossibleMoves(String color) {
-        List<int[]> legalMoves = new ArrayList<>();
-        for (int startRow = 0; startRow < Board.SIZE; startRow++) {
-            for (int startCol = 0; startCol < Board.SIZE; startCol++) {
-                if (board.getPiece(startRow, startCol) != null && board.getPiece(startRow, startCol).getColor().equals(color)) {
-                    for (Point dest : getLegalMovesForPiece(startRow, startCol)) {
-                        legalMoves.add(new int[]{startRow, startCol, dest.x, dest.y});
-                    }
-                }
+        // Picking up pieces in the same position reuses the side's cached move list
+        int start = Bitboard.square(startRow, startCol);
+        MoveList allMoves = getAllPossibleMoves(currentPlayer);
+        for (int i = 0; i < allMoves.size(); i++) {
+            int move = allMoves.get(i);
+            // Promotions give one move per piece choice, but the GUI only needs the first
+            if (Move.from(move) == start && !(Move.isPromotion(move) && Move.promotionType(move) != Bitboard.QUEEN)) {
+                legalMoves.add(move);
             }
         }
         return legalMoves;
     }
-
-    private Board createTemporaryBoard() {
-        Board tempBoard = new Board();
-        for (int r = 0; r < Board.SIZE; r++) {
-            for (int c = 0; c < Board.SIZE; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p != null) {
-                    try {
-                        Piece copy = p.getClass().getDeclaredConstructor(String.class).newInstance(p.getColor());
-                        if (p instanceof King) ((King)copy).setHasMoved(((King)p).hasMoved());
-                        else if (p instanceof Rook) ((Rook)copy).setHasMoved(((Rook)p).hasMoved());
-                        tempBoard.placePiece(copy, r, c);
-                    } catch (Exception e) { e.printStackTrace(); }
-                }
-            }
-        }
-        tempBoard.setEnPassantTarget(board.getEnPassantTarget());
-        return tempBoard;
+    
+    private MoveList getAllPossibleMoves(PieceColor color) {
+        return legalMoveCache.getLegalMoves(board, color);
     }
     
     // Gets the match history string
@@ -314,10 +607,6 @@ public class ChessGame {
         playerData.recalculateAllRankings();
     }
     
-    private String getOpponent(String color) {
-        return (color.equals("white")) ? "black" : "white";
-    }
-
     public static String getAlgebraic(int row, int col) {
         if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) return "Invalid";
         char file = (char) ('a' + col);
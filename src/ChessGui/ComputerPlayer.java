@@ -0,0 +1,293 @@
+package ChessGui;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Plays one side of a game with the engine, without ever blocking the Swing event thread.
+// Searches run one at a time on a dedicated thread (the engine's helpers add more), on a copy of
+// the board taken when thinking starts. Progress goes to the log at most a few times a second,
+// and the chosen move is handed back on the event thread. think, moveNow and cancel are meant to
+// be called from the event thread.
+//
+// Pondering: after playing a move the computer goes on searching the position that follows the
+// reply it expects (the second move of its principal variation) while the person thinks. If
+// think is then called on that same position, the running search simply carries on for the
+// usual move time, so the time spent pondering comes on top. Otherwise it is abandoned, and the
+// new search still finds its results in the shared transposition table.
+//
+// With an opening book set, book positions are answered from the book straight away. With an
+// endgame tablebase set, the search scores the positions it covers exactly.
+public class ComputerPlayer {
+
+    public static final long DEFAULT_MOVE_TIME_MS = 3000;
+    private static final long LOG_INTERVAL_NANOS = 250_000_000L; // At most four search updates a second
+
+    private final LazySmpEngine engine;
+    private final ExecutorService searchThread;
+    private final Consumer<String> log;
+    private volatile long moveTimeMillis = DEFAULT_MOVE_TIME_MS;
+    private volatile int generation; // Bumped on cancel, so a cancelled search's move is never played
+    private boolean thinking;
+    private IntConsumer onMove; // Who gets the move of the current search
+    private volatile int moveNowGeneration; // The search asked to move now, see ThrottledLog
+
+    private boolean ponderEnabled = true;
+    private boolean pondering;
+    private Board ponderPosition;        // The position being pondered
+    private long ponderKey;              // and its Zobrist key
+    private int ponderMove = Move.NONE;  // The reply that leads to it
+    private SearchResult ponderResult;   // Set if the ponder search finished before the reply came
+    private int ponderHits;
+    private int ponderMisses;
+
+    private OpeningBook book; // null for none
+    private final Random bookRandom = new Random();
+
+    // Leaves one core free for the event thread, so the board keeps repainting while it searches
+    public ComputerPlayer(Consumer<String> log) {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), log);
+    }
+
+    public ComputerPlayer(int threads, Consumer<String> log) {
+        this.engine = new LazySmpEngine(threads, TranspositionTable.DEFAULT_SIZE_MB);
+        this.log = log;
+        this.searchThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Computer player");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts searching for side's move in board. onMove receives the move on the event thread,
+    // unless cancel is called first.
+    public void think(Board board, PieceColor side, IntConsumer onMove) {
+        if (thinking) {
+            throw new IllegalStateException("The computer is already thinking");
+        }
+        if (pondering) {
+            if (board.getZobristKey() == ponderKey) {
+                ponderHit(onMove);
+                return;
+            }
+            ponderMisses++;
+            cancel();
+        }
+        this.onMove = onMove;
+        thinking = true;
+        int bookMove = (book != null) ? book.pickMove(board, bookRandom) : Move.NONE;
+        if (bookMove != Move.NONE) {
+            playBookMove(board, bookMove);
+            return;
+        }
+        startSearch(new Board(board), side, SearchLimits.time(moveTimeMillis), "  ");
+    }
+
+    // Hands over a book move the same way as a searched one: later, on the event thread
+    private void playBookMove(Board board, int move) {
+        int searchGeneration = ++generation;
+        log.accept("Computer: book move " + San.toSan(board, move));
+        SwingUtilities.invokeLater(() -> {
+            if (searchGeneration != generation) {
+                return;
+            }
+            thinking = false;
+            IntConsumer callback = onMove;
+            onMove = null;
+            callback.accept(move);
+        });
+    }
+
+    // The person played the expected reply: keep the ponder search going for the usual time
+    private void ponderHit(IntConsumer onMove) {
+        ponderHits++;
+        pondering = false;
+        thinking = true;
+        this.onMove = onMove;
+        log.accept("Computer: expected " + Move.toString(ponderMove) + ", carrying on with that search");
+        int searchGeneration = generation;
+        if (ponderResult != null) {
+            SearchResult result = ponderResult; // Finished already, e.g. a forced mate
+            Board position = ponderPosition;
+            ponderResult = null;
+            SwingUtilities.invokeLater(() -> {
+                if (finish(searchGeneration, result)) {
+                    startPondering(position, result);
+                }
+            });
+            return;
+        }
+        Timer timer = new Timer((int) Math.min(moveTimeMillis, Integer.MAX_VALUE), e -> {
+            if (searchGeneration == generation) {
+                moveNowGeneration = searchGeneration;
+                engine.stop();
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    // Searches the position after the expected reply to the move just played, until the reply
+    // comes in. The result is kept back until then.
+    private void startPondering(Board position, SearchResult result) {
+        int[] pv = result.getPrincipalVariation();
+        if (!ponderEnabled || pv.length < 2) {
+            return; // Nothing to predict, e.g. the move ended the game
+        }
+        ponderPosition = new Board(position);
+        PieceColor side = ponderPosition.getSideToMove();
+        ponderPosition.makeMove(pv[0]);
+        ponderPosition.makeMove(pv[1]);
+        pondering = true;
+        ponderKey = ponderPosition.getZobristKey();
+        ponderMove = pv[1];
+        ponderResult = null;
+        startSearch(ponderPosition, side, SearchLimits.depth(SearchLimits.MAX_DEPTH), "  (pondering) ");
+    }
+
+    private void startSearch(Board position, PieceColor side, SearchLimits limits, String logPrefix) {
+        int searchGeneration = ++generation;
+        searchThread.submit(() -> {
+            if (searchGeneration != generation) {
+                return; // Cancelled before it started
+            }
+            SearchResult result;
+            try {
+                result = engine.search(position, side, limits, new ThrottledLog(searchGeneration, logPrefix));
+            } catch (RuntimeException e) {
+                log.accept("Computer search failed: " + e.getMessage());
+                result = null;
+            }
+            SearchResult finalResult = result;
+            SwingUtilities.invokeLater(() -> {
+                if (finish(searchGeneration, finalResult)) {
+                    startPondering(position, finalResult);
+                }
+            });
+        });
+    }
+
+    // Hands a finished search's move over, on the event thread. Returns true if it was played.
+    private boolean finish(int searchGeneration, SearchResult result) {
+        if (searchGeneration != generation) {
+            return false;
+        }
+        if (pondering) {
+            ponderResult = result; // Hold it until the person has replied
+            return false;
+        }
+        thinking = false;
+        IntConsumer callback = onMove;
+        onMove = null;
+        if (result == null) {
+            return false;
+        }
+        log.accept("Computer: " + result);
+        callback.accept(result.getBestMove());
+        return !thinking && searchGeneration == generation; // Unless the callback cancelled or restarted it
+    }
+
+    // Stops the search early and plays the best move found so far
+    public void moveNow() {
+        if (thinking) {
+            moveNowGeneration = generation; // In case the search hasn't started yet, see ThrottledLog
+            engine.stop();
+        }
+    }
+
+    // Stops the search (or pondering) and forgets it; no move will be played
+    public void cancel() {
+        generation++;
+        thinking = false;
+        pondering = false;
+        ponderPosition = null;
+        ponderResult = null;
+        onMove = null;
+        engine.stop();
+    }
+
+    public boolean isThinking() {
+        return thinking;
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    // The reply the computer is pondering on, or Move.NONE
+    public int getPonderMove() {
+        return pondering ? ponderMove : Move.NONE;
+    }
+
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        engine.setTablebase(tablebase);
+    }
+
+    public void setPonderEnabled(boolean ponderEnabled) {
+        this.ponderEnabled = ponderEnabled;
+    }
+
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    public int getPonderMisses() {
+        return ponderMisses;
+    }
+
+    public void setMoveTimeMillis(long moveTimeMillis) {
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public int getThreadCount() {
+        return engine.getThreadCount();
+    }
+
+    public void shutdown() {
+        cancel();
+        searchThread.shutdownNow();
+        engine.shutdown();
+    }
+
+    // Passes search iterations on to the log, dropping any that come too soon after the last.
+    // Also stops its search once it is cancelled or asked to move now. engine.stop() alone can
+    // be lost: a request that arrives before the search begins is cleared when it starts. Runs
+    // on the search thread.
+    private class ThrottledLog implements SearchListener {
+
+        private final int searchGeneration;
+        private final String prefix;
+        private long lastLogged = System.nanoTime() - LOG_INTERVAL_NANOS;
+
+        ThrottledLog(int searchGeneration, String prefix) {
+            this.searchGeneration = searchGeneration;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean shouldStop() {
+            return searchGeneration != generation || searchGeneration == moveNowGeneration;
+        }
+
+        @Override
+        public void onIteration(SearchResult result) {
+            long now = System.nanoTime();
+            if (now - lastLogged >= LOG_INTERVAL_NANOS) {
+                lastLogged = now;
+                log.accept(prefix + result);
+            }
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package ChessGui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Static evaluation used by the search, in centipawns. Every term has a middlegame and an endgame
+// weight, blended by the game phase (how much non-pawn material is left):
+//   - material and piece-square tables, which Board keeps up to date incrementally in setSquare,
+//     so a leaf pays nothing for them
+//   - pawn structure: doubled, isolated and passed pawns
+//   - king safety: pawn shield and enemy pieces attacking the squares around the king
+//   - mobility: squares each piece attacks that aren't own pieces or covered by enemy pawns
+// Tables are laid out as the board is drawn (a8 first), i.e. by white's square index; black
+// pieces read the mirrored square (square ^ 56).
+// Usage (microbenchmark): Evaluation [seconds]
+public final class Evaluation
+{
+    // Indexed by Bitboard piece type; the king is never traded so it carries no material value
+    private static final int[] MIDDLEGAME_VALUES = {82, 337, 365, 477, 1025, 0};
+    private static final int[] ENDGAME_VALUES = {94, 281, 297, 512, 936, 0};
+
+    // Phase contributed by each piece type; the starting position adds up to MAX_PHASE
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    private static final int[][] MIDDLEGAME_TABLES = {
+        { // Pawn
+              0,   0,   0,   0,   0,   0,   0,   0,
+             98, 134,  61,  95,  68, 126,  34, -11,
+             -6,   7,  26,  31,  65,  56,  25, -20,
+            -14,  13,   6,  21,  23,  12,  17, -23,
+            -27,  -2,  -5,  12,  17,   6,  10, -25,
+            -26,  -4,  -4, -10,   3,   3,  33, -12,
+            -35,  -1, -20, -23, -15,  24,  38, -22,
+              0,   0,   0,   0,   0,   0,   0,   0
+        },
+        { // Knight
+           -167, -89, -34, -49,  61, -97, -15,-107,
+            -73, -41,  72,  36,  23,  62,   7, -17,
+            -47,  60,  37,  65,  84, 129,  73,  44,
+             -9,  17,  19,  53,  37,  69,  18,  22,
+            -13,   4,  16,  13,  28,  19,  21,  -8,
+            -23,  -9,  12,  10,  19,  17,  25, -16,
+            -29, -53, -12,  -3,  -1,  18, -14, -19,
+           -105, -21, -58, -33, -17, -28, -19, -23
+        },
+        { // Bishop
+            -29,   4, -82, -37, -25, -42,   7,  -8,
+            -26,  16, -18, -13,  30,  59,  18, -47,
+            -16,  37,  43,  40,  35,  50,  37,  -2,
+             -4,   5,  19,  50,  37,  37,   7,  -2,
+             -6,  13,  13,  26,  34,  12,  10,   4,
+              0,  15,  15,  15,  14,  27,  18,  10,
+              4,  15,  16,   0,   7,  21,  33,   1,
+            -33,  -3, -14, -21, -13, -12, -39, -21
+        },
+        { // Rook
+             32,  42,  32,  51,  63,   9,  31,  43,
+             27,  32,  58,  62,  80,  67,  26,  44,
+             -5,  19,  26,  36,  17,  45,  61,  16,
+            -24, -11,   7,  26,  24,  35,  -8, -20,
+            -36, -26, -12,  -1,   9,  -7,   6, -23,
+            -45, -25, -16, -17,   3,   0,  -5, -33,
+            -44, -16, -20,  -9,  -1,  11,  -6, -71,
+            -19, -13,   1,  17,  16,   7, -37, -26
+        },
+        { // Queen
+            -28,   0,  29,  12,  59,  44,  43,  45,
+            -24, -39,  -5,   1, -16,  57,  28,  54,
+            -13, -17,   7,   8,  29,  56,  47,  57,
+            -27, -27, -16, -16,  -1,  17,  -2,   1,
+             -9, -26,  -9, -10,  -2,  -4,   3,  -3,
+            -14,   2, -11,  -2,  -5,   2,  14,   5,
+            -35,  -8,  11,   2,   8,  15,  -3,   1,
+             -1, -18,  -9,  10, -15, -25, -31, -50
+        },
+        { // King
+            -65,  23,  16, -15, -56, -34,   2,  13,
+             29,  -1, -20,  -7,  -8,  -4, -38, -29,
+             -9,  24,   2, -16, -20,   6,  22, -22,
+            -17, -20, -12, -27, -30, -25, -14, -36,
+            -49,  -1, -27, -39, -46, -44, -33, -51,
+            -14, -14, -22, -46, -44, -30, -15, -27,
+              1,   7,  -8, -64, -43, -16,   9,   8,
+            -15,  36,  12, -54,   8, -28,  24,  14
+        }
+    };
+
+    private static final int[][] ENDGAME_TABLES = {
+        { // Pawn
+              0,   0,   0,   0,   0,   0,   0,   0,
+            178, 173, 158, 134, 147, 132, 165, 187,
+             94, 100,  85,  67,  56,  53,  82,  84,
+             32,  24,  13,   5,  -2,   4,  17,  17,
+             13,   9,  -3,  -7,  -7,  -8,   3,  -1,
+              4,   7,  -6,   1,   0,  -5,  -1,  -8,
+             13,   8,   8,  10,  13,   0,   2,  -7,
+              0,   0,   0,   0,   0,   0,   0,   0
+        },
+        { // Knight
+            -58, -38, -13, -28, -31, -27, -63, -99,
+            -25,  -8, -25,  -2,  -9, -25, -24, -52,
+            -24, -20,  10,   9,  -1,  -9, -19, -41,
+            -17,   3,  22,  22,  22,  11,   8, -18,
+            -18,  -6,  16,  25,  16,  17,   4, -18,
+            -23,  -3,  -1,  15,  10,  -3, -20, -22,
+            -42, -20, -10,  -5,  -2, -20, -23, -44,
+            -29, -51, -23, -15, -22, -18, -50, -64
+        },
+        { // Bishop
+            -14, -21, -11,  -8,  -7,  -9, -17, -24,
+             -8,  -4,   7, -12,  -3, -13,  -4, -14,
+              2,  -8,   0,  -1,  -2,   6,   0,   4,
+             -3,   9,  12,   9,  14,  10,   3,   2,
+             -6,   3,  13,  19,   7,  10,  -3,  -9,
+            -12,  -3,   8,  10,  13,   3,  -7, -15,
+            -14, -18,  -7,  -1,   4,  -9, -15, -27,
+            -23,  -9, -23,  -5,  -9, -16,  -5, -17
+        },
+        { // Rook
+             13,  10,  18,  15,  12,  12,   8,   5,
+             11,  13,  13,  11,  -3,   3,   8,   3,
+              7,   7,   7,   5,   4,  -3,  -5,  -3,
+              4,   3,  13,   1,   2,   1,  -1,   2,
+              3,   5,   8,   4,  -5,  -6,  -8, -11,
+             -4,   0,  -5,  -1,  -7, -12,  -8, -16,
+             -6,  -6,   0,   2,  -9,  -9, -11,  -3,
+             -9,   2,   3,  -1,  -5, -13,   4, -20
+        },
+        { // Queen
+             -9,  22,  22,  27,  27,  19,  10,  20,
+            -17,  20,  32,  41,  58,  25,  30,   0,
+            -20,   6,   9,  49,  47,  35,  19,   9,
+              3,  22,  24,  45,  57,  40,  57,  36,
+            -18,  28,  19,  47,  31,  34,  39,  23,
+            -16, -27,  15,   6,   9,  17,  10,   5,
+            -22, -23, -30, -16, -16, -23, -36, -32,
+            -33, -28, -22, -43,  -5, -32, -20, -41
+        },
+        { // King
+            -74, -35, -18, -18, -11,  15,   4, -17,
+            -12,  17,  14,  17,  17,  38,  23,  11,
+             10,  17,  23,  15,  20,  45,  44,  13,
+             -8,  22,  24,  27,  26,  33,  26,   3,
+            -18,  -4,  21,  24,  27,  23,   9, -11,
+            -19,  -3,  11,  21,  23,  16,   7,  -9,
+            -27, -11,   4,  13,  14,   4,  -5, -17,
+            -53, -34, -21, -11, -28, -14, -24, -43
+        }
+    };
+
+    // Value plus table entry for every piece on every square, negated for black so Board can
+    // simply add and subtract them: [Bitboard.pieceIndex][square]
+    private static final int[][] MIDDLEGAME = new int[2 * Bitboard.PIECE_TYPES][64];
+    private static final int[][] ENDGAME = new int[2 * Bitboard.PIECE_TYPES][64];
+
+    // Pawn structure
+    private static final int DOUBLED_MG = -10, DOUBLED_EG = -20;     // Per pawn behind another on its file
+    private static final int ISOLATED_MG = -12, ISOLATED_EG = -16;   // No own pawns on either adjacent file
+    private static final int[] PASSED_MG = {0, 5, 10, 15, 25, 45, 70, 0}; // By ranks advanced from home
+    private static final int[] PASSED_EG = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    // King safety (middlegame only; in the endgame the king should come out)
+    private static final int SHIELD_NEAR = 12, SHIELD_FAR = 6;      // Own pawns one / two ranks ahead of the king
+    private static final int[] ATTACKER_WEIGHTS = {0, 2, 2, 3, 5, 0}; // Per piece attacking the king zone
+    private static final int[] KING_DANGER = {
+        0, 0, 1, 2, 4, 7, 11, 16, 22, 30, 40, 52, 66, 82, 100, 120, 145, 170, 200, 230, 260
+    };
+
+    // Mobility per reachable square beyond a typical count, by piece type
+    private static final int[] MOBILITY_MG = {0, 4, 5, 2, 1, 0};
+    private static final int[] MOBILITY_EG = {0, 4, 5, 4, 2, 0};
+    private static final int[] MOBILITY_BASE = {0, 4, 6, 7, 13, 0};
+
+    private static final long[] FILES = new long[Board.SIZE];
+    private static final long[] ADJACENT_FILES = new long[Board.SIZE];
+    private static final long[][] PASSED_MASKS = new long[2][64]; // Squares ahead that must hold no enemy pawn
+
+    static
+    {
+        for (int type = Bitboard.PAWN; type <= Bitboard.KING; type++)
+        {
+            for (int square = 0; square < 64; square++)
+            {
+                int white = Bitboard.WHITE * Bitboard.PIECE_TYPES + type;
+                int black = Bitboard.BLACK * Bitboard.PIECE_TYPES + type;
+                MIDDLEGAME[white][square] = MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][square];
+                ENDGAME[white][square] = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][square];
+                MIDDLEGAME[black][square] = -(MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][square ^ 56]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[type] + ENDGAME_TABLES[type][square ^ 56]);
+            }
+        }
+        for (int col = 0; col < Board.SIZE; col++)
+        {
+            for (int row = 0; row < Board.SIZE; row++)
+            {
+                FILES[col] |= Bitboard.bit(row, col);
+            }
+        }
+        for (int col = 0; col < Board.SIZE; col++)
+        {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0L) | (col < Board.SIZE - 1 ? FILES[col + 1] : 0L);
+        }
+        for (int square = 0; square < 64; square++)
+        {
+            int row = Bitboard.rowOf(square);
+            int col = Bitboard.colOf(square);
+            long span = FILES[col] | ADJACENT_FILES[col];
+            for (int r = 0; r < Board.SIZE; r++)
+            {
+                long rank = 0xFFL << (8 * r);
+                if (r < row)
+                {
+                    PASSED_MASKS[Bitboard.WHITE][square] |= span & rank; // White pawns advance towards row 0
+                }
+                else if (r > row)
+                {
+                    PASSED_MASKS[Bitboard.BLACK][square] |= span & rank;
+                }
+            }
+        }
+    }
+
+    private Evaluation()
+    {
+    }
+
+    // Incremental terms for Board: what a piece on a square adds (white) or subtracts (black)
+    static int middlegame(int pieceIndex, int square)
+    {
+        return MIDDLEGAME[pieceIndex][square];
+    }
+
+    static int endgame(int pieceIndex, int square)
+    {
+        return ENDGAME[pieceIndex][square];
+    }
+
+    static int phaseWeight(int type)
+    {
+        return PHASE_WEIGHTS[type];
+    }
+
+    // Score of the position for the side to move: positive means that side is better
+    public static int evaluate(Board board)
+    {
+        return evaluate(board, board.getMiddlegameScore(), board.getEndgameScore(), board.getPhase(), null);
+    }
+
+    // Same score, taking the pawn structure terms from pawnTable when it already holds them
+    public static int evaluate(Board board, PawnHashTable pawnTable)
+    {
+        return evaluate(board, board.getMiddlegameScore(), board.getEndgameScore(), board.getPhase(), pawnTable);
+    }
+
+    // Same as evaluate, but recomputes material and piece-square terms by scanning the board
+    // instead of using Board's running totals. Used to check those totals and to benchmark them.
+    public static int evaluateFromScratch(Board board)
+    {
+        Bitboard bitboards = board.getBitboards();
+        int middlegame = 0, endgame = 0, phase = 0;
+        for (int index = 0; index < 2 * Bitboard.PIECE_TYPES; index++)
+        {
+            long pieces = bitboards.getPieces(index / Bitboard.PIECE_TYPES, index % Bitboard.PIECE_TYPES);
+            while (pieces != 0)
+            {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                middlegame += MIDDLEGAME[index][square];
+                endgame += ENDGAME[index][square];
+                phase += PHASE_WEIGHTS[index % Bitboard.PIECE_TYPES];
+            }
+        }
+        return evaluate(board, middlegame, endgame, phase, null);
+    }
+
+    private static int evaluate(Board board, int middlegame, int endgame, int phase, PawnHashTable pawnTable)
+    {
+        Bitboard bitboards = board.getBitboards();
+        long whitePawns = bitboards.getPieces(Bitboard.WHITE, Bitboard.PAWN);
+        long blackPawns = bitboards.getPieces(Bitboard.BLACK, Bitboard.PAWN);
+
+        // The shield depends on where the king stands, so it stays with king safety below
+        int pawns = (pawnTable != null) ? pawnTable.probe(board) : evaluatePawnStructure(whitePawns, blackPawns);
+        middlegame += middlegamePart(pawns);
+        endgame += endgamePart(pawns);
+
+        int white = evaluatePieces(bitboards, Bitboard.WHITE, blackPawns);
+        int black = evaluatePieces(bitboards, Bitboard.BLACK, whitePawns);
+        middlegame += middlegamePart(white) - middlegamePart(black);
+        endgame += endgamePart(white) - endgamePart(black);
+
+        phase = Math.min(phase, MAX_PHASE); // Early promotions can push it past the starting total
+        int score = (middlegame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+        return (board.getSideToMove() == PieceColor.WHITE) ? score : -score;
+    }
+
+    // Middlegame and endgame scores packed into one int, so a term can return both
+    static int pack(int middlegame, int endgame)
+    {
+        return (endgame << 16) + middlegame;
+    }
+
+    static int middlegamePart(int packed)
+    {
+        return (short) packed;
+    }
+
+    static int endgamePart(int packed)
+    {
+        return (packed + 0x8000) >> 16;
+    }
+
+    // Doubled, isolated and passed pawns, white minus black, packed with pack()
+    static int evaluatePawnStructure(long whitePawns, long blackPawns)
+    {
+        int middlegame = 0, endgame = 0;
+        for (int color = Bitboard.WHITE; color <= Bitboard.BLACK; color++)
+        {
+            long own = (color == Bitboard.WHITE) ? whitePawns : blackPawns;
+            long enemy = (color == Bitboard.WHITE) ? blackPawns : whitePawns;
+            int sign = (color == Bitboard.WHITE) ? 1 : -1;
+
+            for (int col = 0; col < Board.SIZE; col++)
+            {
+                int onFile = Long.bitCount(own & FILES[col]);
+                if (onFile > 1)
+                {
+                    middlegame += sign * DOUBLED_MG * (onFile - 1);
+                    endgame += sign * DOUBLED_EG * (onFile - 1);
+                }
+                if (onFile > 0 && (own & ADJACENT_FILES[col]) == 0)
+                {
+                    middlegame += sign * ISOLATED_MG * onFile;
+                    endgame += sign * ISOLATED_EG * onFile;
+                }
+            }
+
+            long pawns = own;
+            while (pawns != 0)
+            {
+                int square = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                if ((PASSED_MASKS[color][square] & enemy) == 0)
+                {
+                    int row = Bitboard.rowOf(square);
+                    int advanced = (color == Bitboard.WHITE) ? 6 - row : row - 1;
+                    middlegame += sign * PASSED_MG[advanced];
+                    endgame += sign * PASSED_EG[advanced];
+                }
+            }
+        }
+        return pack(middlegame, endgame);
+    }
+
+    // Mobility and king safety for one side, packed with pack(). Both come from the same pass
+    // over the piece attacks.
+    private static int evaluatePieces(Bitboard bitboards, int color, long enemyPawns)
+    {
+        int enemy = 1 - color;
+        long occupied = bitboards.getOccupied();
+        long own = bitboards.getOccupancy(color);
+        // Squares enemy pawns guard are poor places to go
+        long enemyPawnAttacks = (enemy == Bitboard.WHITE)
+                ? ((enemyPawns >>> 9) & ~FILES[7]) | ((enemyPawns >>> 7) & ~FILES[0])
+                : ((enemyPawns << 7) & ~FILES[7]) | ((enemyPawns << 9) & ~FILES[0]);
+        long available = ~own & ~enemyPawnAttacks;
+
+        int enemyKing = bitboards.findKing(enemy);
+        long enemyKingZone = (enemyKing >= 0) ? Attacks.king(enemyKing) | (1L << enemyKing) : 0L;
+
+        int middlegame = 0, endgame = 0;
+        int attackUnits = 0;
+        for (int type = Bitboard.KNIGHT; type <= Bitboard.QUEEN; type++)
+        {
+            long pieces = bitboards.getPieces(color, type);
+            while (pieces != 0)
+            {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long attacks = attacks(type, square, occupied);
+                int mobility = Long.bitCount(attacks & available) - MOBILITY_BASE[type];
+                middlegame += MOBILITY_MG[type] * mobility;
+                endgame += MOBILITY_EG[type] * mobility;
+                if ((attacks & enemyKingZone) != 0)
+                {
+                    attackUnits += ATTACKER_WEIGHTS[type];
+                }
+            }
+        }
+        // Attacks on the enemy king count in our favour; the shield protects our own
+        middlegame += KING_DANGER[Math.min(attackUnits, KING_DANGER.length - 1)];
+        middlegame += pawnShield(bitboards, color);
+        return pack(middlegame, endgame);
+    }
+
+    private static long attacks(int type, int square, long occupied)
+    {
+        switch (type)
+        {
+            case Bitboard.KNIGHT:
+                return Attacks.knight(square);
+            case Bitboard.BISHOP:
+                return Attacks.bishop(square, occupied);
+            case Bitboard.ROOK:
+                return Attacks.rook(square, occupied);
+            default:
+                return Attacks.queen(square, occupied);
+        }
+    }
+
+    // Own pawns directly in front of a castled-looking king (on its back two ranks)
+    private static int pawnShield(Bitboard bitboards, int color)
+    {
+        int king = bitboards.findKing(color);
+        if (king < 0)
+        {
+            return 0;
+        }
+        int row = Bitboard.rowOf(king);
+        int col = Bitboard.colOf(king);
+        int homeRow = (color == Bitboard.WHITE) ? 7 : 0;
+        int forward = (color == Bitboard.WHITE) ? -1 : 1;
+        if (Math.abs(row - homeRow) > 1)
+        {
+            return 0;
+        }
+        long pawns = bitboards.getPieces(color, Bitboard.PAWN);
+        long files = FILES[col] | ADJACENT_FILES[col];
+        long nearRank = 0xFFL << (8 * (row + forward));
+        long farRank = 0xFFL << (8 * (row + 2 * forward));
+        return SHIELD_NEAR * Long.bitCount(pawns & files & nearRank) + SHIELD_FAR * Long.bitCount(pawns & files & farRank);
+    }
+
+    // Microbenchmark: evaluations per second over a fixed set of search-like leaves (every child
+    // of a set of random positions), with Board's running material and piece-square totals, with
+    // those plus the pawn hash table, and with everything recomputed from scratch
+    public static void main(String[] args)
+    {
+        double seconds = 3.0;
+        if (args.length > 0)
+        {
+            try
+            {
+                seconds = Double.parseDouble(args[0]);
+            }
+            catch (NumberFormatException e)
+            {
+                System.err.println("Usage: Evaluation [seconds]");
+                return;
+            }
+        }
+
+        List<Board> leaves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        for (Board board : randomPositions(200, 0x5EEDL))
+        {
+            MoveGenerator.generateLegalMoves(board, board.getSideToMove(), moves);
+            for (int i = 0; i < moves.size(); i++)
+            {
+                MoveUndo undo = board.makeMove(moves.get(i));
+                leaves.add(new Board(board));
+                board.unmakeMove(undo);
+            }
+        }
+        Board[] positions = leaves.toArray(new Board[0]);
+        System.out.println("Evaluating " + positions.length + " positions for " + seconds + " s each way");
+
+        String[] modes = {"Incremental:", "Pawn hash:", "From scratch:"};
+        for (int mode = 0; mode < modes.length; mode++)
+        {
+            PawnHashTable pawnTable = new PawnHashTable();
+            long deadline = System.nanoTime() + (long) (seconds * 1_000_000_000L);
+            long evaluations = 0;
+            long checksum = 0;
+            long start = System.nanoTime();
+            while (System.nanoTime() < deadline)
+            {
+                for (Board board : positions)
+                {
+                    if (mode == 0)
+                    {
+                        checksum += evaluate(board);
+                    }
+                    else if (mode == 1)
+                    {
+                        checksum += evaluate(board, pawnTable);
+                    }
+                    else
+                    {
+                        checksum += evaluateFromScratch(board);
+                    }
+                }
+                evaluations += positions.length;
+            }
+            double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.println(String.format("%-14s %,14.0f evaluations/sec (checksum %d per pass)", modes[mode],
+                    evaluations / elapsed, checksum / (evaluations / positions.length)));
+            if (mode == 1)
+            {
+                System.out.println("  " + pawnTable);
+            }
+        }
+    }
+
+    // Positions reached by playing random legal moves from the start, spread over all game phases
+    static Board[] randomPositions(int count, long seed)
+    {
+        Random random = new Random(seed);
+        Board[] positions = new Board[count];
+        MoveList moves = new MoveList();
+        for (int i = 0; i < count; i++)
+        {
+            Board board = new Board();
+            board.initializeStandardBoard();
+            int plies = 10 + random.nextInt(90);
+            for (int ply = 0; ply < plies; ply++)
+            {
+                MoveGenerator.generateLegalMoves(board, board.getSideToMove(), moves);
+                if (moves.isEmpty())
+                {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            positions[i] = board;
+        }
+        return positions;
+    }
+}
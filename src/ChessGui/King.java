@@ -7,22 +7,9 @@ package ChessGui;
 public class King extends Piece 
 {
 
-    private boolean hasMoved;
-
-    public King(String color) 
-    {
-        super("King", color);
-        this.hasMoved = false;
-    }
-
-    public boolean hasMoved() 
-    {
-        return hasMoved;
-    }
-
-    public void setHasMoved(boolean hasMoved) 
+    public King(PieceColor color) 
     {
-        this.hasMoved = hasMoved;
+        super(PieceType.KING, color);
     }
 
     @Override
@@ -35,21 +22,26 @@ public class King extends Piece
         if ((rowDiff <= 1 && colDiff <= 1) && !(rowDiff == 0 && colDiff == 0)) 
         {
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         }
 
-        // Castling logic
-        if (!hasMoved) 
+        // Castling logic: the board's castling rights say whether the king and rook are still unmoved
+        int rights = board.getCastlingRights();
+        boolean white = getColor() == PieceColor.WHITE;
+        int kingsideRight = white ? Board.CASTLE_WHITE_KINGSIDE : Board.CASTLE_BLACK_KINGSIDE;
+        int queensideRight = white ? Board.CASTLE_WHITE_QUEENSIDE : Board.CASTLE_BLACK_QUEENSIDE;
+        if ((rights & (kingsideRight | queensideRight)) != 0) 
         {
+            int enemy = getColor().opposite().index();
+
             // Kingside castling
             if (endRow == startRow && endCol == startCol + 2) 
             {
-                Rook kingsideRook = (Rook) board.getPiece(startRow, 7);
-                if (kingsideRook != null && !kingsideRook.hasMoved() &&
+                if ((rights & kingsideRight) != 0 &&
                     board.getPiece(startRow, 5) == null && board.getPiece(startRow, 6) == null &&
                     !board.isKingInCheck(getColor()) &&
-                    !isSquareAttacked(startRow, 5, board, getColor()) &&
-                    !isSquareAttacked(startRow, 6, board, getColor())) 
+                    !board.isAttackedBy(startRow, 5, enemy) &&
+                    !board.isAttackedBy(startRow, 6, enemy)) 
                 {
                     return true;
                 }
@@ -58,12 +50,11 @@ public class King extends Piece
             // Queenside castling
             if (endRow == startRow && endCol == startCol - 2) 
             {
-                Rook queensideRook = (Rook) board.getPiece(startRow, 0);
-                if (queensideRook != null && !queensideRook.hasMoved() &&
+                if ((rights & queensideRight) != 0 &&
                     board.getPiece(startRow, 1) == null && board.getPiece(startRow, 2) == null && board.getPiece(startRow, 3) == null &&
                     !board.isKingInCheck(getColor()) &&
-                    !isSquareAttacked(startRow, 3, board, getColor()) &&
-                    !isSquareAttacked(startRow, 2, board, getColor())) 
+                    !board.isAttackedBy(startRow, 3, enemy) &&
+                    !board.isAttackedBy(startRow, 2, enemy)) 
                 {
                     return true;
                 }
@@ -72,44 +63,4 @@ public class King extends Piece
 
         return false;
     }
-
-    // Helper method to check if a square is attacked by any opponent's piece
-    private boolean isSquareAttacked(int row, int col, Board board, String attackingColor) 
-    {
-        String opponentColor = (attackingColor.equals("white")) ? "black" : "white";
-        for (int i = 0; i < Board.SIZE; i++) 
-        {
-            for (int j = 0; j < Board.SIZE; j++) 
-            {
-                Piece piece = board.getPiece(i, j);
-                if (piece != null && piece.getColor().equals(opponentColor)) 
-                {
-                    if (piece.canMove(i, j, row, col, board)) 
-                    {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    public boolean isKingInCheck(int row, int col, Board board) 
-    {
-        for (int i = 0; i < Board.SIZE; i++) 
-        {
-            for (int j = 0; j < Board.SIZE; j++) 
-            {
-                Piece piece = board.getPiece(i, j);
-                if (piece != null && !piece.getColor().equals(getColor())) 
-                {
-                    if (piece.canMove(i, j, row, col, board)) 
-                    {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-}
\ No newline at end of file
+}
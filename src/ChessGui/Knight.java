@@ -7,9 +7,9 @@ package ChessGui;
 public class Knight extends Piece 
 {
 
-    public Knight(String color) 
+    public Knight(PieceColor color) 
     {
-        super("Knight", color);
+        super(PieceType.KNIGHT, color);
     }
 
     @Override
@@ -26,7 +26,7 @@ public class Knight extends Piece
         {
             // Check if the destination square is empty or contains an opponent's piece.
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         }
 
         // If the move doesn't fit the 'L' shape, it's not a valid knight move.
@@ -0,0 +1,212 @@
+package ChessGui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Lazy SMP: several AlphaBetaEngines search the same root at once and share one transposition
+// table. The helpers don't coordinate; they simply fill the table with results the main thread
+// then finds already there. Every other helper starts one ply deeper so the threads spread over
+// different depths instead of all repeating the same iteration. The main thread (the caller's)
+// decides when to stop, and its result is the one returned.
+// Usage (time-to-depth benchmark): LazySmpEngine [depth] [maxThreads] [tableMb]
+public class LazySmpEngine implements ChessEngine
+{
+    private final TranspositionTable table;
+    private final AlphaBetaEngine[] engines; // [0] runs on the calling thread, the rest are helpers
+    private final ExecutorService helperPool;
+
+    // One thread per available core, with the default table size
+    public LazySmpEngine()
+    {
+        this(Runtime.getRuntime().availableProcessors(), TranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    public LazySmpEngine(int threads, int tableSizeMb)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Lazy SMP needs at least one thread");
+        }
+        this.table = new TranspositionTable(tableSizeMb);
+        this.engines = new AlphaBetaEngine[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            engines[i] = new AlphaBetaEngine(table);
+        }
+        this.helperPool = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "Lazy SMP helper");
+            thread.setDaemon(true); // Never keeps the application alive
+            return thread;
+        }) : null;
+    }
+
+    public static void main(String[] args)
+    {
+        int depth = 7;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int tableMb = 64;
+        try
+        {
+            if (args.length > 0) depth = Integer.parseInt(args[0]);
+            if (args.length > 1) maxThreads = Integer.parseInt(args[1]);
+            if (args.length > 2) tableMb = Integer.parseInt(args[2]);
+        }
+        catch (NumberFormatException e)
+        {
+            System.err.println("Usage: LazySmpEngine [depth] [maxThreads] [tableMb]");
+            return;
+        }
+
+        Board board = new Board();
+        board.initializeStandardBoard();
+        System.out.println("Time to depth " + depth + " from the standard starting position, "
+                + Runtime.getRuntime().availableProcessors() + " cores available");
+        System.out.println(String.format("%-8s | %-10s | %-12s | %-12s | %-8s | %s",
+                "Threads", "Time (ms)", "Nodes", "Nodes/sec", "Speedup", "Best move"));
+
+        // Powers of two, then the full core count
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2)
+        {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        double baseMillis = 0;
+        for (int threads : threadCounts)
+        {
+            LazySmpEngine engine = new LazySmpEngine(threads, tableMb);
+            try
+            {
+                SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(depth));
+                double millis = result.getElapsedNanos() / 1_000_000.0;
+                if (threads == 1)
+                {
+                    baseMillis = millis;
+                }
+                System.out.println(String.format("%-8d | %-10.0f | %-12d | %-12d | %-8.2f | %s", threads, millis,
+                        result.getNodes(), result.getNodesPerSecond(), baseMillis / millis,
+                        Move.toString(result.getBestMove())));
+            }
+            finally
+            {
+                engine.shutdown();
+            }
+        }
+    }
+
+    @Override
+    public SearchResult search(Board board, PieceColor sideToMove, SearchLimits limits, SearchListener listener)
+    {
+        Board root = new Board(board); // Helpers copy from this, so the caller's board is only read here
+        table.newSearch();
+        for (AlphaBetaEngine engine : engines)
+        {
+            engine.resetStop();
+        }
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < engines.length; i++)
+        {
+            AlphaBetaEngine helper = engines[i];
+            int startDepth = 1 + (i % 2);
+            helpers.add(helperPool.submit(() -> helper.runSearch(root, sideToMove, limits, null, startDepth, true)));
+        }
+
+        long start = System.nanoTime();
+        SearchListener mainListener = (listener == null) ? null : new SearchListener()
+        {
+            @Override
+            public void onIteration(SearchResult result)
+            {
+                listener.onIteration(withTotalNodes(result, System.nanoTime() - start));
+            }
+
+            @Override
+            public boolean shouldStop()
+            {
+                return listener.shouldStop(); // The helpers are stopped when the main thread returns
+            }
+        };
+        SearchResult result = engines[0].runSearch(root, sideToMove, limits, mainListener, 1, false);
+
+        for (int i = 1; i < engines.length; i++)
+        {
+            engines[i].stop();
+        }
+        for (Future<?> future : helpers)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("Lazy SMP helper failed", e.getCause());
+            }
+        }
+        return (result == null) ? null : withTotalNodes(result, System.nanoTime() - start);
+    }
+
+    // The main thread's result, credited with the nodes every thread has searched
+    private SearchResult withTotalNodes(SearchResult result, long elapsedNanos)
+    {
+        long nodes = 0;
+        for (AlphaBetaEngine engine : engines)
+        {
+            nodes += engine.getNodes();
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, elapsedNanos,
+                result.getPrincipalVariation());
+    }
+
+    @Override
+    public void stop()
+    {
+        for (AlphaBetaEngine engine : engines)
+        {
+            engine.stop();
+        }
+    }
+
+    // Shared by every thread; probes only read it
+    public void setTablebase(Tablebase tablebase)
+    {
+        for (AlphaBetaEngine engine : engines)
+        {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    public int getThreadCount()
+    {
+        return engines.length;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return table;
+    }
+
+    // Releases the helper threads; the engine can't search afterwards
+    public void shutdown()
+    {
+        if (helperPool != null)
+        {
+            helperPool.shutdownNow();
+        }
+    }
+}
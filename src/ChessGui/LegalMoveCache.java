@@ -0,0 +1,86 @@
+package ChessGui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Bounded LRU cache of legal move lists, keyed by the board's Zobrist key.
+// Picking pieces up in the same position and the end-of-turn game end check share entries,
+// so a position's moves are only generated once.
+public class LegalMoveCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Map<Long, CachedMoves> entries;
+    private long hits;
+    private long misses;
+
+    private static class CachedMoves {
+        final PieceColor color;
+        final MoveList moves;
+
+        CachedMoves(PieceColor color, MoveList moves) {
+            this.color = color;
+            this.moves = moves;
+        }
+    }
+
+    public LegalMoveCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LegalMoveCache(int capacity) {
+        // Access-ordered map, so the eldest entry is always the least recently used
+        this.entries = new LinkedHashMap<Long, CachedMoves>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMoves> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Legal moves for color in the board's current position, generated on a miss.
+    // The returned list is shared with the cache and must not be modified.
+    public synchronized MoveList getLegalMoves(Board board, PieceColor color) {
+        long key = board.getZobristKey();
+        CachedMoves cached = entries.get(key);
+        if (cached != null && cached.color == color) {
+            hits++;
+            return cached.moves;
+        }
+        misses++;
+        MoveList moves = MoveGenerator.generateLegalMoves(board, color);
+        entries.put(key, new CachedMoves(color, moves));
+        return moves;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0.0 : (double) hits / lookups;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Legal move cache: %d hits, %d misses (%.1f%% hit rate), %d positions",
+                hits, misses, getHitRate() * 100, entries.size());
+    }
+}
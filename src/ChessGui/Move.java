@@ -0,0 +1,139 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Moves packed into the low 16 bits of an int, so move lists are plain int arrays:
+//   bits 0-5   start square (Bitboard.square numbering, a8 = 0)
+//   bits 6-11  end square
+//   bits 12-15 flags: 0 quiet, 1 double pawn push, 2/3 king/queenside castle, 4 capture,
+//              5 en passant, 8-11 promotion to knight/bishop/rook/queen, 12-15 promotion with capture
+// NONE (0) is never a legal move, since a8-a8 goes nowhere.
+public final class Move
+{
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8; // Plus 0-3 for knight, bishop, rook, queen; plus CAPTURE when capturing
+
+    private Move()
+    {
+    }
+
+    public static int encode(int from, int to, int flags)
+    {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    // Flags for a promotion to the given Bitboard piece type (KNIGHT..QUEEN)
+    public static int promotionFlags(int pieceType, boolean capture)
+    {
+        return PROMOTION | (pieceType - Bitboard.KNIGHT) | (capture ? CAPTURE : 0);
+    }
+
+    public static int from(int move)
+    {
+        return move & 0x3F;
+    }
+
+    public static int to(int move)
+    {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move)
+    {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static int fromRow(int move)
+    {
+        return Bitboard.rowOf(from(move));
+    }
+
+    public static int fromCol(int move)
+    {
+        return Bitboard.colOf(from(move));
+    }
+
+    public static int toRow(int move)
+    {
+        return Bitboard.rowOf(to(move));
+    }
+
+    public static int toCol(int move)
+    {
+        return Bitboard.colOf(to(move));
+    }
+
+    public static boolean isCapture(int move)
+    {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move)
+    {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    // Bitboard piece type promoted to, only meaningful if isPromotion
+    public static int promotionType(int move)
+    {
+        return Bitboard.KNIGHT + (flags(move) & 3);
+    }
+
+    public static boolean isCastle(int move)
+    {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static boolean isEnPassant(int move)
+    {
+        return flags(move) == EN_PASSANT;
+    }
+
+    public static boolean isDoublePawnPush(int move)
+    {
+        return flags(move) == DOUBLE_PAWN_PUSH;
+    }
+
+    // Two bytes per move, high byte first: how PlayerData stores a game's moves
+    public static byte[] toBytes(int[] moves)
+    {
+        byte[] bytes = new byte[moves.length * 2];
+        for (int i = 0; i < moves.length; i++)
+        {
+            bytes[2 * i] = (byte) (moves[i] >>> 8);
+            bytes[2 * i + 1] = (byte) moves[i];
+        }
+        return bytes;
+    }
+
+    public static int[] fromBytes(byte[] bytes)
+    {
+        int[] moves = new int[bytes.length / 2];
+        for (int i = 0; i < moves.length; i++)
+        {
+            moves[i] = ((bytes[2 * i] & 0xFF) << 8) | (bytes[2 * i + 1] & 0xFF);
+        }
+        return moves;
+    }
+
+    // Coordinate notation, e.g. "e2e4" or "e7e8q"
+    public static String toString(int move)
+    {
+        String text = ChessGame.getAlgebraic(fromRow(move), fromCol(move)) + ChessGame.getAlgebraic(toRow(move), toCol(move));
+        if (isPromotion(move))
+        {
+            text += "nbrq".charAt(promotionType(move) - Bitboard.KNIGHT);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,183 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Enumerates only the moves each piece can actually make, instead of probing all 64 destinations.
+// Piece moves are read from the Attacks tables; pawns and castling have their own rules.
+// Moves are packed ints (see Move) written into a caller-supplied MoveList, so nothing is
+// allocated per move.
+public class MoveGenerator
+{
+    // Queen first so the GUI's default choice is generated first
+    private static final int[] PROMOTION_TYPES = {
+        Bitboard.QUEEN, Bitboard.ROOK, Bitboard.BISHOP, Bitboard.KNIGHT
+    };
+
+    private MoveGenerator()
+    {
+    }
+
+    // All legal moves for the given colour, in a new list
+    public static MoveList generateLegalMoves(Board board, PieceColor color)
+    {
+        MoveList moves = new MoveList();
+        generateLegalMoves(board, color, moves);
+        return moves;
+    }
+
+    // Replaces the contents of moves with every legal move for the given colour
+    public static void generateLegalMoves(Board board, PieceColor color, MoveList moves)
+    {
+        moves.clear();
+        generatePseudoLegalMoves(board, color.index(), moves);
+        removeIllegalMoves(board, moves);
+    }
+
+    // Appends moves that follow the pieces' movement rules but may leave the king in check
+    public static void generatePseudoLegalMoves(Board board, int color, MoveList moves)
+    {
+        Bitboard bitboards = board.getBitboards();
+        long occupied = bitboards.getOccupied();
+        long enemy = bitboards.getOccupancy(1 - color);
+        long notOwn = ~bitboards.getOccupancy(color);
+
+        long pawns = bitboards.getPieces(color, Bitboard.PAWN);
+        while (pawns != 0)
+        {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            generatePawnMoves(board, square, color, moves);
+        }
+
+        // Knight, bishop, rook, queen and king moves all come straight from the attack tables
+        for (int type = Bitboard.KNIGHT; type <= Bitboard.KING; type++)
+        {
+            long pieces = bitboards.getPieces(color, type);
+            while (pieces != 0)
+            {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long targets = Attacks.attacksFrom(type, color, from, occupied) & notOwn;
+                while (targets != 0)
+                {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    moves.add(Move.encode(from, to, (enemy & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+                }
+                if (type == Bitboard.KING)
+                {
+                    generateCastlingMoves(board, from, color, moves);
+                }
+            }
+        }
+    }
+
+    // Keeps only the moves that don't leave the mover's king in check, compacting the list in place
+    private static void removeIllegalMoves(Board board, MoveList moves)
+    {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++)
+        {
+            int move = moves.get(i);
+            if (!board.leavesKingInCheck(move))
+            {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private static void generatePawnMoves(Board board, int from, int color, MoveList moves)
+    {
+        Bitboard bitboards = board.getBitboards();
+        int row = Bitboard.rowOf(from);
+        int col = Bitboard.colOf(from);
+        int forwardStep = (color == Bitboard.WHITE) ? -1 : 1;
+        int startingRow = (color == Bitboard.WHITE) ? 6 : 1;
+        int nextRow = row + forwardStep;
+        if (nextRow < 0 || nextRow >= Board.SIZE)
+        {
+            return;
+        }
+
+        // Forward pushes
+        if (!bitboards.isOccupied(nextRow, col))
+        {
+            addPawnMove(from, Bitboard.square(nextRow, col), false, moves);
+            int doubleRow = row + 2 * forwardStep;
+            if (row == startingRow && !bitboards.isOccupied(doubleRow, col))
+            {
+                moves.add(Move.encode(from, Bitboard.square(doubleRow, col), Move.DOUBLE_PAWN_PUSH));
+            }
+        }
+
+        // Diagonal captures
+        long captures = Attacks.pawn(color, from) & bitboards.getOccupancy(1 - color);
+        while (captures != 0)
+        {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, true, moves);
+        }
+
+        // En passant
+        int enPassantSquare = board.getEnPassantSquare();
+        int capturingPawnRank = (color == Bitboard.WHITE) ? 3 : 4;
+        if (enPassantSquare >= 0 && row == capturingPawnRank && (Attacks.pawn(color, from) & (1L << enPassantSquare)) != 0
+                && (bitboards.getPieces(1 - color, Bitboard.PAWN) & Bitboard.bit(row, Bitboard.colOf(enPassantSquare))) != 0)
+        {
+            moves.add(Move.encode(from, enPassantSquare, Move.EN_PASSANT));
+        }
+    }
+
+    // Adds one move per promotion piece when the pawn reaches the last rank
+    private static void addPawnMove(int from, int to, boolean capture, MoveList moves)
+    {
+        int toRow = Bitboard.rowOf(to);
+        if (toRow == 0 || toRow == Board.SIZE - 1)
+        {
+            for (int type : PROMOTION_TYPES)
+            {
+                moves.add(Move.encode(from, to, Move.promotionFlags(type, capture)));
+            }
+        }
+        else
+        {
+            moves.add(Move.encode(from, to, capture ? Move.CAPTURE : Move.QUIET));
+        }
+    }
+
+    // Same conditions as King.canMove: the castling right is still held, the path is empty,
+    // and the king neither starts on nor passes through an attacked square
+    private static void generateCastlingMoves(Board board, int from, int color, MoveList moves)
+    {
+        int rights = board.getCastlingRights();
+        int kingsideRight = (color == Bitboard.WHITE) ? Board.CASTLE_WHITE_KINGSIDE : Board.CASTLE_BLACK_KINGSIDE;
+        int queensideRight = (color == Bitboard.WHITE) ? Board.CASTLE_WHITE_QUEENSIDE : Board.CASTLE_BLACK_QUEENSIDE;
+        if ((rights & (kingsideRight | queensideRight)) == 0)
+        {
+            return; // Holding a right means the king is still on its home square
+        }
+        int row = Bitboard.rowOf(from);
+        Bitboard bitboards = board.getBitboards();
+        int enemy = 1 - color;
+        boolean kingsideClear = (rights & kingsideRight) != 0
+                && !bitboards.isOccupied(row, 5) && !bitboards.isOccupied(row, 6);
+        boolean queensideClear = (rights & queensideRight) != 0
+                && !bitboards.isOccupied(row, 1) && !bitboards.isOccupied(row, 2) && !bitboards.isOccupied(row, 3);
+        if ((!kingsideClear && !queensideClear) || board.isAttackedBy(row, 4, enemy))
+        {
+            return;
+        }
+        if (kingsideClear && !board.isAttackedBy(row, 5, enemy) && !board.isAttackedBy(row, 6, enemy))
+        {
+            moves.add(Move.encode(from, Bitboard.square(row, 6), Move.KING_CASTLE));
+        }
+        if (queensideClear && !board.isAttackedBy(row, 3, enemy) && !board.isAttackedBy(row, 2, enemy))
+        {
+            moves.add(Move.encode(from, Bitboard.square(row, 2), Move.QUEEN_CASTLE));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Growable list of packed moves (see Move) backed by an int array.
+// Meant to be cleared and refilled, so generating moves allocates nothing once it has grown.
+public class MoveList
+{
+    public static final int DEFAULT_CAPACITY = 256; // Comfortably above the most moves any position has
+
+    private int[] moves;
+    private int size;
+
+    public MoveList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity)
+    {
+        this.moves = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    public void add(int move)
+    {
+        if (size == moves.length)
+        {
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index)
+    {
+        return moves[index];
+    }
+
+    public void set(int index, int move)
+    {
+        moves[index] = move;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    // Drops everything from newSize onwards
+    public void truncate(int newSize)
+    {
+        size = Math.min(size, newSize);
+    }
+
+    public boolean contains(int move)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (moves[i] == move)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Exact-size copy of the moves
+    public int[] toArray()
+    {
+        int[] copy = new int[size];
+        System.arraycopy(moves, 0, copy, 0, size);
+        return copy;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < size; i++)
+        {
+            if (i > 0)
+            {
+                text.append(", ");
+            }
+            text.append(Move.toString(moves[i]));
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,48 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Everything Board.makeMove changes that can't be worked out again from the move itself,
+// so Board.unmakeMove can put the position back exactly as it was.
+public class MoveUndo
+{
+    final int move;                  // Packed Move
+    final Piece movedPiece;          // The piece that left the start square (the pawn, for promotions)
+    final Piece capturedPiece;       // null if nothing was captured
+    final int previousEnPassantSquare;
+    final int previousCastlingRights;
+    final int previousHalfmoveClock;
+
+    MoveUndo(int move, Piece movedPiece, Piece capturedPiece, int previousEnPassantSquare, int previousCastlingRights,
+             int previousHalfmoveClock)
+    {
+        this.move = move;
+        this.movedPiece = movedPiece;
+        this.capturedPiece = capturedPiece;
+        this.previousEnPassantSquare = previousEnPassantSquare;
+        this.previousCastlingRights = previousCastlingRights;
+        this.previousHalfmoveClock = previousHalfmoveClock;
+    }
+
+    public int getMove()
+    {
+        return move;
+    }
+
+    public Piece getCapturedPiece()
+    {
+        return capturedPiece;
+    }
+
+    public boolean isCastling()
+    {
+        return Move.isCastle(move);
+    }
+
+    public boolean isEnPassant()
+    {
+        return Move.isEnPassant(move);
+    }
+}
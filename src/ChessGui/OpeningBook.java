@@ -0,0 +1,189 @@
+package ChessGui;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Opening book read straight from a memory-mapped file, so it takes no heap however big it is
+// and the operating system pages in only the parts that are used. Lookups binary-search the
+// sorted entries. Build a book with OpeningBookBuilder.
+//
+// File layout (big-endian):
+//   header   magic "CGBOOK01" (8 bytes), entry count (int), entry size in bytes (int)
+//   entries  Zobrist key (long), packed Move (short), weight (unsigned short)
+// Entries are sorted by key as a signed long, and by weight from highest within a key.
+public final class OpeningBook
+{
+    public static final Path DEFAULT_PATH = Paths.get("resources", "book.bin");
+
+    static final long MAGIC = 0x4347424F4F4B3031L; // "CGBOOK01"
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 12;
+    public static final int MAX_WEIGHT = 0xFFFF;
+
+    private final MappedByteBuffer buffer; // Only read with absolute gets, so threads can share it
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer buffer, int entries)
+    {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    public static OpeningBook open(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < HEADER_BYTES)
+            {
+                throw new IOException("Not an opening book: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(12) != ENTRY_BYTES)
+            {
+                throw new IOException("Not an opening book: " + path);
+            }
+            int entries = buffer.getInt(8);
+            if (entries < 0 || HEADER_BYTES + (long) entries * ENTRY_BYTES != size)
+            {
+                throw new IOException("Opening book is truncated or corrupt: " + path);
+            }
+            return new OpeningBook(buffer, entries);
+        }
+    }
+
+    // The book at DEFAULT_PATH, or null if there is none
+    public static OpeningBook openDefault() throws IOException
+    {
+        return Files.exists(DEFAULT_PATH) ? open(DEFAULT_PATH) : null;
+    }
+
+    // Lists the book moves from the starting position and times lookups.
+    // Usage: OpeningBook [book.bin]
+    public static void main(String[] args) throws IOException
+    {
+        OpeningBook book = open((args.length > 0) ? Paths.get(args[0]) : DEFAULT_PATH);
+        Board board = new Board();
+        board.initializeStandardBoard();
+        int[] moves = new int[MoveList.DEFAULT_CAPACITY];
+        int[] weights = new int[MoveList.DEFAULT_CAPACITY];
+        int count = book.lookup(board.getZobristKey(), moves, weights);
+        System.out.println(book.size() + " entries; from the starting position:");
+        for (int i = 0; i < count; i++)
+        {
+            System.out.println(String.format("  %-6s weight %d", San.toSan(board, moves[i]), weights[i]));
+        }
+
+        // Half the lookups hit the starting position, half miss
+        long[] keys = {board.getZobristKey(), board.getZobristKey() ^ 0x9E3779B97F4A7C15L};
+        int lookups = 2_000_000;
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++)
+        {
+            found += book.lookup(keys[i & 1], moves, weights);
+        }
+        double nanos = (double) (System.nanoTime() - start) / lookups;
+        System.out.println(String.format("%.0f ns per lookup (%d moves found)", nanos, found));
+    }
+
+    // Copies the moves stored for key into moves and weights, highest weight first, as many as
+    // fit. Returns how many the book holds for key (0 when the position is out of book).
+    public int lookup(long key, int[] moves, int[] weights)
+    {
+        int first = find(key);
+        if (first < 0)
+        {
+            return 0;
+        }
+        int count = 0;
+        for (int i = first; i < entries && key(i) == key; i++, count++)
+        {
+            if (count < moves.length && count < weights.length)
+            {
+                int offset = HEADER_BYTES + i * ENTRY_BYTES;
+                moves[count] = buffer.getShort(offset + 8) & 0xFFFF;
+                weights[count] = buffer.getShort(offset + 10) & 0xFFFF;
+            }
+        }
+        return count;
+    }
+
+    // A book move for the side to move, chosen at random in proportion to the weights, or
+    // Move.NONE when out of book. Stored moves that aren't legal here (a key collision) are skipped.
+    public int pickMove(Board board, Random random)
+    {
+        int[] moves = new int[MoveList.DEFAULT_CAPACITY];
+        int[] weights = new int[MoveList.DEFAULT_CAPACITY];
+        int count = Math.min(lookup(board.getZobristKey(), moves, weights), moves.length);
+        if (count == 0)
+        {
+            return Move.NONE;
+        }
+        MoveList legalMoves = MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+        int total = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (!legalMoves.contains(moves[i]))
+            {
+                weights[i] = 0;
+            }
+            total += weights[i];
+        }
+        if (total == 0)
+        {
+            return Move.NONE;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < count; i++)
+        {
+            pick -= weights[i];
+            if (pick < 0)
+            {
+                return moves[i];
+            }
+        }
+        return Move.NONE; // Unreachable
+    }
+
+    // Number of (position, move) entries
+    public int size()
+    {
+        return entries;
+    }
+
+    // Lowest entry index holding key, or -1
+    private int find(long key)
+    {
+        int low = 0, high = entries; // Answer lies in [low, high)
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (key(middle) < key)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return (low < entries && key(low) == key) ? low : -1;
+    }
+
+    private long key(int index)
+    {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+}
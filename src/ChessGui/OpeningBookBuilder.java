@@ -0,0 +1,179 @@
+package ChessGui;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Compiles an opening book (see OpeningBook) from PGN games. Every position within the first
+// few plies of each game is recorded with the move played from it. A move's weight is the
+// points it scored for the side that played it, two per win and one per draw or unfinished
+// game, so moves that did well are picked more often. Moves seen in fewer than a minimum number
+// of games are left out. Games that start from a set-up position are skipped.
+// Usage: OpeningBookBuilder [-plies N] [-min N] output.bin games.pgn...
+public class OpeningBookBuilder
+{
+    public static final int DEFAULT_PLIES = 24;
+    public static final int DEFAULT_MIN_GAMES = 1;
+
+    private final int maxPlies;
+    private final int minGames;
+    // Position key -> packed move -> {games, points}
+    private final Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+    private long gamesAdded;
+    private long gamesRejected;
+
+    public OpeningBookBuilder(int maxPlies, int minGames)
+    {
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int plies = DEFAULT_PLIES;
+        int minGames = DEFAULT_MIN_GAMES;
+        int arg = 0;
+        try
+        {
+            for (; arg < args.length && args[arg].startsWith("-"); arg += 2)
+            {
+                if (args[arg].equals("-plies"))
+                {
+                    plies = Integer.parseInt(args[arg + 1]);
+                }
+                else if (args[arg].equals("-min"))
+                {
+                    minGames = Integer.parseInt(args[arg + 1]);
+                }
+                else
+                {
+                    throw new IllegalArgumentException(args[arg]);
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            arg = args.length; // Falls through to the usage message
+        }
+        if (args.length - arg < 2)
+        {
+            System.err.println("Usage: OpeningBookBuilder [-plies N] [-min N] output.bin games.pgn...");
+            return;
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies, minGames);
+        long start = System.nanoTime();
+        for (int i = arg + 1; i < args.length; i++)
+        {
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.ISO_8859_1)))
+            {
+                PgnGame game;
+                while ((game = reader.next()) != null)
+                {
+                    builder.addGame(game);
+                }
+            }
+        }
+        int entries = builder.write(Paths.get(args[arg]));
+        System.out.println(String.format("%d games added, %d rejected, %d positions, %d book entries in %.1f s",
+                builder.getGamesAdded(), builder.getGamesRejected(), builder.positions.size(), entries,
+                (System.nanoTime() - start) / 1_000_000_000.0));
+    }
+
+    // Replays the game's opening from the standard position and counts its moves. Returns false
+    // if the game was skipped or a move didn't parse; moves before a bad one are still counted.
+    public boolean addGame(PgnGame game)
+    {
+        if (game.getTag("FEN") != null)
+        {
+            gamesRejected++;
+            return false;
+        }
+        int whitePoints = game.getResultValue() + 1; // 2 win, 1 draw, 0 loss
+        if (PgnGame.UNKNOWN.equals(game.getResult()))
+        {
+            whitePoints = 1;
+        }
+
+        Board board = new Board();
+        board.initializeStandardBoard();
+        List<String> moves = game.getMoves();
+        for (int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++)
+        {
+            int move = San.parse(board, moves.get(ply));
+            if (move == Move.NONE)
+            {
+                gamesRejected++;
+                return false;
+            }
+            int points = (board.getSideToMove() == PieceColor.WHITE) ? whitePoints : 2 - whitePoints;
+            int[] stats = positions.computeIfAbsent(board.getZobristKey(), key -> new HashMap<>())
+                    .computeIfAbsent(move, key -> new int[2]);
+            stats[0]++;
+            stats[1] += points;
+            board.makeMove(move);
+        }
+        gamesAdded++;
+        return true;
+    }
+
+    // Writes the book and returns the number of entries in it
+    public int write(Path path) throws IOException
+    {
+        List<long[]> entries = new ArrayList<>(); // {key, move, weight}
+        long maxWeight = 1;
+        for (Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet())
+        {
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet())
+            {
+                int[] stats = move.getValue();
+                if (stats[0] >= minGames)
+                {
+                    long weight = Math.max(1, stats[1]); // Even a losing move stays playable
+                    entries.add(new long[]{position.getKey(), move.getKey(), weight});
+                    maxWeight = Math.max(maxWeight, weight);
+                }
+            }
+        }
+        entries.sort((a, b) -> (a[0] != b[0]) ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+        {
+            out.writeLong(OpeningBook.MAGIC);
+            out.writeInt(entries.size());
+            out.writeInt(OpeningBook.ENTRY_BYTES);
+            for (long[] entry : entries)
+            {
+                // Scale down to 16 bits if need be, keeping every weight at least 1
+                long weight = (maxWeight > OpeningBook.MAX_WEIGHT)
+                        ? Math.max(1, entry[2] * OpeningBook.MAX_WEIGHT / maxWeight) : entry[2];
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) weight);
+            }
+        }
+        return entries.size();
+    }
+
+    public long getGamesAdded()
+    {
+        return gamesAdded;
+    }
+
+    public long getGamesRejected()
+    {
+        return gamesRejected;
+    }
+}
@@ -0,0 +1,93 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Small cache of pawn structure scores keyed by Board's pawn key. Pawns move far less often than
+// other pieces, so during a search almost every leaf finds its pawn structure already scored.
+// Not thread safe: each search thread keeps its own (it is small, and needs no sharing).
+public class PawnHashTable
+{
+    public static final int DEFAULT_ENTRIES = 1 << 14; // 16384 entries, 192 KB
+
+    private final long[] keys;
+    private final int[] scores; // Packed middlegame/endgame score, see Evaluation.pack
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    public PawnHashTable()
+    {
+        this(DEFAULT_ENTRIES);
+    }
+
+    // Rounds entries down to a power of two
+    public PawnHashTable(int entries)
+    {
+        if (entries < 1)
+        {
+            throw new IllegalArgumentException("Pawn hash table needs at least one entry");
+        }
+        int size = Integer.highestOneBit(entries);
+        this.keys = new long[size];
+        this.scores = new int[size];
+        this.mask = size - 1;
+        clear();
+    }
+
+    // Pawn structure score for the position, from the table or computed and stored
+    public int probe(Board board)
+    {
+        long key = board.getPawnKey();
+        int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key)
+        {
+            hits++;
+            return scores[index];
+        }
+        Bitboard bitboards = board.getBitboards();
+        int score = Evaluation.evaluatePawnStructure(bitboards.getPieces(Bitboard.WHITE, Bitboard.PAWN),
+                bitboards.getPieces(Bitboard.BLACK, Bitboard.PAWN));
+        keys[index] = key; // Always replace: the newest structure is the one the search is in
+        scores[index] = score;
+        return score;
+    }
+
+    public void clear()
+    {
+        // The empty-board pawn key is 0, which no empty slot may claim to hold
+        java.util.Arrays.fill(keys, -1L);
+        probes = 0;
+        hits = 0;
+    }
+
+    public int getCapacity()
+    {
+        return keys.length;
+    }
+
+    public long getProbes()
+    {
+        return probes;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public double getHitRate()
+    {
+        return (probes == 0) ? 0.0 : (double) hits / probes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("Pawn hash table: %d entries, %d probes, %.1f%% hits", getCapacity(), getProbes(),
+                getHitRate() * 100);
+    }
+}
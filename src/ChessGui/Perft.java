@@ -0,0 +1,248 @@
+package ChessGui;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Headless perft tool: counts the leaf nodes of the legal move tree to a fixed depth.
+// Used both to check the move logic against known node counts and as a throughput benchmark.
+// Usage: Perft [depth] [divide] [threads=N] [split=1|2] ["fen=<FEN>"]
+// Counts from the standard starting position unless given a FEN (quoted, as one argument).
+// With threads > 1 the root moves (split=2: every reply too) are counted in parallel on a fork-join pool.
+public class Perft {
+
+    private static final int DEFAULT_DEPTH = 4;
+    private static final String USAGE = "Usage: Perft [depth] [divide] [threads=N] [split=1|2] [\"fen=<FEN>\"]";
+
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        boolean divide = false;
+        int threads = 1;
+        int splitDepth = 1;
+        String fen = Board.STARTING_FEN;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("fen=")) {
+                    fen = arg.substring("fen=".length());
+                } else if (arg.equalsIgnoreCase("divide")) {
+                    divide = true;
+                } else if (arg.startsWith("threads=")) {
+                    threads = Integer.parseInt(arg.substring("threads=".length()));
+                } else if (arg.startsWith("split=")) {
+                    splitDepth = Integer.parseInt(arg.substring("split=".length()));
+                } else {
+                    depth = Integer.parseInt(arg);
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            return;
+        }
+        if (threads < 1 || splitDepth < 1 || splitDepth > 2) {
+            System.err.println(USAGE);
+            return;
+        }
+        Board board;
+        try {
+            board = Board.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        String position = fen.equals(Board.STARTING_FEN) ? "the standard starting position" : fen;
+        if (threads > 1) {
+            runParallel(board, position, depth, divide, threads, splitDepth);
+            return;
+        }
+
+        System.out.println("Perft from " + position + ", depth " + depth);
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<String, Long> entry : divide(board, board.getSideToMove(), depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft(board, board.getSideToMove(), depth);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        printSummary(nodes, elapsedNanos);
+    }
+
+    // Number of leaf nodes depth plies below the current position
+    public static long perft(Board board, PieceColor color, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        // One move list per ply, reused across the whole search
+        MoveList[] moveLists = new MoveList[depth];
+        for (int ply = 0; ply < depth; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+        return perft(board, color, depth, moveLists);
+    }
+
+    private static long perft(Board board, PieceColor color, int depth, MoveList[] moveLists) {
+        MoveList moves = moveLists[depth - 1];
+        MoveGenerator.generateLegalMoves(board, color, moves);
+        if (depth == 1) {
+            return moves.size(); // Bulk count: every legal move is one leaf
+        }
+        PieceColor opponent = color.opposite();
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            nodes += perft(board, opponent, depth - 1, moveLists);
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    // Perft split by root move, in generation order, keyed by the move in coordinate notation
+    public static Map<String, Long> divide(Board board, PieceColor color, int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        PieceColor opponent = color.opposite();
+        MoveList moves = MoveGenerator.generateLegalMoves(board, color);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            counts.put(Move.toString(moves.get(i)), perft(board, opponent, depth - 1));
+            board.unmakeMove(undo);
+        }
+        return counts;
+    }
+
+    private static void runParallel(Board board, String position, int depth, boolean divide, int threads, int splitDepth) {
+        System.out.println("Parallel perft from " + position + ", depth " + depth
+                + ", " + threads + " threads, split depth " + splitDepth);
+
+        Map<String, long[]> threadStats = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        Map<String, Long> counts = parallelDivide(board, board.getSideToMove(), depth, threads, splitDepth, threadStats);
+        long elapsedNanos = System.nanoTime() - start;
+
+        long nodes = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (divide) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+            }
+            nodes += entry.getValue();
+        }
+        printSummary(nodes, elapsedNanos);
+
+        System.out.println();
+        System.out.println(String.format("%-32s | %-12s | %-14s", "Thread", "Nodes", "Nodes/sec"));
+        for (Map.Entry<String, long[]> entry : new TreeMap<>(threadStats).entrySet()) {
+            long threadNodes = entry.getValue()[0];
+            double busySeconds = entry.getValue()[1] / 1_000_000_000.0;
+            System.out.println(String.format("%-32s | %-12d | %-14.0f", entry.getKey(), threadNodes,
+                    busySeconds > 0 ? threadNodes / busySeconds : 0.0));
+        }
+    }
+
+    // Perft on a fork-join pool; see parallelDivide
+    public static long parallelPerft(Board board, PieceColor color, int depth, int threads, int splitDepth) {
+        long nodes = 0;
+        for (long count : parallelDivide(board, color, depth, threads, splitDepth, new ConcurrentHashMap<>()).values()) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    // Splits the tree splitDepth plies below the root into independent tasks, each with its own
+    // Board copy, and counts them on a pool of the given size. Results are grouped by root move.
+    // threadStats collects {nodes, busy nanoseconds} per worker thread name.
+    public static Map<String, Long> parallelDivide(Board board, PieceColor color, int depth, int threads, int splitDepth,
+                                                   Map<String, long[]> threadStats) {
+        List<PerftTask> tasks = new ArrayList<>();
+        PieceColor opponent = color.opposite();
+        MoveList moves = MoveGenerator.generateLegalMoves(board, color);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            createTasks(board, opponent, depth - 1, splitDepth - 1, Move.toString(moves.get(i)), tasks, threadStats);
+            board.unmakeMove(undo);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (PerftTask task : tasks) {
+                pool.execute(task);
+            }
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (PerftTask task : tasks) {
+                counts.merge(task.rootMove, task.join(), Long::sum);
+            }
+            return counts;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void createTasks(Board board, PieceColor color, int depth, int splitDepth, String rootMove,
+                                    List<PerftTask> tasks, Map<String, long[]> threadStats) {
+        if (splitDepth <= 0 || depth <= 1) {
+            tasks.add(new PerftTask(new Board(board), color, depth, rootMove, threadStats));
+            return;
+        }
+        PieceColor opponent = color.opposite();
+        MoveList moves = MoveGenerator.generateLegalMoves(board, color);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            createTasks(board, opponent, depth - 1, splitDepth - 1, rootMove, tasks, threadStats);
+            board.unmakeMove(undo);
+        }
+    }
+
+    // One subtree counted on a worker thread against a board no other task touches
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final PieceColor color;
+        private final int depth;
+        private final String rootMove;
+        private final Map<String, long[]> threadStats;
+
+        PerftTask(Board board, PieceColor color, int depth, String rootMove, Map<String, long[]> threadStats) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+            this.rootMove = rootMove;
+            this.threadStats = threadStats;
+        }
+
+        @Override
+        protected Long compute() {
+            long start = System.nanoTime();
+            long nodes = perft(board, color, depth);
+            long elapsed = System.nanoTime() - start;
+            threadStats.compute(Thread.currentThread().getName(), (name, totals) -> {
+                if (totals == null) {
+                    totals = new long[2];
+                }
+                totals[0] += nodes;
+                totals[1] += elapsed;
+                return totals;
+            });
+            return nodes;
+        }
+    }
+
+    static void printSummary(long nodes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        System.out.println(String.format("Time: %.3f s", seconds));
+        System.out.println(String.format("Speed: %.0f nodes/sec", seconds > 0 ? nodes / seconds : 0.0));
+    }
+}
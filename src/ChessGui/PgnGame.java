@@ -0,0 +1,104 @@
+package ChessGui;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// One game from a PGN file: its tag pairs in file order and its main line as SAN moves.
+// Comments, variations and annotation glyphs are not kept. replay checks the moves on a Board.
+public class PgnGame
+{
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+    // Values of the Termination tag: how a finished game ended
+    public static final String NORMAL_TERMINATION = "normal"; // Mate, stalemate, resignation and the like
+    public static final String TIME_FORFEIT = "time forfeit";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = UNKNOWN;
+
+    public String getTag(String name)
+    {
+        return tags.get(name);
+    }
+
+    public void setTag(String name, String value)
+    {
+        tags.put(name, value);
+    }
+
+    public Map<String, String> getTags()
+    {
+        return tags;
+    }
+
+    public List<String> getMoves()
+    {
+        return moves;
+    }
+
+    public void addMove(String san)
+    {
+        moves.add(san);
+    }
+
+    // Game termination marker from the movetext, falling back to the Result tag
+    public String getResult()
+    {
+        if (UNKNOWN.equals(result) && tags.containsKey("Result"))
+        {
+            return tags.get("Result");
+        }
+        return result;
+    }
+
+    public void setResult(String result)
+    {
+        this.result = result;
+    }
+
+    // 1 = white win, 0 = draw or unknown, -1 = black win, as PlayerData records results
+    public int getResultValue()
+    {
+        String value = getResult();
+        return WHITE_WINS.equals(value) ? 1 : BLACK_WINS.equals(value) ? -1 : 0;
+    }
+
+    // Compares without copying token, since the reader asks this of every token it reads
+    public static boolean isResult(CharSequence token)
+    {
+        return WHITE_WINS.contentEquals(token) || BLACK_WINS.contentEquals(token) || DRAW.contentEquals(token)
+                || UNKNOWN.contentEquals(token);
+    }
+
+    // Sets board to the game's starting position (its FEN tag, or the standard one) and plays the
+    // main line on it, checking each move against the legal moves. Returns the moves, packed.
+    // Throws IllegalArgumentException at the first move that is illegal, ambiguous or not SAN,
+    // leaving board at the position before it.
+    public int[] replay(Board board)
+    {
+        String fen = tags.get("FEN");
+        board.setFromFen((fen != null) ? fen : Board.STARTING_FEN);
+        int[] packed = new int[moves.size()];
+        for (int ply = 0; ply < packed.length; ply++)
+        {
+            int move = San.parse(board, moves.get(ply));
+            if (move == Move.NONE)
+            {
+                String number = board.getFullmoveNumber() + ((board.getSideToMove() == PieceColor.WHITE) ? ". " : "... ");
+                throw new IllegalArgumentException("Illegal move " + number + moves.get(ply));
+            }
+            board.makeMove(move);
+            packed[ply] = move;
+        }
+        return packed;
+    }
+}
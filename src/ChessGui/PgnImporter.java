@@ -0,0 +1,432 @@
+package ChessGui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Bulk-loads finished games from PGN files into the PLAYERS, MATCHES and MATCH_MOVES tables, for
+// seeding ratings from historical games. Three stages run at once:
+//   - a reader thread splits the file into chunks of games, in file order
+//   - parser threads replay each chunk's games on a Board to check and pack their moves,
+//     rejecting any with an illegal move, no result or unusable player names
+//   - the calling thread writes the chunks in file order, batching the inserts and committing
+//     every batchSize matches
+// Chunks travel through a bounded queue of futures, so memory stays flat however big the file.
+//
+// Each commit also records in IMPORT_PROGRESS how many of the file's games are done, in the same
+// transaction, so after a crash the import carries on from the last commit without duplicates.
+// Importing a file that is already done adds nothing. Player stats are not touched; recalculate
+// the rankings afterwards (main does).
+// Usage: PgnImporter [-threads N] [-batch N] games.pgn...
+public class PgnImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+    static final String PROGRESS_TABLE_NAME = "IMPORT_PROGRESS";
+    private static final int CHUNK_SIZE = 500; // Games per parser task
+    private static final int MAX_NAME_LENGTH = 50; // As PLAYERS.name
+    private static final long REPORT_INTERVAL_NANOS = 2_000_000_000L;
+
+    private final Connection connection;
+    private final int parserThreads;
+    private final int batchSize;
+    private final Consumer<String> log;
+    private final Set<String> knownPlayers = new HashSet<>();
+
+    private long gamesRead;
+    private long gamesSkipped; // Already imported by an earlier run
+    private long gamesRejected;
+    private long matchesInserted;
+    private long playersAdded;
+
+    // A run of consecutive games, and what the parsers made of them
+    private static class Chunk {
+        final List<PgnGame> games = new ArrayList<>(CHUNK_SIZE);
+        final List<String> rejections = new ArrayList<>(); // Why each rejected game was, for the log
+        final int[][] moves = new int[CHUNK_SIZE][]; // Packed moves of each valid game, null if rejected
+    }
+
+    private static final Chunk END = new Chunk();
+
+    public PgnImporter(Connection connection, int parserThreads, int batchSize, Consumer<String> log) throws SQLException {
+        this.connection = connection;
+        this.parserThreads = parserThreads;
+        this.batchSize = batchSize;
+        this.log = log;
+        new PlayerData(connection, log); // Creates the PLAYERS, MATCHES and MATCH_MOVES tables if needed
+        createProgressTableIfNotExists();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM " + PlayerData.PLAYERS_TABLE_NAME)) {
+            while (rs.next()) {
+                knownPlayers.add(rs.getString(1));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int batchSize = DEFAULT_BATCH_SIZE;
+        int arg = 0;
+        try {
+            for (; arg < args.length && args[arg].startsWith("-"); arg += 2) {
+                if (args[arg].equals("-threads")) {
+                    threads = Integer.parseInt(args[arg + 1]);
+                } else if (args[arg].equals("-batch")) {
+                    batchSize = Integer.parseInt(args[arg + 1]);
+                } else {
+                    throw new IllegalArgumentException(args[arg]);
+                }
+            }
+        } catch (RuntimeException e) {
+            arg = args.length; // Falls through to the usage message
+        }
+        if (arg == args.length) {
+            System.err.println("Usage: PgnImporter [-threads N] [-batch N] games.pgn...");
+            return;
+        }
+
+        try (Connection connection = DriverManager.getConnection(PlayerData.DB_CONNECTION_URL)) {
+            PgnImporter importer = new PgnImporter(connection, threads, batchSize, System.out::println);
+            for (int i = arg; i < args.length; i++) {
+                importer.importFile(Paths.get(args[i]));
+            }
+            new PlayerData(connection, System.out::println).recalculateAllRankings();
+        }
+        try {
+            DriverManager.getConnection("jdbc:derby:;shutdown=true");
+        } catch (SQLException e) {
+            // Derby always reports a clean shutdown as an exception
+        }
+    }
+
+    private void createProgressTableIfNotExists() throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(null, "APP", PROGRESS_TABLE_NAME, null)) {
+            if (rs.next()) return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE " + PROGRESS_TABLE_NAME + " ("
+                    + "source VARCHAR(1000) NOT NULL PRIMARY KEY, "
+                    + "games_done BIGINT NOT NULL)");
+        }
+    }
+
+    // Imports one file, resuming where an earlier import of it stopped
+    public void importFile(Path pgn) throws IOException, SQLException {
+        String source = pgn.toAbsolutePath().normalize().toString();
+        long alreadyDone = getGamesDone(source);
+        if (alreadyDone > 0) {
+            log.accept("Resuming " + source + " after " + alreadyDone + " games");
+        }
+
+        // In flight: the queued chunks, plus one being filled and one being written
+        BlockingQueue<Future<Chunk>> chunks = new ArrayBlockingQueue<>(parserThreads * 4);
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, runnable -> {
+            Thread thread = new Thread(runnable, "PGN import parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread reader = new Thread(() -> readChunks(pgn, alreadyDone, parsers, chunks), "PGN import reader");
+        reader.setDaemon(true);
+
+        boolean autoCommit = connection.getAutoCommit();
+        long gamesDone = alreadyDone;
+        long start = System.nanoTime(), lastReport = start;
+        long matchesAtStart = matchesInserted;
+        connection.setAutoCommit(false);
+        try (Batch batch = new Batch()) {
+            reader.start();
+            Chunk chunk;
+            while ((chunk = takeChunk(chunks)) != END) {
+                for (String rejection : chunk.rejections) {
+                    if (gamesRejected++ < 20) {
+                        log.accept(rejection);
+                    }
+                }
+                for (int i = 0; i < chunk.games.size(); i++) {
+                    gamesDone++;
+                    if (chunk.moves[i] != null) {
+                        batch.add(chunk.games.get(i), chunk.moves[i]);
+                    }
+                    if (batch.size() >= batchSize) {
+                        batch.commit(source, gamesDone);
+                        long now = System.nanoTime();
+                        if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                            lastReport = now;
+                            log.accept(String.format("%d games, %.0f matches/s", gamesDone,
+                                    (matchesInserted - matchesAtStart) * 1e9 / (now - start)));
+                        }
+                    }
+                }
+            }
+            batch.commit(source, gamesDone);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            reader.interrupt();
+            parsers.shutdownNow();
+            connection.setAutoCommit(autoCommit);
+        }
+        gamesRead += gamesDone - alreadyDone;
+        gamesSkipped += alreadyDone;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.accept(String.format("Imported %s: %d matches in %.1f s (%.0f matches/s), %d games rejected so far",
+                source, matchesInserted - matchesAtStart, seconds, (matchesInserted - matchesAtStart) / seconds, gamesRejected));
+    }
+
+    private long getGamesDone(String source) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT games_done FROM " + PROGRESS_TABLE_NAME + " WHERE source = ?")) {
+            pstmt.setString(1, source);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    // Runs on the reader thread: hands out chunks of games in file order, skipping the games an
+    // earlier run already imported. Ends the queue with END, or with the error that stopped it.
+    private void readChunks(Path pgn, long skip, ExecutorService parsers, BlockingQueue<Future<Chunk>> chunks) {
+        try {
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(pgn, StandardCharsets.ISO_8859_1))) {
+                for (long i = 0; i < skip && reader.next() != null; i++) {
+                    // Skip
+                }
+                Chunk chunk = new Chunk();
+                PgnGame game;
+                while ((game = reader.next()) != null) {
+                    chunk.games.add(game);
+                    if (chunk.games.size() == CHUNK_SIZE) {
+                        Chunk full = chunk;
+                        chunks.put(parsers.submit(() -> validate(full)));
+                        chunk = new Chunk();
+                    }
+                }
+                Chunk last = chunk;
+                chunks.put(parsers.submit(() -> validate(last)));
+            }
+            chunks.put(CompletableFuture.completedFuture(END));
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<Chunk> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                chunks.put(failed);
+            } catch (InterruptedException ex) {
+                // The import has stopped already
+            }
+        } catch (InterruptedException e) {
+            // The import has stopped already
+        }
+    }
+
+    // Runs on a parser thread
+    private static Chunk validate(Chunk chunk) {
+        Board board = new Board();
+        for (int i = 0; i < chunk.games.size(); i++) {
+            PgnGame game = chunk.games.get(i);
+            try {
+                chunk.moves[i] = validate(game, board);
+            } catch (IllegalArgumentException e) {
+                chunk.rejections.add("Rejected " + game.getTag("White") + " - " + game.getTag("Black") + ": " + e.getMessage());
+            }
+            game.getMoves().clear(); // Stored packed, so don't hold on to the SAN
+        }
+        return chunk;
+    }
+
+    // The game's packed moves, or IllegalArgumentException saying why it can't be imported
+    private static int[] validate(PgnGame game, Board board) {
+        if (game.getResultValue() == 0 && !PgnGame.DRAW.equals(game.getResult())) {
+            throw new IllegalArgumentException("no result");
+        }
+        String white = game.getTag("White"), black = game.getTag("Black");
+        if (!isUsableName(white) || !isUsableName(black) || white.equals(black)) {
+            throw new IllegalArgumentException("player names missing or unusable");
+        }
+        String fen = game.getTag("FEN");
+        if (fen != null && fen.length() > PlayerData.MAX_FEN_LENGTH) {
+            throw new IllegalArgumentException("FEN too long");
+        }
+        int[] moves = game.replay(board);
+        if (moves.length > PlayerData.MAX_STORED_PLIES) {
+            throw new IllegalArgumentException("too many moves to store");
+        }
+        return moves;
+    }
+
+    private static boolean isUsableName(String name) {
+        return name != null && !name.isEmpty() && !name.equals("?") && name.length() <= MAX_NAME_LENGTH;
+    }
+
+    private Chunk takeChunk(BlockingQueue<Future<Chunk>> chunks) throws IOException {
+        try {
+            return chunks.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Import failed: " + cause, cause);
+        }
+    }
+
+    // The transaction being built, on the writing thread. Rows are batched and sent at commit.
+    private class Batch implements AutoCloseable {
+
+        private final PreparedStatement insertPlayer = connection.prepareStatement("INSERT INTO "
+                + PlayerData.PLAYERS_TABLE_NAME + " (name, elo) VALUES (?, " + PlayerData.DEFAULT_ELO + ")");
+        private final PreparedStatement insertMatch = connection.prepareStatement("INSERT INTO "
+                + PlayerData.MATCHES_TABLE_NAME + " (white_player_name, black_player_name, winner_name, termination) VALUES (?, ?, ?, ?)");
+        private final PreparedStatement insertMoves = connection.prepareStatement(PlayerData.INSERT_MATCH_MOVES_SQL);
+        private final PreparedStatement newMatchIds = connection.prepareStatement("SELECT match_id FROM "
+                + PlayerData.MATCHES_TABLE_NAME + " WHERE match_id > ? ORDER BY match_id");
+        private final List<String> fens = new ArrayList<>();
+        private final List<int[]> moves = new ArrayList<>();
+        private final Set<String> newPlayers = new HashSet<>(); // Only known once committed
+        private int lastMatchId;
+
+        Batch() throws SQLException {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(match_id) FROM " + PlayerData.MATCHES_TABLE_NAME)) {
+                rs.next();
+                lastMatchId = rs.getInt(1); // 0 when there are none
+            }
+        }
+
+        int size() {
+            return moves.size();
+        }
+
+        void add(PgnGame game, int[] gameMoves) throws SQLException {
+            String white = game.getTag("White"), black = game.getTag("Black");
+            for (String name : new String[] {white, black}) {
+                if (!knownPlayers.contains(name) && newPlayers.add(name)) {
+                    insertPlayer.setString(1, name);
+                    insertPlayer.addBatch();
+                }
+            }
+            insertMatch.setString(1, white);
+            insertMatch.setString(2, black);
+            int result = game.getResultValue();
+            if (result != 0) {
+                insertMatch.setString(3, (result == 1) ? white : black);
+            } else {
+                insertMatch.setNull(3, Types.VARCHAR);
+            }
+            String termination = game.getTag("Termination");
+            if (termination != null && termination.length() <= PlayerData.MAX_TERMINATION_LENGTH) {
+                insertMatch.setString(4, termination);
+            } else {
+                insertMatch.setNull(4, Types.VARCHAR); // Not given, or not a standard value
+            }
+            insertMatch.addBatch();
+            fens.add(game.getTag("FEN"));
+            moves.add(gameMoves);
+        }
+
+        // Players first, since the matches refer to them, then the matches' moves; the progress
+        // row goes in the same transaction
+        void commit(String source, long gamesDone) throws SQLException {
+            insertPlayer.executeBatch();
+            insertMatch.executeBatch();
+
+            // Batches don't return generated keys. The importer being the only writer, the new
+            // matches are the ones after the last id seen, in the order they were added.
+            newMatchIds.setInt(1, lastMatchId);
+            int added = 0;
+            try (ResultSet rs = newMatchIds.executeQuery()) {
+                while (rs.next()) {
+                    if (added == moves.size()) {
+                        throw new SQLException("Matches were added by someone else during the import");
+                    }
+                    lastMatchId = rs.getInt(1);
+                    insertMoves.setInt(1, lastMatchId);
+                    insertMoves.setString(2, fens.get(added));
+                    insertMoves.setBytes(3, Move.toBytes(moves.get(added)));
+                    insertMoves.addBatch();
+                    added++;
+                }
+            }
+            if (added != moves.size()) {
+                throw new SQLException("Only " + added + " of " + moves.size() + " new matches were found");
+            }
+            insertMoves.executeBatch();
+
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE " + PROGRESS_TABLE_NAME + " SET games_done = ? WHERE source = ?")) {
+                update.setLong(1, gamesDone);
+                update.setString(2, source);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO " + PROGRESS_TABLE_NAME + " (source, games_done) VALUES (?, ?)")) {
+                        insert.setString(1, source);
+                        insert.setLong(2, gamesDone);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            connection.commit();
+            matchesInserted += added;
+            playersAdded += newPlayers.size();
+            knownPlayers.addAll(newPlayers);
+            newPlayers.clear();
+            fens.clear();
+            moves.clear();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            insertPlayer.close();
+            insertMatch.close();
+            insertMoves.close();
+            newMatchIds.close();
+        }
+    }
+
+    // Games read this session (not counting skipped ones), whether imported or rejected
+    public long getGamesRead() {
+        return gamesRead;
+    }
+
+    // Games passed over because an earlier import of the same file had already done them
+    public long getGamesSkipped() {
+        return gamesSkipped;
+    }
+
+    public long getGamesRejected() {
+        return gamesRejected;
+    }
+
+    public long getMatchesInserted() {
+        return matchesInserted;
+    }
+
+    public long getPlayersAdded() {
+        return playersAdded;
+    }
+}
@@ -0,0 +1,322 @@
+package ChessGui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Reads games one at a time from PGN text of any length: only the current game is held in
+// memory. Tag pairs and main-line SAN moves are kept; comments ({...} and ;...), variations
+// ((...), nested), numeric annotation glyphs ($n), move numbers and %-escaped lines are skipped.
+// Moves are not checked against a board here; PgnGame.replay does that.
+public class PgnReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean lineStart = true; // The next character begins a line
+    private final StringBuilder token = new StringBuilder(32);
+    private long gamesRead;
+
+    public PgnReader(Reader in)
+    {
+        this.in = in;
+    }
+
+    // Reads PGN files as fast as it can and reports the rate; with -replay every game is also
+    // played out on a board, checking each move is legal.
+    // Usage: PgnReader [-replay] games.pgn...
+    public static void main(String[] args) throws IOException
+    {
+        boolean replay = args.length > 0 && args[0].equals("-replay");
+        int first = replay ? 1 : 0;
+        if (args.length == first)
+        {
+            System.err.println("Usage: PgnReader [-replay] games.pgn...");
+            return;
+        }
+
+        Board board = new Board();
+        long games = 0, moves = 0, errors = 0;
+        long start = System.nanoTime();
+        for (int i = first; i < args.length; i++)
+        {
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.ISO_8859_1)))
+            {
+                PgnGame game;
+                while ((game = reader.next()) != null)
+                {
+                    games++;
+                    moves += game.getMoves().size();
+                    if (replay)
+                    {
+                        try
+                        {
+                            game.replay(board);
+                        }
+                        catch (IllegalArgumentException e)
+                        {
+                            if (errors++ < 10)
+                            {
+                                System.err.println("Game " + games + ": " + e.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println(String.format("%d games, %d moves, %d errors in %.2f s: %.0f games/s, %.0f moves/s, %d MB heap in use",
+                games, moves, errors, seconds, games / seconds, moves / seconds,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20));
+    }
+
+    // The next game, or null at the end of the input
+    public PgnGame next() throws IOException
+    {
+        PgnGame game = null;
+        boolean inMoves = false;
+        int c;
+        while ((c = peek()) != -1)
+        {
+            if (c == '%' && lineStart)
+            {
+                skipLine(); // Escape mechanism: the whole line is for other programs
+                continue;
+            }
+            if (Character.isWhitespace(c))
+            {
+                read();
+                continue;
+            }
+            if (c == '[')
+            {
+                if (inMoves)
+                {
+                    break; // Next game's tags, without a result marker before them
+                }
+                if (game == null)
+                {
+                    game = new PgnGame();
+                }
+                readTag(game);
+                continue;
+            }
+            if (game == null)
+            {
+                game = new PgnGame();
+            }
+            inMoves = true;
+            read();
+            switch (c)
+            {
+                case '{':
+                    skipUntil('}');
+                    break;
+                case ';':
+                    skipLine();
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case '$':
+                    while (peek() >= '0' && peek() <= '9')
+                    {
+                        read();
+                    }
+                    break;
+                case ')':
+                case '}':
+                    break; // Unbalanced; ignore
+                default:
+                    readToken(c);
+                    if (PgnGame.isResult(token))
+                    {
+                        game.setResult(token.toString());
+                        gamesRead++;
+                        return game;
+                    }
+                    addMove(game);
+                    break;
+            }
+        }
+        if (game != null)
+        {
+            gamesRead++;
+        }
+        return game;
+    }
+
+    public long getGamesRead()
+    {
+        return gamesRead;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    // [Name "Value"], with \" and \\ escapes in the value
+    private void readTag(PgnGame game) throws IOException
+    {
+        read(); // '['
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c))
+        {
+            read();
+        }
+        while ((c = peek()) != -1 && !Character.isWhitespace(c) && c != '"' && c != ']')
+        {
+            token.append((char) read());
+        }
+        String name = token.toString();
+        token.setLength(0);
+        while ((c = read()) != -1 && c != '"' && c != ']')
+        {
+            // Skip to the opening quote
+        }
+        if (c == '"')
+        {
+            while ((c = read()) != -1 && c != '"')
+            {
+                if (c == '\\')
+                {
+                    c = read();
+                    if (c == -1)
+                    {
+                        break;
+                    }
+                }
+                token.append((char) c);
+            }
+            while (c != -1 && c != ']')
+            {
+                c = read();
+            }
+        }
+        game.setTag(name, token.toString());
+    }
+
+    // A move, move number or result, up to whitespace or the next comment/variation
+    private void readToken(int first) throws IOException
+    {
+        token.setLength(0);
+        token.append((char) first);
+        int c;
+        while ((c = peek()) != -1 && !Character.isWhitespace(c) && "{}()[];$".indexOf(c) < 0)
+        {
+            token.append((char) read());
+        }
+    }
+
+    // Strips a move number ("12." or "12...", possibly run into the move as in "12.e4") and
+    // adds whatever SAN remains
+    private void addMove(PgnGame game)
+    {
+        int start = 0;
+        while (start < token.length() && Character.isDigit(token.charAt(start)))
+        {
+            start++;
+        }
+        if (start > 0 && start < token.length() && token.charAt(start) != '.')
+        {
+            start = 0; // Not a move number after all, e.g. castling written with zeros
+        }
+        while (start < token.length() && token.charAt(start) == '.')
+        {
+            start++;
+        }
+        if (start < token.length())
+        {
+            game.addMove(token.substring(start));
+        }
+    }
+
+    private void skipVariation() throws IOException
+    {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) != -1)
+        {
+            if (c == '(')
+            {
+                depth++;
+            }
+            else if (c == ')')
+            {
+                depth--;
+            }
+            else if (c == '{')
+            {
+                skipUntil('}');
+            }
+            else if (c == ';')
+            {
+                skipLine();
+            }
+        }
+    }
+
+    private void skipUntil(char end) throws IOException
+    {
+        int c;
+        while ((c = read()) != -1 && c != end)
+        {
+            // Skip
+        }
+    }
+
+    private void skipLine() throws IOException
+    {
+        int c;
+        while ((c = read()) != -1 && c != '\n')
+        {
+            // Skip
+        }
+    }
+
+    private int peek() throws IOException
+    {
+        if (position == limit && !fill())
+        {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException
+    {
+        if (position == limit && !fill())
+        {
+            return -1;
+        }
+        char c = buffer[position++];
+        lineStart = (c == '\n');
+        return c;
+    }
+
+    private boolean fill() throws IOException
+    {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0)
+        {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
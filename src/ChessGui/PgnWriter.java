@@ -0,0 +1,152 @@
+package ChessGui;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Writes games in PGN export format, one after another, so a file of any length can be written
+// a game at a time. The seven standard tags come first ("?" for any that are missing), then the
+// game's other tags in order, then the numbered movetext wrapped to 79 characters and the result.
+// PgnReader reads the output back.
+public class PgnWriter implements Closeable, Flushable
+{
+    static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 1);
+    private final StringBuilder word = new StringBuilder(16);
+    private long gamesWritten;
+
+    public PgnWriter(Writer out)
+    {
+        this.out = out;
+    }
+
+    public void write(PgnGame game) throws IOException
+    {
+        for (String name : SEVEN_TAG_ROSTER)
+        {
+            String value = name.equals("Result") ? game.getResult() : game.getTag(name);
+            writeTag(name, (value != null) ? value : "?");
+        }
+        for (Map.Entry<String, String> tag : game.getTags().entrySet())
+        {
+            if (!isRosterTag(tag.getKey()))
+            {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        // Numbering carries on from a set-up position's move number and side to move
+        int moveNumber = 1;
+        boolean whiteToMove = true;
+        String fen = game.getTag("FEN");
+        if (fen != null)
+        {
+            try
+            {
+                Board start = Board.fromFen(fen);
+                moveNumber = start.getFullmoveNumber();
+                whiteToMove = (start.getSideToMove() == PieceColor.WHITE);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Written as it is; the numbering just starts from 1
+            }
+        }
+        line.setLength(0);
+        boolean first = true;
+        for (String san : game.getMoves())
+        {
+            if (whiteToMove || first)
+            {
+                word.setLength(0);
+                word.append(moveNumber).append(whiteToMove ? "." : "...");
+                appendWord(word);
+            }
+            appendWord(san);
+            if (!whiteToMove)
+            {
+                moveNumber++;
+            }
+            whiteToMove = !whiteToMove;
+            first = false;
+        }
+        appendWord(game.getResult());
+        out.append(line).write("\n\n");
+        gamesWritten++;
+    }
+
+    public long getGamesWritten()
+    {
+        return gamesWritten;
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        out.close();
+    }
+
+    private static boolean isRosterTag(String name)
+    {
+        for (String rosterTag : SEVEN_TAG_ROSTER)
+        {
+            if (rosterTag.equals(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // [Name "Value"], escaping backslashes and quotes in the value
+    private void writeTag(String name, String value) throws IOException
+    {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"')
+            {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    // Adds a word to the current movetext line, starting a new line first if it wouldn't fit
+    private void appendWord(CharSequence text) throws IOException
+    {
+        if (line.length() > 0)
+        {
+            if (line.length() + 1 + text.length() > LINE_LENGTH)
+            {
+                out.append(line).write('\n');
+                line.setLength(0);
+            }
+            else
+            {
+                line.append(' ');
+            }
+        }
+        line.append(text);
+    }
+}
@@ -8,35 +8,68 @@ package ChessGui;
 public abstract class Piece 
 {
 
-    // Declaring a private String variable named 'name' to store the name of the piece.
+    // Declaring a private variable named 'type' to store the kind of piece.
     // 'private' access modifier ensures that this variable can only be accessed within this class.
-    private String name;
+    private final PieceType type;
 
-    // Declaring a private String variable named 'color' to store the color of the piece (e.g., "white" or "black").
-    private String color;
+    // Declaring a private variable named 'color' to store the color of the piece (PieceColor.WHITE or BLACK).
+    private final PieceColor color;
 
-    // Constructor for the 'Piece' class. It takes the name and color of the piece as arguments.
-    public Piece(String name, String color) 
+    // Constructor for the 'Piece' class. It takes the type and color of the piece as arguments.
+    public Piece(PieceType type, PieceColor color) 
     {
-        this.name = name;
+        this.type = type;
         this.color = color;
     }
 
+    // Pieces hold no state beyond type and colour (castling rights live on the Board), so one
+    // shared instance per type and colour serves every board and thread.
+    public static Piece of(PieceType type, PieceColor color) 
+    {
+        return Flyweights.PIECES[color.index() * Bitboard.PIECE_TYPES + type.index()];
+    }
+
+    // Built on first use rather than in Piece's own static initialiser, which would run
+    // before the subclasses can be constructed
+    private static class Flyweights 
+    {
+        static final Piece[] PIECES = new Piece[2 * Bitboard.PIECE_TYPES];
+
+        static 
+        {
+            for (PieceColor color : PieceColor.values()) 
+            {
+                int base = color.index() * Bitboard.PIECE_TYPES;
+                PIECES[base + Bitboard.PAWN] = new Pawn(color);
+                PIECES[base + Bitboard.KNIGHT] = new Knight(color);
+                PIECES[base + Bitboard.BISHOP] = new Bishop(color);
+                PIECES[base + Bitboard.ROOK] = new Rook(color);
+                PIECES[base + Bitboard.QUEEN] = new Queen(color);
+                PIECES[base + Bitboard.KING] = new King(color);
+            }
+        }
+    }
+
     // It allows other classes to access the name of the piece without directly modifying it
     // encapsulation
     public String getName() 
     {
-        return name;
+        return type.getName();
     }
     
     public String getNameInitial() 
     {
-        return (name.equals("Knight")) ? "N" : name.substring(0, 1).toUpperCase();
+        return type.getInitial();
+    }
+
+    public PieceType getType() 
+    {
+        return type;
     }
 
     // It allows other classes to access the color of the piece without directly modifying it
     // encapsulation
-    public String getColor() 
+    public PieceColor getColor() 
     {
         return color;
     }
@@ -56,6 +89,6 @@ public abstract class Piece
     public String toString() 
     {
         // Returns a string representation of the piece, including its color and name.
-        return color + " " + name;
+        return color + " " + type.getName();
     }
 }
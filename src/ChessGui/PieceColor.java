@@ -0,0 +1,43 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Side a piece belongs to. Colour checks are reference compares instead of String.equals,
+// and index() lines up with Bitboard.WHITE/BLACK for table lookups.
+public enum PieceColor
+{
+    WHITE("white"),
+    BLACK("black");
+
+    private final String name;
+
+    PieceColor(String name)
+    {
+        this.name = name;
+    }
+
+    // Bitboard.WHITE or Bitboard.BLACK
+    public int index()
+    {
+        return ordinal();
+    }
+
+    public PieceColor opposite()
+    {
+        return (this == WHITE) ? BLACK : WHITE;
+    }
+
+    public static PieceColor fromIndex(int index)
+    {
+        return (index == Bitboard.WHITE) ? WHITE : BLACK;
+    }
+
+    // Lower-case name, as used in log messages and image file names
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,49 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Kind of piece, declared in Bitboard type order so index() can be used directly as a
+// Bitboard piece type (PAWN = 0 ... KING = 5).
+public enum PieceType
+{
+    PAWN("Pawn", "P"),
+    KNIGHT("Knight", "N"),
+    BISHOP("Bishop", "B"),
+    ROOK("Rook", "R"),
+    QUEEN("Queen", "Q"),
+    KING("King", "K");
+
+    private static final PieceType[] VALUES = values();
+
+    private final String name;
+    private final String initial;
+
+    PieceType(String name, String initial)
+    {
+        this.name = name;
+        this.initial = initial;
+    }
+
+    // Bitboard piece type constant
+    public int index()
+    {
+        return ordinal();
+    }
+
+    public static PieceType fromIndex(int index)
+    {
+        return VALUES[index];
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getInitial()
+    {
+        return initial;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  *
@@ -17,12 +18,24 @@ import java.util.Map;
  */
 public class PlayerData {
     public static final int K = 32; // Elo K-factor for rating calculations
-    private static final double DEFAULT_ELO = 1000.0;
-    private static final String DB_CONNECTION_URL = "jdbc:derby:ChessPlayerDB;create=true";
-    private static final String PLAYERS_TABLE_NAME = "PLAYERS";
-    private static final String MATCHES_TABLE_NAME = "MATCHES";
-    private final ChessGame game;
+    static final double DEFAULT_ELO = 1000.0;
+    static final String DB_CONNECTION_URL = "jdbc:derby:ChessPlayerDB;create=true";
+    static final String PLAYERS_TABLE_NAME = "PLAYERS";
+    static final String MATCHES_TABLE_NAME = "MATCHES";
+    static final String MATCH_MOVES_TABLE_NAME = "MATCH_MOVES";
+    static final int MAX_STORED_PLIES = 32672 / 2; // Two bytes a move in Derby's longest VARCHAR FOR BIT DATA
+    static final int MAX_FEN_LENGTH = 100;
+    static final int MAX_TERMINATION_LENGTH = 20;
+    static final String CHECKPOINTS_TABLE_NAME = "RATING_CHECKPOINTS";
+    static final String SNAPSHOTS_TABLE_NAME = "RATING_SNAPSHOTS";
+    static final int DEFAULT_CHECKPOINT_INTERVAL = 50_000; // Matches between rating checkpoints
+    private static final int CHECKPOINTS_KEPT = 4;
+    static final String INSERT_MATCH_MOVES_SQL = "INSERT INTO " + MATCH_MOVES_TABLE_NAME
+            + " (match_id, start_fen, moves) VALUES (?, ?, ?)";
+    private final Consumer<String> log;
     private Connection dbConnection;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private long lastMatchesReplayed; // By the last recalculation
 
     // Data transfer objects for cleaner code
     private static class PlayerStats {
@@ -41,25 +54,27 @@ public class PlayerData {
         }
     }
     
-    private static class MatchRecord {
-        final String whitePlayer;
-        final String blackPlayer;
-        final String winner; // Can be null for a tie
-
-        MatchRecord(String white, String black, String winner) {
-            this.whitePlayer = white;
-            this.blackPlayer = black;
-            this.winner = winner;
-        }
-    }
 
 
+    // Receives the stored games from replayAllMatches
+    public interface GameVisitor {
+        // board is at the end of the game; moves are the packed moves that led there
+        void visit(int matchId, Board board, int[] moves);
+    }
+
     public PlayerData(ChessGame game) {
-        this.game = game;
+        this.log = game::log;
         initializeDatabase();
         registerShutdownHook();
     }
 
+    // Works on a database that is already open, e.g. for PgnImporter or an in-memory test database
+    PlayerData(Connection connection, Consumer<String> log) {
+        this.log = log;
+        this.dbConnection = connection;
+        createTablesIfNotExists();
+    }
+
     private void initializeDatabase() {
         try {
             dbConnection = DriverManager.getConnection(DB_CONNECTION_URL);
@@ -81,7 +96,7 @@ public class PlayerData {
                         + "ties INT DEFAULT 0, "
                         + "elo DOUBLE DEFAULT " + DEFAULT_ELO + ")";
                 stmt.execute(createPlayersSQL);
-                game.log("Created PLAYERS table in the database.");
+                log.accept("Created PLAYERS table in the database.");
             }
 
             // Check for MATCHES table
@@ -91,12 +106,50 @@ public class PlayerData {
                         + "white_player_name VARCHAR(50) NOT NULL, "
                         + "black_player_name VARCHAR(50) NOT NULL, "
                         + "winner_name VARCHAR(50), " // Can be NULL
+                        + "termination VARCHAR(" + MAX_TERMINATION_LENGTH + "), " // As PGN's Termination tag; NULL if not known
                         + "PRIMARY KEY (match_id), "
                         + "FOREIGN KEY (white_player_name) REFERENCES " + PLAYERS_TABLE_NAME + "(name), "
                         + "FOREIGN KEY (black_player_name) REFERENCES " + PLAYERS_TABLE_NAME + "(name)"
                         + ")";
                 stmt.execute(createMatchesSQL);
-                game.log("Created MATCHES table in the database.");
+                log.accept("Created MATCHES table in the database.");
+            } else if (!columnExists(MATCHES_TABLE_NAME, "termination")) {
+                stmt.execute("ALTER TABLE " + MATCHES_TABLE_NAME + " ADD COLUMN termination VARCHAR(" + MAX_TERMINATION_LENGTH + ")");
+                log.accept("Added the termination column to the MATCHES table.");
+            }
+
+            // Check for MATCH_MOVES table: each match's moves, kept apart so MATCHES stays quick to scan
+            if (!tableExists(MATCH_MOVES_TABLE_NAME)) {
+                String createMovesSQL = "CREATE TABLE " + MATCH_MOVES_TABLE_NAME + " ("
+                        + "match_id INT NOT NULL PRIMARY KEY, "
+                        + "start_fen VARCHAR(" + MAX_FEN_LENGTH + "), " // NULL for the standard starting position
+                        + "moves VARCHAR(32672) FOR BIT DATA NOT NULL, " // Move.toBytes
+                        + "FOREIGN KEY (match_id) REFERENCES " + MATCHES_TABLE_NAME + "(match_id)"
+                        + ")";
+                stmt.execute(createMovesSQL);
+                log.accept("Created MATCH_MOVES table in the database.");
+            }
+
+            // Check for the rating checkpoint tables: every player's stats as of a given match,
+            // so recalculating only replays the matches after it
+            if (!tableExists(CHECKPOINTS_TABLE_NAME)) {
+                String createCheckpointsSQL = "CREATE TABLE " + CHECKPOINTS_TABLE_NAME + " ("
+                        + "match_id INT NOT NULL PRIMARY KEY, " // Stats include this match and all before it
+                        + "match_count INT NOT NULL" // How many matches that was, to notice any later deleted
+                        + ")";
+                stmt.execute(createCheckpointsSQL);
+                String createSnapshotsSQL = "CREATE TABLE " + SNAPSHOTS_TABLE_NAME + " ("
+                        + "match_id INT NOT NULL, "
+                        + "name VARCHAR(50) NOT NULL, "
+                        + "wins INT NOT NULL, "
+                        + "losses INT NOT NULL, "
+                        + "ties INT NOT NULL, "
+                        + "elo DOUBLE NOT NULL, "
+                        + "PRIMARY KEY (match_id, name), "
+                        + "FOREIGN KEY (match_id) REFERENCES " + CHECKPOINTS_TABLE_NAME + "(match_id)"
+                        + ")";
+                stmt.execute(createSnapshotsSQL);
+                log.accept("Created rating checkpoint tables in the database.");
             }
         } catch (SQLException e) {
             handleSQLException(e, "Error during table creation/check.");
@@ -107,6 +160,11 @@ public class PlayerData {
         ResultSet rs = dbConnection.getMetaData().getTables(null, "APP", tableName.toUpperCase(), null);
         return rs.next();
     }
+
+    private boolean columnExists(String tableName, String columnName) throws SQLException {
+        ResultSet rs = dbConnection.getMetaData().getColumns(null, "APP", tableName.toUpperCase(), columnName.toUpperCase());
+        return rs.next();
+    }
     
     // Searches for a player in the database, adds them if they don't exist (new player)
     public void checkOrAddPlayer(String playerName) {
@@ -116,7 +174,7 @@ public class PlayerData {
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 double elo = rs.getDouble("elo");
-                game.log("Player '" + playerName + "' found. Elo: " + String.format("%.1f", elo));
+                log.accept("Player '" + playerName + "' found. Elo: " + String.format("%.1f", elo));
             } else {
                 addNewPlayer(playerName);
             }
@@ -131,19 +189,32 @@ public class PlayerData {
             pstmt.setString(1, playerName);
             pstmt.setDouble(2, DEFAULT_ELO);
             pstmt.executeUpdate();
-            game.log("New player '" + playerName + "' added.");
+            log.accept("New player '" + playerName + "' added.");
         } catch (SQLException e) {
             handleSQLException(e, "Error adding new player '" + playerName + "'.");
         }
     }
 
     public void updateGameResults(String whitePlayerName, String blackPlayerName, int gameResult) {
+        updateGameResults(whitePlayerName, blackPlayerName, gameResult, null);
+    }
+
+    // As above, also storing the game's packed moves from the standard starting position
+    // (null for none), in the same transaction
+    public void updateGameResults(String whitePlayerName, String blackPlayerName, int gameResult, int[] moves) {
+        updateGameResults(whitePlayerName, blackPlayerName, gameResult, moves, null);
+    }
+
+    // As above, also recording how the game ended: a PGN Termination value such as
+    // PgnGame.TIME_FORFEIT, or null if not known
+    public void updateGameResults(String whitePlayerName, String blackPlayerName, int gameResult, int[] moves,
+                                  String termination) {
         try {
             PlayerStats whitePlayer = getPlayerStatsFromDB(whitePlayerName);
             PlayerStats blackPlayer = getPlayerStatsFromDB(blackPlayerName);
 
             if (whitePlayer == null || blackPlayer == null) {
-                game.log("Error: Could not retrieve player data to update scores.");
+                log.accept("Error: Could not retrieve player data to update scores.");
                 return;
             }
 
@@ -169,11 +240,14 @@ public class PlayerData {
             dbConnection.setAutoCommit(false); // Start transaction
             updatePlayerStatsInDB(whitePlayer);
             updatePlayerStatsInDB(blackPlayer);
-            recordMatchInDB(whitePlayerName, blackPlayerName, winnerName);
+            int matchId = recordMatchInDB(whitePlayerName, blackPlayerName, winnerName, termination);
+            if (moves != null && moves.length <= MAX_STORED_PLIES) {
+                recordMatchMovesInDB(matchId, null, moves);
+            }
             dbConnection.commit(); // Commit transaction
 
             // Logging
-            game.log("\n--- Elo & Record Updates ---");
+            log.accept("\n--- Elo & Record Updates ---");
             logPlayerUpdate(whitePlayer, oldWhiteElo);
             logPlayerUpdate(blackPlayer, oldBlackElo);
 
@@ -185,9 +259,10 @@ public class PlayerData {
         }
     }
     
-    private void recordMatchInDB(String whiteName, String blackName, String winnerName) throws SQLException {
-        String sql = "INSERT INTO " + MATCHES_TABLE_NAME + " (white_player_name, black_player_name, winner_name) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+    // Returns the new match's id
+    private int recordMatchInDB(String whiteName, String blackName, String winnerName, String termination) throws SQLException {
+        String sql = "INSERT INTO " + MATCHES_TABLE_NAME + " (white_player_name, black_player_name, winner_name, termination) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, whiteName);
             pstmt.setString(2, blackName);
             if (winnerName != null) {
@@ -195,13 +270,106 @@ public class PlayerData {
             } else {
                 pstmt.setNull(3, java.sql.Types.VARCHAR);
             }
+            if (termination != null) {
+                pstmt.setString(4, termination);
+            } else {
+                pstmt.setNull(4, java.sql.Types.VARCHAR);
+            }
             pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private void recordMatchMovesInDB(int matchId, String startFen, int[] moves) throws SQLException {
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(INSERT_MATCH_MOVES_SQL)) {
+            pstmt.setInt(1, matchId);
+            pstmt.setString(2, startFen);
+            pstmt.setBytes(3, Move.toBytes(moves));
+            pstmt.executeUpdate();
+        }
+    }
+
+    // The packed moves stored for a match, or null if it has none
+    public int[] getMatchMoves(int matchId) {
+        String sql = "SELECT moves FROM " + MATCH_MOVES_TABLE_NAME + " WHERE match_id = ?";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+            pstmt.setInt(1, matchId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Move.fromBytes(rs.getBytes(1)) : null;
+            }
+        } catch (SQLException e) {
+            handleSQLException(e, "Could not fetch the moves of match " + matchId + ".");
+            return null;
+        }
+    }
+
+    // Sets board to the match's starting position and plays its stored moves. Returns the moves,
+    // or null if none are stored (the board is then left as it was).
+    public int[] replayMatch(int matchId, Board board) {
+        String sql = "SELECT start_fen, moves FROM " + MATCH_MOVES_TABLE_NAME + " WHERE match_id = ?";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+            pstmt.setInt(1, matchId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                int[] moves = Move.fromBytes(rs.getBytes(2));
+                playStoredMoves(board, rs.getString(1), moves);
+                return moves;
+            }
+        } catch (SQLException e) {
+            handleSQLException(e, "Could not replay match " + matchId + ".");
+            return null;
+        }
+    }
+
+    // Replays every stored game in match order, reading one row at a time so any number of games
+    // can be gone through. Games whose moves don't fit their position are logged and left out.
+    // Returns the number of games visited.
+    public long replayAllMatches(GameVisitor visitor) {
+        String sql = "SELECT match_id, start_fen, moves FROM " + MATCH_MOVES_TABLE_NAME + " ORDER BY match_id";
+        Board board = new Board();
+        long visited = 0;
+        try (Statement stmt = dbConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = stmt.executeQuery(sql)) {
+            stmt.setFetchSize(1000);
+            while (rs.next()) {
+                int matchId = rs.getInt(1);
+                int[] moves = Move.fromBytes(rs.getBytes(3));
+                try {
+                    playStoredMoves(board, rs.getString(2), moves);
+                } catch (IllegalArgumentException e) {
+                    log.accept("Match " + matchId + " not replayed: " + e.getMessage());
+                    continue;
+                }
+                visitor.visit(matchId, board, moves);
+                visited++;
+            }
+        } catch (SQLException e) {
+            handleSQLException(e, "Could not replay the stored matches.");
+        }
+        return visited;
+    }
+
+    // Stored moves were legal when played, so they are made without generating moves; only a
+    // cheap check that each one moves a piece of the side to move guards against a bad row
+    private static void playStoredMoves(Board board, String startFen, int[] moves) {
+        board.setFromFen((startFen != null) ? startFen : Board.STARTING_FEN);
+        for (int ply = 0; ply < moves.length; ply++) {
+            Piece piece = board.getPiece(Move.fromRow(moves[ply]), Move.fromCol(moves[ply]));
+            if (piece == null || piece.getColor() != board.getSideToMove()) {
+                throw new IllegalArgumentException("Move " + (ply + 1) + " (" + Move.toString(moves[ply]) + ") has no piece to move");
+            }
+            board.makeMove(moves[ply]);
         }
     }
     
     public String getMatchHistory() {
         StringBuilder history = new StringBuilder();
-        String sql = "SELECT match_id, white_player_name, black_player_name, winner_name "
+        String sql = "SELECT match_id, white_player_name, black_player_name, winner_name, termination "
                    + "FROM " + MATCHES_TABLE_NAME + " ORDER BY match_id DESC FETCH FIRST 10 ROWS ONLY";
 
         try (Statement stmt = dbConnection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
@@ -216,6 +384,10 @@ public class PlayerData {
                 } else {
                     result = winner + " won";
                 }
+                String termination = rs.getString("termination");
+                if (termination != null && !termination.equals(PgnGame.NORMAL_TERMINATION)) {
+                    result += " (" + termination + ")";
+                }
                 history.append(String.format("ID %d: %s (W) vs %s (B) - %s%n", rs.getInt("match_id"), white, black, result));
                 count++;
             }
@@ -229,63 +401,60 @@ public class PlayerData {
         return history.toString();
     }
     
+    // Works every player's stats out again from the match history. Starts from the latest rating
+    // checkpoint that still matches the history, so only the matches after it are replayed, and
+    // reads them through a cursor rather than all at once. Checkpoints are written along the way
+    // and at the end, each in a short transaction of its own.
     public void recalculateAllRankings() {
-        game.log("Starting full ranking recalculation...");
+        log.accept("Starting ranking recalculation...");
         Map<String, PlayerStats> currentStatsMap = new HashMap<>();
+        lastMatchesReplayed = 0;
 
         try {
-            dbConnection.setAutoCommit(false); // Start Transaction
-            
-            // 1. Reset all player stats in DB to default
-            try (Statement stmt = dbConnection.createStatement()) {
-                stmt.executeUpdate("UPDATE " + PLAYERS_TABLE_NAME 
-                    + " SET wins = 0, losses = 0, ties = 0, elo = " + DEFAULT_ELO);
-            }
-            
-            // 2. Load the reset players into an in-memory map
-            try (Statement stmt = dbConnection.createStatement(); 
-                 ResultSet rs = stmt.executeQuery("SELECT name, elo FROM " + PLAYERS_TABLE_NAME)) {
-                while(rs.next()) {
+            dbConnection.setAutoCommit(false);
+
+            // 1. Every player at the default, then the stats of those who had played by the checkpoint
+            try (Statement stmt = dbConnection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name FROM " + PLAYERS_TABLE_NAME)) {
+                while (rs.next()) {
                     String name = rs.getString("name");
                     currentStatsMap.put(name, new PlayerStats(name, 0, 0, 0, DEFAULT_ELO));
                 }
             }
-            
-            // 3. Get all matches in chronological order
-            List<MatchRecord> allMatches = new ArrayList<>();
-            try (Statement stmt = dbConnection.createStatement();
-                 ResultSet rs = stmt.executeQuery("SELECT white_player_name, black_player_name, winner_name FROM " 
-                                                    + MATCHES_TABLE_NAME + " ORDER BY match_id ASC")) {
-                while(rs.next()) {
-                    allMatches.add(new MatchRecord(
-                        rs.getString("white_player_name"),
-                        rs.getString("black_player_name"),
-                        rs.getString("winner_name")
-                    ));
-                }
+            int[] checkpoint = findValidCheckpoint(); // {match_id, match_count}
+            if (checkpoint[0] > 0) {
+                loadSnapshot(checkpoint[0], currentStatsMap);
             }
-
-            // 4. Re-simulate each game's outcome
-            for (MatchRecord match : allMatches) {
-                PlayerStats white = currentStatsMap.get(match.whitePlayer);
-                PlayerStats black = currentStatsMap.get(match.blackPlayer);
-
-                double expectedWhite = 1.0 / (1.0 + Math.pow(10.0, (black.elo - white.elo) / 400.0));
-                double actualWhiteScore;
-
-                if (match.winner == null) { // Draw
-                    white.ties++; black.ties++; actualWhiteScore = 0.5;
-                } else if (match.winner.equals(white.name)) { // White won
-                    white.wins++; black.losses++; actualWhiteScore = 1.0;
-                } else { // Black won
-                    white.losses++; black.wins++; actualWhiteScore = 0.0;
+            dbConnection.commit();
+
+            // 2. Replay the matches after it in order, one row at a time. The cursor stays open
+            // across the checkpoint commits.
+            int lastMatchId = checkpoint[0];
+            int matchCount = checkpoint[1];
+            int sinceCheckpoint = 0;
+            String sql = "SELECT match_id, white_player_name, black_player_name, winner_name FROM "
+                    + MATCHES_TABLE_NAME + " WHERE match_id > ? ORDER BY match_id ASC";
+            try (PreparedStatement pstmt = dbConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT)) {
+                pstmt.setInt(1, lastMatchId);
+                pstmt.setFetchSize(1000);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        PlayerStats white = currentStatsMap.get(rs.getString(2));
+                        PlayerStats black = currentStatsMap.get(rs.getString(3));
+                        applyResult(white, black, rs.getString(4));
+                        lastMatchId = rs.getInt(1);
+                        matchCount++;
+                        lastMatchesReplayed++;
+                        if (++sinceCheckpoint == checkpointInterval) {
+                            writeCheckpoint(lastMatchId, matchCount, currentStatsMap);
+                            sinceCheckpoint = 0;
+                        }
+                    }
                 }
-                
-                white.elo += K * (actualWhiteScore - expectedWhite);
-                black.elo += K * ((1.0 - actualWhiteScore) - (1.0 - expectedWhite));
             }
 
-            // 5. Write the final calculated stats back to the database in a batch update
+            // 3. Write the final stats back in one batch, along with a checkpoint for next time
             String updateSQL = "UPDATE " + PLAYERS_TABLE_NAME + " SET wins = ?, losses = ?, ties = ?, elo = ? WHERE name = ?";
             try (PreparedStatement pstmt = dbConnection.prepareStatement(updateSQL)) {
                 for (PlayerStats player : currentStatsMap.values()) {
@@ -298,9 +467,14 @@ public class PlayerData {
                 }
                 pstmt.executeBatch();
             }
-
-            dbConnection.commit(); // Commit transaction
-            game.log("Recalculation complete. All player stats have been updated.");
+            if (sinceCheckpoint > 0) {
+                writeCheckpoint(lastMatchId, matchCount, currentStatsMap);
+            }
+            dbConnection.commit();
+            pruneCheckpoints();
+            log.accept("Recalculation complete: replayed " + lastMatchesReplayed + " matches"
+                    + (checkpoint[0] > 0 ? " after the checkpoint at match " + checkpoint[0] : "")
+                    + ". All player stats have been updated.");
 
         } catch (SQLException e) {
             handleSQLException(e, "Recalculation failed. Rolling back changes.");
@@ -309,7 +483,131 @@ public class PlayerData {
             try { dbConnection.setAutoCommit(true); } catch (SQLException ex) { /* ignore */ }
         }
     }
-    
+
+    // Same rules as updateGameResults
+    private static void applyResult(PlayerStats white, PlayerStats black, String winner) {
+        double expectedWhite = 1.0 / (1.0 + Math.pow(10.0, (black.elo - white.elo) / 400.0));
+        double actualWhiteScore;
+
+        if (winner == null) { // Draw
+            white.ties++; black.ties++; actualWhiteScore = 0.5;
+        } else if (winner.equals(white.name)) { // White won
+            white.wins++; black.losses++; actualWhiteScore = 1.0;
+        } else { // Black won
+            white.losses++; black.wins++; actualWhiteScore = 0.0;
+        }
+
+        white.elo += K * (actualWhiteScore - expectedWhite);
+        black.elo += K * ((1.0 - actualWhiteScore) - (1.0 - expectedWhite));
+    }
+
+    // The latest checkpoint whose match count still agrees with MATCHES, as {match_id, match_count},
+    // or {0, 0} for none. Checkpoints that no longer agree (matches deleted) are removed.
+    private int[] findValidCheckpoint() throws SQLException {
+        List<int[]> checkpoints = new ArrayList<>();
+        try (Statement stmt = dbConnection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT match_id, match_count FROM " + CHECKPOINTS_TABLE_NAME
+                     + " ORDER BY match_id DESC")) {
+            while (rs.next()) {
+                checkpoints.add(new int[] {rs.getInt(1), rs.getInt(2)});
+            }
+        }
+        String countSQL = "SELECT COUNT(*) FROM " + MATCHES_TABLE_NAME + " WHERE match_id <= ?";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(countSQL)) {
+            for (int[] checkpoint : checkpoints) {
+                pstmt.setInt(1, checkpoint[0]);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    if (rs.getInt(1) == checkpoint[1]) {
+                        return checkpoint;
+                    }
+                }
+                log.accept("Rating checkpoint at match " + checkpoint[0] + " no longer matches the history; removing it.");
+                deleteCheckpoint(checkpoint[0]);
+            }
+        }
+        return new int[] {0, 0};
+    }
+
+    private void loadSnapshot(int matchId, Map<String, PlayerStats> statsMap) throws SQLException {
+        String sql = "SELECT name, wins, losses, ties, elo FROM " + SNAPSHOTS_TABLE_NAME + " WHERE match_id = ?";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+            pstmt.setInt(1, matchId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString("name");
+                    statsMap.put(name, new PlayerStats(name, rs.getInt("wins"), rs.getInt("losses"), rs.getInt("ties"), rs.getDouble("elo")));
+                }
+            }
+        }
+    }
+
+    // Saves the stats of everyone who has played as of matchId, and commits
+    private void writeCheckpoint(int matchId, int matchCount, Map<String, PlayerStats> statsMap) throws SQLException {
+        deleteCheckpoint(matchId); // In case a removed one left it behind
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(
+                "INSERT INTO " + CHECKPOINTS_TABLE_NAME + " (match_id, match_count) VALUES (?, ?)")) {
+            pstmt.setInt(1, matchId);
+            pstmt.setInt(2, matchCount);
+            pstmt.executeUpdate();
+        }
+        String sql = "INSERT INTO " + SNAPSHOTS_TABLE_NAME + " (match_id, name, wins, losses, ties, elo) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = dbConnection.prepareStatement(sql)) {
+            for (PlayerStats player : statsMap.values()) {
+                if (player.wins + player.losses + player.ties == 0) {
+                    continue; // Still at the defaults
+                }
+                pstmt.setInt(1, matchId);
+                pstmt.setString(2, player.name);
+                pstmt.setInt(3, player.wins);
+                pstmt.setInt(4, player.losses);
+                pstmt.setInt(5, player.ties);
+                pstmt.setDouble(6, player.elo);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        dbConnection.commit();
+    }
+
+    // Keeps only the latest few checkpoints
+    private void pruneCheckpoints() throws SQLException {
+        List<Integer> old = new ArrayList<>();
+        try (Statement stmt = dbConnection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT match_id FROM " + CHECKPOINTS_TABLE_NAME + " ORDER BY match_id DESC")) {
+            for (int i = 0; rs.next(); i++) {
+                if (i >= CHECKPOINTS_KEPT) {
+                    old.add(rs.getInt(1));
+                }
+            }
+        }
+        for (int matchId : old) {
+            deleteCheckpoint(matchId);
+        }
+        dbConnection.commit();
+    }
+
+    private void deleteCheckpoint(int matchId) throws SQLException {
+        try (PreparedStatement snapshots = dbConnection.prepareStatement(
+                     "DELETE FROM " + SNAPSHOTS_TABLE_NAME + " WHERE match_id = ?");
+             PreparedStatement checkpoint = dbConnection.prepareStatement(
+                     "DELETE FROM " + CHECKPOINTS_TABLE_NAME + " WHERE match_id = ?")) {
+            snapshots.setInt(1, matchId);
+            snapshots.executeUpdate();
+            checkpoint.setInt(1, matchId);
+            checkpoint.executeUpdate();
+        }
+    }
+
+    // Matches replayed by the last recalculateAllRankings
+    public long getLastMatchesReplayed() {
+        return lastMatchesReplayed;
+    }
+
+    void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
     // Debug functions, not accessible by players but useful for viewing/modifying the database if needed
     
     // Prints the full list of players and their stats to the console
@@ -430,6 +728,17 @@ public class PlayerData {
         }
     }
 
+    // Removes every rating checkpoint, so the next recalculation replays the whole history
+    public void debugClearCheckpoints() {
+        try (Statement stmt = dbConnection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM " + SNAPSHOTS_TABLE_NAME);
+            int removed = stmt.executeUpdate("DELETE FROM " + CHECKPOINTS_TABLE_NAME);
+            System.out.println("DEBUG: Removed " + removed + " rating checkpoints.");
+        } catch (SQLException e) {
+            handleSQLException(e, "Debug function 'debugClearCheckpoints' failed.");
+        }
+    }
+
     // Helper methods
 
     private PlayerStats getPlayerStatsFromDB(String playerName) throws SQLException {
@@ -457,8 +766,8 @@ public class PlayerData {
     }
     
     private void logPlayerUpdate(PlayerStats player, double oldElo) {
-        game.log(String.format("%s: %.1f -> %.1f Elo", player.name, oldElo, player.elo));
-        game.log(String.format("Record: %d W / %d L / %d T", player.wins, player.losses, player.ties));
+        log.accept(String.format("%s: %.1f -> %.1f Elo", player.name, oldElo, player.elo));
+        log.accept(String.format("Record: %d W / %d L / %d T", player.wins, player.losses, player.ties));
     }
 
     private void registerShutdownHook() {
@@ -479,6 +788,6 @@ public class PlayerData {
         System.err.println("--- DATABASE ERROR ---");
         System.err.println("Custom Message: " + customMessage);
         e.printStackTrace(System.err);
-        game.log("Database Error: " + e.getMessage());
+        log.accept("Database Error: " + e.getMessage());
     }
 }
\ No newline at end of file
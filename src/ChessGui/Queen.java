@@ -7,9 +7,9 @@ package ChessGui;
 public class Queen extends Piece 
 {
 
-    public Queen(String color) 
+    public Queen(PieceColor color) 
     {
-        super("Queen", color);
+        super(PieceType.QUEEN, color);
     }
 
     @Override
@@ -29,7 +29,7 @@ public class Queen extends Piece
                 }
             }
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         } 
         else if (startCol == endCol) 
         {
@@ -42,7 +42,7 @@ public class Queen extends Piece
                 }
             }
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         }
 
         // Check for diagonal movement (like a Bishop).
@@ -61,7 +61,7 @@ public class Queen extends Piece
                 currentCol += colStep;
             }
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         }
 
         // If none of the above conditions are met, it's not a valid queen move.
@@ -7,22 +7,9 @@ package ChessGui;
 public class Rook extends Piece 
 {
 
-    private boolean hasMoved;
-
-    public Rook(String color) 
-    {
-        super("Rook", color);
-        this.hasMoved = false;
-    }
-
-    public boolean hasMoved() 
-    {
-        return hasMoved;
-    }
-
-    public void setHasMoved(boolean hasMoved) 
+    public Rook(PieceColor color) 
     {
-        this.hasMoved = hasMoved;
+        super(PieceType.ROOK, color);
     }
 
     @Override
@@ -41,7 +28,7 @@ public class Rook extends Piece
                 }
             }
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         } 
         else if (startCol == endCol) { // Moving vertically
             int minRow = Math.min(startRow, endRow);
@@ -54,7 +41,7 @@ public class Rook extends Piece
                 }
             }
             Piece destinationPiece = board.getPiece(endRow, endCol);
-            return destinationPiece == null || !destinationPiece.getColor().equals(getColor());
+            return destinationPiece == null || destinationPiece.getColor() != getColor();
         }
         return false; // Not moving horizontally or vertically
     }
@@ -0,0 +1,300 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Standard algebraic notation (SAN), as used in PGN: "e4", "Nbd7", "exd5", "O-O", "e8=Q+".
+// Parsing is done against a position, since SAN only names the destination and whatever is
+// needed to tell the legal moves apart.
+public final class San
+{
+    private San()
+    {
+    }
+
+    // The legal move for the side to move that san describes, or Move.NONE if there is none or
+    // it is ambiguous. Check marks and annotations (+, #, !, ?) are ignored. Apart from castling,
+    // no move list is generated: only the pieces that could reach the destination are tried.
+    public static int parse(Board board, CharSequence san)
+    {
+        return parse(board, san, null);
+    }
+
+    // As above, choosing from the side to move's legal moves, already generated (or null)
+    public static int parse(Board board, CharSequence san, MoveList legalMoves)
+    {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0)
+        {
+            end--;
+        }
+        if (end < 2)
+        {
+            return Move.NONE;
+        }
+
+        // Castling; PGN uses letter O, but zeros turn up too
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0')
+        {
+            boolean queenside = (end == 5);
+            if (end != 3 && end != 5)
+            {
+                return Move.NONE;
+            }
+            if (legalMoves == null)
+            {
+                legalMoves = MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+            }
+            for (int i = 0; i < legalMoves.size(); i++)
+            {
+                int move = legalMoves.get(i);
+                if (Move.isCastle(move) && (Move.flags(move) == Move.QUEEN_CASTLE) == queenside)
+                {
+                    return move;
+                }
+            }
+            return Move.NONE;
+        }
+
+        // Promotion suffix: "=Q", or just "Q" after the square
+        int promotion = Bitboard.PAWN;
+        char last = san.charAt(end - 1);
+        if ("NBRQ".indexOf(last) >= 0)
+        {
+            promotion = pieceType(last);
+            end -= (san.charAt(end - 2) == '=') ? 2 : 1;
+        }
+        if (end < 2)
+        {
+            return Move.NONE;
+        }
+
+        // Destination square is always last
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRow = Board.SIZE - (san.charAt(end - 1) - '0');
+        if (toCol < 0 || toCol >= Board.SIZE || toRow < 0 || toRow >= Board.SIZE)
+        {
+            return Move.NONE;
+        }
+
+        // Piece letter first (none for pawns), then optional file/rank disambiguation and 'x'
+        int start = 0;
+        int type = Bitboard.PAWN;
+        if ("NBRQK".indexOf(san.charAt(0)) >= 0)
+        {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+        int fromCol = -1, fromRow = -1;
+        for (int i = start; i < end - 2; i++)
+        {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h')
+            {
+                fromCol = c - 'a';
+            }
+            else if (c >= '1' && c <= '8')
+            {
+                fromRow = Board.SIZE - (c - '0');
+            }
+            else if (c != 'x' && c != '-' && c != ':')
+            {
+                return Move.NONE;
+            }
+        }
+
+        int to = Bitboard.square(toRow, toCol);
+        if (legalMoves == null)
+        {
+            return findMove(board, type, to, fromCol, fromRow, promotion);
+        }
+        Bitboard bitboards = board.getBitboards();
+        int color = board.getSideToMove().index();
+        int match = Move.NONE;
+        for (int i = 0; i < legalMoves.size(); i++)
+        {
+            int move = legalMoves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to
+                    || (bitboards.getPieces(color, type) & (1L << from)) == 0
+                    || (fromCol >= 0 && Bitboard.colOf(from) != fromCol)
+                    || (fromRow >= 0 && Bitboard.rowOf(from) != fromRow)
+                    || (Move.isPromotion(move) ? Move.promotionType(move) != promotion : promotion != Bitboard.PAWN))
+            {
+                continue;
+            }
+            if (match != Move.NONE)
+            {
+                return Move.NONE; // Ambiguous
+            }
+            match = move;
+        }
+        return match;
+    }
+
+    // Works back from the destination to the pieces of the given type that could move there,
+    // and checks only those for legality. fromCol/fromRow are -1 when not given.
+    private static int findMove(Board board, int type, int to, int fromCol, int fromRow, int promotion)
+    {
+        Bitboard bitboards = board.getBitboards();
+        int color = board.getSideToMove().index();
+        long target = 1L << to;
+        if ((bitboards.getOccupancy(color) & target) != 0)
+        {
+            return Move.NONE;
+        }
+        int toRow = Bitboard.rowOf(to);
+        boolean lastRank = (toRow == 0 || toRow == Board.SIZE - 1);
+        if ((type == Bitboard.PAWN && lastRank) != (promotion != Bitboard.PAWN))
+        {
+            return Move.NONE; // A promotion needs its piece, and only a promotion has one
+        }
+
+        long pieces = bitboards.getPieces(color, type);
+        long sources;
+        if (type != Bitboard.PAWN)
+        {
+            // Every other piece attacks the way it is attacked
+            sources = Attacks.attacksFrom(type, color, to, bitboards.getOccupied()) & pieces;
+        }
+        else if (fromCol >= 0 && fromCol != Bitboard.colOf(to))
+        {
+            // Captures, including en passant; the squares a pawn of the other colour on the
+            // destination would attack are the ones ours can capture from
+            boolean capture = (bitboards.getOccupied() & target) != 0 || to == board.getEnPassantSquare();
+            sources = capture ? Attacks.pawn(1 - color, to) & pieces : 0;
+        }
+        else
+        {
+            // Pushes, one square or two from the starting row
+            int rowBack = (color == Bitboard.WHITE) ? 1 : -1; // One row towards the pawn's start
+            int startingRow = (color == Bitboard.WHITE) ? 6 : 1;
+            long occupied = bitboards.getOccupied();
+            sources = 0;
+            if ((occupied & target) == 0 && toRow + rowBack > 0 && toRow + rowBack < Board.SIZE - 1)
+            {
+                long oneBack = 1L << (to + rowBack * Board.SIZE);
+                if ((pieces & oneBack) != 0)
+                {
+                    sources = oneBack;
+                }
+                else if ((occupied & oneBack) == 0 && toRow + 2 * rowBack == startingRow)
+                {
+                    sources = pieces & (1L << (to + 2 * rowBack * Board.SIZE));
+                }
+            }
+        }
+
+        int match = Move.NONE;
+        while (sources != 0)
+        {
+            int from = Long.numberOfTrailingZeros(sources);
+            sources &= sources - 1;
+            if ((fromCol >= 0 && Bitboard.colOf(from) != fromCol) || (fromRow >= 0 && Bitboard.rowOf(from) != fromRow))
+            {
+                continue;
+            }
+            int move = board.createMove(Bitboard.rowOf(from), Bitboard.colOf(from), toRow, Bitboard.colOf(to), promotion);
+            if (board.leavesKingInCheck(move))
+            {
+                continue;
+            }
+            if (match != Move.NONE)
+            {
+                return Move.NONE; // Ambiguous
+            }
+            match = move;
+        }
+        return match;
+    }
+
+    // SAN for a legal move in board, with + or # if it gives check or mate
+    public static String toSan(Board board, int move)
+    {
+        StringBuilder san = new StringBuilder(8);
+        if (Move.isCastle(move))
+        {
+            san.append(Move.flags(move) == Move.KING_CASTLE ? "O-O" : "O-O-O");
+        }
+        else
+        {
+            int from = Move.from(move);
+            Piece piece = board.getPiece(Move.fromRow(move), Move.fromCol(move));
+            int type = piece.getType().index();
+            if (type == Bitboard.PAWN)
+            {
+                if (Move.isCapture(move))
+                {
+                    san.append((char) ('a' + Bitboard.colOf(from)));
+                }
+            }
+            else
+            {
+                san.append(piece.getType().getInitial());
+                appendDisambiguation(board, move, type, san);
+            }
+            if (Move.isCapture(move))
+            {
+                san.append('x');
+            }
+            san.append(ChessGame.getAlgebraic(Move.toRow(move), Move.toCol(move)));
+            if (Move.isPromotion(move))
+            {
+                san.append('=').append(PieceType.fromIndex(Move.promotionType(move)).getInitial());
+            }
+        }
+
+        MoveUndo undo = board.makeMove(move);
+        PieceColor opponent = board.getSideToMove();
+        if (board.isKingInCheck(opponent))
+        {
+            san.append(MoveGenerator.generateLegalMoves(board, opponent).isEmpty() ? '#' : '+');
+        }
+        board.unmakeMove(undo);
+        return san.toString();
+    }
+
+    // File, rank or both of the moving piece, if another piece of the same type can also
+    // reach the destination
+    private static void appendDisambiguation(Board board, int move, int type, StringBuilder san)
+    {
+        int from = Move.from(move);
+        int color = board.getSideToMove().index();
+        long pieces = board.getBitboards().getPieces(color, type);
+        MoveList legalMoves = MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+        boolean ambiguous = false, sameFile = false, sameRow = false;
+        for (int i = 0; i < legalMoves.size(); i++)
+        {
+            int other = legalMoves.get(i);
+            int otherFrom = Move.from(other);
+            if (otherFrom != from && Move.to(other) == Move.to(move) && (pieces & (1L << otherFrom)) != 0)
+            {
+                ambiguous = true;
+                sameFile |= Bitboard.colOf(otherFrom) == Bitboard.colOf(from);
+                sameRow |= Bitboard.rowOf(otherFrom) == Bitboard.rowOf(from);
+            }
+        }
+        if (!ambiguous)
+        {
+            return;
+        }
+        if (!sameFile)
+        {
+            san.append((char) ('a' + Bitboard.colOf(from)));
+        }
+        else if (!sameRow)
+        {
+            san.append((char) ('1' + Board.SIZE - 1 - Bitboard.rowOf(from)));
+        }
+        else
+        {
+            san.append(ChessGame.getAlgebraic(Bitboard.rowOf(from), Bitboard.colOf(from)));
+        }
+    }
+
+    private static int pieceType(char letter)
+    {
+        return "PNBRQK".indexOf(letter);
+    }
+}
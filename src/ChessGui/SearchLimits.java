@@ -0,0 +1,57 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// How far or how long a search may run. Whichever limit is reached first ends the search.
+public final class SearchLimits
+{
+    public static final int MAX_DEPTH = AlphaBetaEngine.MAX_PLY - 1;
+
+    private final int maxDepth;
+    private final long timeMillis; // 0 = no time limit
+
+    public SearchLimits(int maxDepth, long timeMillis)
+    {
+        if (maxDepth < 1 || timeMillis < 0)
+        {
+            throw new IllegalArgumentException("Depth must be at least 1 and time non-negative");
+        }
+        this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+        this.timeMillis = timeMillis;
+    }
+
+    // Search to a fixed depth, however long it takes
+    public static SearchLimits depth(int depth)
+    {
+        return new SearchLimits(depth, 0);
+    }
+
+    // Search as deep as possible within the given time
+    public static SearchLimits time(long millis)
+    {
+        return new SearchLimits(MAX_DEPTH, millis);
+    }
+
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    public long getTimeMillis()
+    {
+        return timeMillis;
+    }
+
+    public boolean hasTimeLimit()
+    {
+        return timeMillis > 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return hasTimeLimit() ? "depth " + maxDepth + ", " + timeMillis + " ms" : "depth " + maxDepth;
+    }
+}
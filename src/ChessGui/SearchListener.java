@@ -0,0 +1,19 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Receives progress from a ChessEngine. Called on the searching thread.
+public interface SearchListener
+{
+    // Called after every completed iteration with the best line found so far
+    void onIteration(SearchResult result);
+
+    // Polled every few thousand nodes; returning true ends the search like ChessEngine.stop().
+    // Unlike stop(), it belongs to this search alone, so a search starting up can't clear it.
+    default boolean shouldStop()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Outcome of one search iteration: the best move with its score and principal variation,
+// and how much work it took.
+public final class SearchResult
+{
+    private final int bestMove;       // Packed Move, Move.NONE if there are no legal moves
+    private final int score;          // Centipawns from the side to move's point of view
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos, int[] principalVariation)
+    {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = principalVariation.clone();
+    }
+
+    public int getBestMove()
+    {
+        return bestMove;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public long getNodesPerSecond()
+    {
+        return (elapsedNanos > 0) ? nodes * 1_000_000_000L / elapsedNanos : 0;
+    }
+
+    public int[] getPrincipalVariation()
+    {
+        return principalVariation.clone();
+    }
+
+    public boolean isMate()
+    {
+        return Math.abs(score) >= AlphaBetaEngine.MATE - AlphaBetaEngine.LONGEST_MATE;
+    }
+
+    // Moves until mate, negative if the side to move is getting mated; only meaningful if isMate
+    public int getMateIn()
+    {
+        int plies = AlphaBetaEngine.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return (score > 0) ? moves : -moves;
+    }
+
+    // Principal variation in coordinate notation, e.g. "e2e4 e7e5 g1f3"
+    public String getPrincipalVariationString()
+    {
+        StringBuilder text = new StringBuilder();
+        for (int move : principalVariation)
+        {
+            if (text.length() > 0)
+            {
+                text.append(' ');
+            }
+            text.append(Move.toString(move));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        String scoreText = isMate() ? "mate " + getMateIn() : "cp " + score;
+        return String.format("depth %d score %s nodes %d nps %d time %d ms pv %s", depth, scoreText, nodes,
+                getNodesPerSecond(), elapsedNanos / 1_000_000, getPrincipalVariationString());
+    }
+}
@@ -0,0 +1,172 @@
+package ChessGui;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Endgame tablebase for king and one piece against a lone king (KQK, KRK and KPK), read from a
+// memory-mapped file built by TablebaseGenerator. Each ending is a table with one byte per
+// position giving the exact result with best play, and the distance to mate in plies.
+//
+// Positions are indexed with the side that has the extra piece ("the strong side") as White;
+// positions where Black has it are looked up with the board flipped top to bottom. The index is
+//   side to move (0 = strong side) * 64^3 + strong king * 64^2 + piece * 64 + weak king
+// using Bitboard square numbers. Castling rights take the position out of the tablebase.
+//
+// File layout (big-endian):
+//   header   magic "CGTB0001" (8 bytes), table count (int), positions per table (int),
+//            then the Bitboard type of each table's piece (int each)
+//   tables   one after another, one byte per position
+public final class Tablebase
+{
+    public static final Path DEFAULT_PATH = Paths.get("resources", "tablebase.bin");
+
+    // Probe results: 0 is a draw; n > 0 means the side to move mates in n - 1 plies, and n < 0
+    // that it is mated in -n - 1 plies
+    public static final int NOT_FOUND = Integer.MIN_VALUE; // Not a position the tablebase covers
+    public static final int DRAW = 0;
+
+    static final long MAGIC = 0x4347544230303031L; // "CGTB0001"
+    static final int POSITIONS = 2 * 64 * 64 * 64;
+    static final int[] PIECES = {Bitboard.QUEEN, Bitboard.ROOK, Bitboard.PAWN}; // KPK promotes into the others
+
+    private final MappedByteBuffer buffer; // Only read with absolute gets, so threads can share it
+    private final int[] tableOffsets = new int[Bitboard.PIECE_TYPES]; // By piece type, -1 if absent
+
+    private Tablebase(MappedByteBuffer buffer, int[] pieces)
+    {
+        this.buffer = buffer;
+        Arrays.fill(tableOffsets, -1);
+        int offset = headerBytes(pieces.length);
+        for (int piece : pieces)
+        {
+            tableOffsets[piece] = offset;
+            offset += POSITIONS;
+        }
+    }
+
+    public static Tablebase open(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < headerBytes(0))
+            {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int tables = buffer.getInt(8);
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(12) != POSITIONS || tables < 0 || tables > PIECES.length)
+            {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            if (headerBytes(tables) + (long) tables * POSITIONS != size)
+            {
+                throw new IOException("Tablebase is truncated or corrupt: " + path);
+            }
+            int[] pieces = new int[tables];
+            for (int i = 0; i < tables; i++)
+            {
+                pieces[i] = buffer.getInt(headerBytes(i));
+                if (pieces[i] < Bitboard.PAWN || pieces[i] >= Bitboard.KING)
+                {
+                    throw new IOException("Tablebase is truncated or corrupt: " + path);
+                }
+            }
+            return new Tablebase(buffer, pieces);
+        }
+    }
+
+    // The tablebase at DEFAULT_PATH, generated there first if there is none yet. Generating
+    // takes a few seconds, so call this off the event thread.
+    public static Tablebase openDefault() throws IOException
+    {
+        if (!Files.exists(DEFAULT_PATH))
+        {
+            new TablebaseGenerator(Runtime.getRuntime().availableProcessors()).write(DEFAULT_PATH);
+        }
+        return open(DEFAULT_PATH);
+    }
+
+    static int headerBytes(int tables)
+    {
+        return 16 + 4 * tables;
+    }
+
+    static int index(int strongToMove, int strongKing, int piece, int weakKing)
+    {
+        return (((strongToMove * 64 + strongKing) * 64) + piece) * 64 + weakKing;
+    }
+
+    // The result for the side to move in board, or NOT_FOUND if the tablebase doesn't cover it
+    public int probe(Board board)
+    {
+        Bitboard bitboards = board.getBitboards();
+        if (Long.bitCount(bitboards.getOccupied()) != 3 || board.getCastlingRights() != 0)
+        {
+            return NOT_FOUND;
+        }
+        int strong = (Long.bitCount(bitboards.getOccupancy(Bitboard.WHITE)) == 2) ? Bitboard.WHITE : Bitboard.BLACK;
+        for (int type = Bitboard.PAWN; type < Bitboard.KING; type++)
+        {
+            long piece = bitboards.getPieces(strong, type);
+            if (piece != 0)
+            {
+                int offset = tableOffsets[type];
+                if (offset < 0)
+                {
+                    return NOT_FOUND;
+                }
+                int flip = (strong == Bitboard.WHITE) ? 0 : 56; // Flips the row of a square
+                int strongToMove = (board.getSideToMove().index() == strong) ? 0 : 1;
+                return buffer.get(offset + index(strongToMove, bitboards.findKing(strong) ^ flip,
+                        Long.numberOfTrailingZeros(piece) ^ flip, bitboards.findKing(1 - strong) ^ flip));
+            }
+        }
+        return NOT_FOUND; // Bare kings
+    }
+
+    public boolean covers(int pieceType)
+    {
+        return tableOffsets[pieceType] >= 0;
+    }
+
+    public static boolean isWin(int result)
+    {
+        return result > 0;
+    }
+
+    public static boolean isLoss(int result)
+    {
+        return result < 0 && result != NOT_FOUND;
+    }
+
+    // Plies until mate for a won or lost result
+    public static int pliesToMate(int result)
+    {
+        return Math.abs(result) - 1;
+    }
+
+    // The result in words, e.g. "WHITE mates in 7"
+    public static String describe(int result, PieceColor sideToMove)
+    {
+        if (result == DRAW)
+        {
+            return "Draw with best play";
+        }
+        int plies = pliesToMate(result);
+        PieceColor winner = isWin(result) ? sideToMove : sideToMove.opposite();
+        int moves = isWin(result) ? (plies + 1) / 2 : plies / 2;
+        return winner.toString().toUpperCase() + " mates in " + moves;
+    }
+}
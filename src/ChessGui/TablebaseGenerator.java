@@ -0,0 +1,378 @@
+package ChessGui;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Builds the Tablebase file by retrograde analysis. Every position starts out unresolved, except
+// checkmates (lost now) and stalemates (drawn). Pass n then finds the positions decided in
+// exactly n plies: those with a move to a position lost in n - 1 plies are won, and those whose
+// every move leads to a position already won are lost. When a pass finds nothing new, whatever
+// is still unresolved is a draw. KPK is built last, since promoting leads into KQK and KRK.
+//
+// Each pass is split across threads by index range. A pass only reads results from earlier
+// passes and only writes results n plies long, so the output is the same however the work is
+// divided or scheduled, and the file is identical on every run.
+// Usage: TablebaseGenerator [-threads N] [output.bin]
+public class TablebaseGenerator
+{
+    private static final byte UNRESOLVED = Byte.MIN_VALUE;
+    private static final int MAX_SUCCESSORS = 64;
+    private static final int CHUNKS_PER_THREAD = 8; // Evens out chunks that take longer than others
+
+    private final int threads;
+    private final byte[][] tables = new byte[Bitboard.PIECE_TYPES][]; // By piece type, once generated
+
+    public TablebaseGenerator(int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Generating needs at least one thread");
+        }
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path output = Tablebase.DEFAULT_PATH;
+        try
+        {
+            for (int arg = 0; arg < args.length; arg++)
+            {
+                if (args[arg].equals("-threads"))
+                {
+                    threads = Integer.parseInt(args[++arg]);
+                }
+                else
+                {
+                    output = Paths.get(args[arg]);
+                }
+            }
+        }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+        {
+            System.err.println("Usage: TablebaseGenerator [-threads N] [output.bin]");
+            return;
+        }
+
+        TablebaseGenerator generator = new TablebaseGenerator(threads);
+        long start = System.nanoTime();
+        for (int piece : Tablebase.PIECES)
+        {
+            long tableStart = System.nanoTime();
+            byte[] table = generator.generate(piece);
+            int wins = 0, losses = 0, longest = 0;
+            for (byte result : table)
+            {
+                if (Tablebase.isWin(result))
+                {
+                    wins++;
+                    longest = Math.max(longest, Tablebase.pliesToMate(result));
+                }
+                else if (Tablebase.isLoss(result))
+                {
+                    losses++;
+                }
+            }
+            System.out.println(String.format("K%sK: %d won, %d lost, longest mate %d plies, %d ms",
+                    PieceType.fromIndex(piece).getInitial(), wins, losses, longest,
+                    (System.nanoTime() - tableStart) / 1_000_000));
+        }
+        generator.write(output);
+        System.out.println(String.format("Wrote %s with %d threads in %d ms", output, threads,
+                (System.nanoTime() - start) / 1_000_000));
+    }
+
+    // Generates every table and writes the tablebase file
+    public void write(Path path) throws IOException
+    {
+        for (int piece : Tablebase.PIECES)
+        {
+            generate(piece);
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+        {
+            Files.createDirectories(parent);
+        }
+        // Written under another name first, so a generator that is interrupted leaves no file
+        // that looks complete
+        Path partial = path.resolveSibling(path.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial))))
+        {
+            out.writeLong(Tablebase.MAGIC);
+            out.writeInt(Tablebase.PIECES.length);
+            out.writeInt(Tablebase.POSITIONS);
+            for (int piece : Tablebase.PIECES)
+            {
+                out.writeInt(piece);
+            }
+            for (int piece : Tablebase.PIECES)
+            {
+                out.write(tables[piece]);
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // The table for king and piece against king, generating it (and any it depends on) if need be
+    public byte[] generate(int piece)
+    {
+        if (tables[piece] != null)
+        {
+            return tables[piece];
+        }
+        if (piece == Bitboard.PAWN)
+        {
+            generate(Bitboard.QUEEN);
+            generate(Bitboard.ROOK);
+        }
+        else if (piece != Bitboard.QUEEN && piece != Bitboard.ROOK)
+        {
+            throw new IllegalArgumentException("No tablebase for piece type " + piece);
+        }
+
+        byte[] table = new byte[Tablebase.POSITIONS];
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Tablebase generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            runPass(pool, (from, to) -> initialize(piece, table, from, to));
+            for (int plies = 1; ; plies++)
+            {
+                if (plies + 1 > Byte.MAX_VALUE)
+                {
+                    throw new IllegalStateException("Mate too long to store");
+                }
+                int resolvedPlies = plies;
+                if (runPass(pool, (from, to) -> resolve(piece, table, resolvedPlies, from, to)) == 0)
+                {
+                    break;
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        for (int i = 0; i < table.length; i++)
+        {
+            if (table[i] == UNRESOLVED)
+            {
+                table[i] = Tablebase.DRAW;
+            }
+        }
+        tables[piece] = table;
+        return table;
+    }
+
+    private interface Chunk
+    {
+        int run(int from, int to);
+    }
+
+    // Runs chunk over the whole index range on the pool and returns the sum of its results
+    private int runPass(ExecutorService pool, Chunk chunk)
+    {
+        int chunks = threads * CHUNKS_PER_THREAD;
+        int chunkSize = (Tablebase.POSITIONS + chunks - 1) / chunks;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int from = 0; from < Tablebase.POSITIONS; from += chunkSize)
+        {
+            int start = from, end = Math.min(from + chunkSize, Tablebase.POSITIONS);
+            tasks.add(() -> chunk.run(start, end));
+        }
+        int total = 0;
+        try
+        {
+            for (Future<Integer> result : pool.invokeAll(tasks))
+            {
+                total += result.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tablebase generation interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Tablebase generation failed", e.getCause());
+        }
+        return total;
+    }
+
+    // Marks checkmates lost, stalemates and impossible positions drawn, and the rest unresolved
+    private int initialize(int piece, byte[] table, int from, int to)
+    {
+        int[] successors = new int[MAX_SUCCESSORS];
+        for (int index = from; index < to; index++)
+        {
+            int count = successors(piece, table, index, successors);
+            if (count < 0)
+            {
+                table[index] = Tablebase.DRAW; // Never probed
+            }
+            else if (count == 0)
+            {
+                table[index] = isWeakKingInCheck(piece, index) ? (byte) -1 : Tablebase.DRAW;
+            }
+            else
+            {
+                table[index] = UNRESOLVED;
+            }
+        }
+        return 0;
+    }
+
+    // One pass: settles the unresolved positions decided in exactly plies plies, and returns
+    // how many there were
+    private int resolve(int piece, byte[] table, int plies, int from, int to)
+    {
+        int[] successors = new int[MAX_SUCCESSORS];
+        int resolved = 0;
+        for (int index = from; index < to; index++)
+        {
+            if (table[index] != UNRESOLVED)
+            {
+                continue;
+            }
+            int count = successors(piece, table, index, successors);
+            boolean won = false, lost = true;
+            for (int i = 0; i < count; i++)
+            {
+                int result = successors[i];
+                if (result == -plies) // The opponent is mated in plies - 1
+                {
+                    won = true;
+                    break;
+                }
+                if (result <= 0 || result > plies) // Not won for the opponent in plies - 1 or fewer
+                {
+                    lost = false;
+                }
+            }
+            if (won)
+            {
+                table[index] = (byte) (plies + 1);
+                resolved++;
+            }
+            else if (lost)
+            {
+                table[index] = (byte) -(plies + 1);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    // Results so far of the positions reachable from index, from the opponent's side, written to
+    // successors. Returns how many, or -1 if index is not a legal position. A capture of the
+    // strong side's piece leaves bare kings, and counts as a draw.
+    private int successors(int piece, byte[] table, int index, int[] successors)
+    {
+        int strongToMove = index >>> 18;
+        int strongKing = (index >>> 12) & 63;
+        int square = (index >>> 6) & 63;
+        int weakKing = index & 63;
+        long strongKingBit = 1L << strongKing, pieceBit = 1L << square, weakKingBit = 1L << weakKing;
+        if (strongKing == square || strongKing == weakKing || square == weakKing
+                || (Attacks.king(strongKing) & weakKingBit) != 0
+                || (piece == Bitboard.PAWN && (Bitboard.rowOf(square) == 0 || Bitboard.rowOf(square) == Board.SIZE - 1)))
+        {
+            return -1;
+        }
+
+        int count = 0;
+        if (strongToMove == 0)
+        {
+            long occupied = strongKingBit | pieceBit | weakKingBit;
+            if ((Attacks.attacksFrom(piece, Bitboard.WHITE, square, occupied) & weakKingBit) != 0)
+            {
+                return -1; // The weak side is in check with the strong side to move
+            }
+            long kingMoves = Attacks.king(strongKing) & ~pieceBit & ~Attacks.king(weakKing);
+            while (kingMoves != 0)
+            {
+                int to = Long.numberOfTrailingZeros(kingMoves);
+                kingMoves &= kingMoves - 1;
+                successors[count++] = table[Tablebase.index(1, to, square, weakKing)];
+            }
+            if (piece == Bitboard.PAWN)
+            {
+                // White pawns move towards row 0
+                int to = square - Board.SIZE;
+                if ((occupied & (1L << to)) == 0)
+                {
+                    if (Bitboard.rowOf(to) == 0)
+                    {
+                        int promoted = Tablebase.index(1, strongKing, to, weakKing);
+                        successors[count++] = tables[Bitboard.QUEEN][promoted];
+                        successors[count++] = tables[Bitboard.ROOK][promoted];
+                        successors[count++] = Tablebase.DRAW; // Bishop or knight
+                    }
+                    else
+                    {
+                        successors[count++] = table[Tablebase.index(1, strongKing, to, weakKing)];
+                        int twoSquares = to - Board.SIZE;
+                        if (Bitboard.rowOf(square) == Board.SIZE - 2 && (occupied & (1L << twoSquares)) == 0)
+                        {
+                            successors[count++] = table[Tablebase.index(1, strongKing, twoSquares, weakKing)];
+                        }
+                    }
+                }
+            }
+            else
+            {
+                long pieceMoves = Attacks.attacksFrom(piece, Bitboard.WHITE, square, occupied) & ~occupied;
+                while (pieceMoves != 0)
+                {
+                    int to = Long.numberOfTrailingZeros(pieceMoves);
+                    pieceMoves &= pieceMoves - 1;
+                    successors[count++] = table[Tablebase.index(1, strongKing, to, weakKing)];
+                }
+            }
+        }
+        else
+        {
+            // The weak king's own square doesn't block the attacks on the squares it moves to
+            long attacked = Attacks.king(strongKing) | Attacks.attacksFrom(piece, Bitboard.WHITE, square, strongKingBit);
+            long kingMoves = Attacks.king(weakKing) & ~attacked;
+            while (kingMoves != 0)
+            {
+                int to = Long.numberOfTrailingZeros(kingMoves);
+                kingMoves &= kingMoves - 1;
+                successors[count++] = (to == square) ? Tablebase.DRAW : table[Tablebase.index(0, strongKing, square, to)];
+            }
+        }
+        return count;
+    }
+
+    private static boolean isWeakKingInCheck(int piece, int index)
+    {
+        int strongKing = (index >>> 12) & 63;
+        int square = (index >>> 6) & 63;
+        int weakKing = index & 63;
+        return (index >>> 18) == 1
+                && (Attacks.attacksFrom(piece, Bitboard.WHITE, square, 1L << strongKing) & (1L << weakKing)) != 0;
+    }
+}
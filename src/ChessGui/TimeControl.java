@@ -0,0 +1,59 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Starting time per side plus what each move gives back: a Fischer increment added after the
+// move, and/or a delay that must run out before the clock starts counting down at all.
+public final class TimeControl
+{
+    public static final TimeControl[] PRESETS = {
+        new TimeControl(60_000, 0, 0),
+        new TimeControl(3 * 60_000, 2_000, 0),
+        new TimeControl(5 * 60_000, 0, 0),
+        new TimeControl(10 * 60_000, 5_000, 0),
+        new TimeControl(15 * 60_000, 0, 5_000),
+        new TimeControl(30 * 60_000, 0, 0)
+    };
+
+    private final long initialMillis;
+    private final long incrementMillis;
+    private final long delayMillis;
+
+    public TimeControl(long initialMillis, long incrementMillis, long delayMillis)
+    {
+        if (initialMillis <= 0 || incrementMillis < 0 || delayMillis < 0)
+        {
+            throw new IllegalArgumentException("Starting time must be positive, increment and delay non-negative");
+        }
+        this.initialMillis = initialMillis;
+        this.incrementMillis = incrementMillis;
+        this.delayMillis = delayMillis;
+    }
+
+    public long getInitialMillis()
+    {
+        return initialMillis;
+    }
+
+    public long getIncrementMillis()
+    {
+        return incrementMillis;
+    }
+
+    public long getDelayMillis()
+    {
+        return delayMillis;
+    }
+
+    // e.g. "3+2" (minutes + increment seconds), or "15+0 d5" with a 5 second delay
+    @Override
+    public String toString()
+    {
+        String text = (initialMillis % 60_000 == 0) ? String.valueOf(initialMillis / 60_000)
+                : String.valueOf(initialMillis / 60_000.0);
+        text += "+" + incrementMillis / 1000;
+        return (delayMillis > 0) ? text + " d" + delayMillis / 1000 : text;
+    }
+}
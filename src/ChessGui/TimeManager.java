@@ -0,0 +1,34 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Decides how long the engine may think about a move, given its clock. It spreads the remaining
+// time over the moves the game is still expected to last (fewer as the game goes on), spends most
+// of the increment as it comes in, and always keeps a margin so the flag can't fall while the
+// move is being played.
+public final class TimeManager
+{
+    private static final int EXPECTED_GAME_MOVES = 50; // Moves a typical game is budgeted for
+    private static final int MIN_MOVES_TO_GO = 20;     // Always keep time back for at least this many
+    private static final long OVERHEAD_MILLIS = 50;    // Playing the move, the event queue and timer slack
+    private static final long MIN_MILLIS = 10;
+
+    private TimeManager()
+    {
+    }
+
+    // Milliseconds to search, from the side's remaining time, the time control and the move
+    // number (1 for each side's first move)
+    public static long allocate(long remainingMillis, TimeControl timeControl, int moveNumber)
+    {
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, EXPECTED_GAME_MOVES - moveNumber);
+        long budget = remainingMillis / movesToGo + timeControl.getIncrementMillis() * 3 / 4;
+
+        // Never more than a third of what's left, then the delay on top since it costs nothing
+        budget = Math.min(budget, remainingMillis / 3) + timeControl.getDelayMillis();
+        long limit = remainingMillis + timeControl.getDelayMillis() - OVERHEAD_MILLIS;
+        return Math.max(MIN_MILLIS, Math.min(budget, limit));
+    }
+}
@@ -0,0 +1,240 @@
+package ChessGui;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Fixed-size hash table of search results keyed by Zobrist key, shared by any number of search
+// threads without locking.
+//
+// Each entry is two longs in one primitive array: the packed data, and the position key XORed
+// with that data. Reads and writes of the two halves can interleave between threads, but a torn
+// entry no longer XORs back to the probing key, so it is simply treated as a miss.
+//
+// Data layout (low bit first):
+//   bits 0-15   best move (packed Move)
+//   bits 16-35  score, signed 20 bits (mate scores are relative to the node, see AlphaBetaEngine)
+//   bits 36-43  depth
+//   bits 44-45  bound type (BOUND_*; 0 marks an empty slot)
+//   bits 46-51  age: the search generation that wrote the entry
+//
+// Entries are grouped in buckets of four (64 bytes, one cache line). A store replaces the
+// same position if present, otherwise the oldest entry, and among equally old the shallowest.
+public class TranspositionTable
+{
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    public static final int BOUND_EXACT = 1; // Score is exact (a PV node)
+    public static final int BOUND_LOWER = 2; // Score is at least this (failed high)
+    public static final int BOUND_UPPER = 3; // Score is at most this (failed low)
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_LONGS = 2;
+    private static final int ENTRY_BYTES = ENTRY_LONGS * Long.BYTES;
+
+    private static final int SCORE_SHIFT = 16, SCORE_BITS = 20;
+    private static final int DEPTH_SHIFT = 36, DEPTH_MASK = 0xFF;
+    private static final int BOUND_SHIFT = 44, BOUND_MASK = 0x3;
+    private static final int AGE_SHIFT = 46, AGE_MASK = 0x3F;
+
+    private static final int FILL_SAMPLE_BUCKETS = 1000;
+    private static final long MAX_BUCKETS = 1L << 27; // 8 GB, the most a Java long[] can index
+
+    private final long[] table;      // [key ^ data, data] per entry
+    private final int bucketMask;    // Number of buckets - 1
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable()
+    {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    // Uses the largest power-of-two number of buckets that fits in sizeMb megabytes
+    public TranspositionTable(int sizeMb)
+    {
+        if (sizeMb < 1)
+        {
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) sizeMb * 1024 * 1024 / (BUCKET_SIZE * ENTRY_BYTES));
+        buckets = Math.min(buckets, MAX_BUCKETS);
+        this.table = new long[(int) buckets * BUCKET_SIZE * ENTRY_LONGS];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    // Packed data for key, or 0 if the table holds nothing for this position
+    public long probe(long key)
+    {
+        probes.increment();
+        int base = bucketIndex(key);
+        for (int i = base; i < base + BUCKET_SIZE * ENTRY_LONGS; i += ENTRY_LONGS)
+        {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && bound(data) != 0)
+            {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound)
+    {
+        int base = bucketIndex(key);
+        int currentAge = age;
+        int replace = -1;
+        int replaceWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE * ENTRY_LONGS; i += ENTRY_LONGS)
+        {
+            long data = table[i + 1];
+            if (bound(data) == 0 || (table[i] ^ data) == key)
+            {
+                if (bound(data) != 0 && move == Move.NONE)
+                {
+                    move = move(data); // Keep the old best move rather than forget it
+                }
+                replace = i;
+                break;
+            }
+            // Entries left over from earlier searches go first, then the shallowest
+            int ageDiff = (currentAge - age(data)) & AGE_MASK;
+            int worth = depth(data) - (DEPTH_MASK + 1) * ageDiff;
+            if (worth < replaceWorth)
+            {
+                replaceWorth = worth;
+                replace = i;
+            }
+        }
+        long old = table[replace + 1];
+        if (bound(old) != 0 && (table[replace] ^ old) != key && age(old) == currentAge)
+        {
+            collisions.increment(); // Evicting a different position from the current search
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & ((1L << SCORE_BITS) - 1)) << SCORE_SHIFT)
+                | ((long) (Math.max(depth, 0) & DEPTH_MASK) << DEPTH_SHIFT)
+                | ((long) (bound & BOUND_MASK) << BOUND_SHIFT)
+                | ((long) (currentAge & AGE_MASK) << AGE_SHIFT);
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+        stores.increment();
+    }
+
+    private int bucketIndex(long key)
+    {
+        // The low key bits pick the bucket; they are as random as any others
+        return ((int) key & bucketMask) * BUCKET_SIZE * ENTRY_LONGS;
+    }
+
+    // Starts a new search generation, so entries from earlier searches are replaced first
+    public void newSearch()
+    {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear()
+    {
+        java.util.Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    public static int move(long data)
+    {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data)
+    {
+        // Shift the 20-bit field to the top, then back down to sign-extend it
+        return (int) (data << (64 - SCORE_SHIFT - SCORE_BITS) >> (64 - SCORE_BITS));
+    }
+
+    public static int depth(long data)
+    {
+        return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    public static int bound(long data)
+    {
+        return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    private static int age(long data)
+    {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    public int getCapacity()
+    {
+        return table.length / ENTRY_LONGS;
+    }
+
+    public long getSizeBytes()
+    {
+        return (long) table.length * Long.BYTES;
+    }
+
+    public long getProbes()
+    {
+        return probes.sum();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getStores()
+    {
+        return stores.sum();
+    }
+
+    // Stores that evicted a different position written during the current search
+    public long getCollisions()
+    {
+        return collisions.sum();
+    }
+
+    public double getHitRate()
+    {
+        long lookups = getProbes();
+        return (lookups == 0) ? 0.0 : (double) getHits() / lookups;
+    }
+
+    // Fraction of entries written by the current search, estimated from the first buckets
+    public double getFillRatio()
+    {
+        int buckets = Math.min(FILL_SAMPLE_BUCKETS, bucketMask + 1);
+        int currentAge = age;
+        int used = 0;
+        for (int i = 0; i < buckets * BUCKET_SIZE * ENTRY_LONGS; i += ENTRY_LONGS)
+        {
+            long data = table[i + 1];
+            if (bound(data) != 0 && age(data) == currentAge)
+            {
+                used++;
+            }
+        }
+        return (double) used / (buckets * BUCKET_SIZE);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("Transposition table: %d MB, %d entries, %d probes, %.1f%% hits, %d stores, %d collisions, %.1f%% full",
+                getSizeBytes() / (1024 * 1024), getCapacity(), getProbes(), getHitRate() * 100, getStores(),
+                getCollisions(), getFillRatio() * 100);
+    }
+}
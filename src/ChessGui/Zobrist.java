@@ -0,0 +1,77 @@
+package ChessGui;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+// Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the keys for each piece
+// on its square, the castling rights, the en passant file and (if black is to move) SIDE.
+// The keys come from a fixed seed so the same position hashes the same way in every run.
+public class Zobrist
+{
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private static final long[][] PIECES = new long[2 * Bitboard.PIECE_TYPES][Board.SIZE * Board.SIZE];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[Board.SIZE];
+    public static final long SIDE;
+
+    static
+    {
+        long state = SEED;
+        for (long[] pieceKeys : PIECES)
+        {
+            for (int square = 0; square < pieceKeys.length; square++)
+            {
+                state = next(state);
+                pieceKeys[square] = mix(state);
+            }
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++)
+        {
+            state = next(state);
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++)
+        {
+            state = next(state);
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+        state = next(state);
+        SIDE = mix(state);
+    }
+
+    private Zobrist()
+    {
+    }
+
+    // pieceIndex is Bitboard.pieceIndex, square is Bitboard.square
+    public static long piece(int pieceIndex, int square)
+    {
+        return PIECES[pieceIndex][square];
+    }
+
+    // castlingRights is the Board.CASTLE_* bit mask
+    public static long castling(int castlingRights)
+    {
+        return CASTLING[castlingRights];
+    }
+
+    public static long enPassantFile(int col)
+    {
+        return EN_PASSANT_FILE[col];
+    }
+
+    // SplitMix64 step and finaliser
+    private static long next(long state)
+    {
+        return state + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,87 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class AlphaBetaEngineTest {
+
+    private Board board;
+    private AlphaBetaEngine engine;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+        engine = new AlphaBetaEngine();
+    }
+
+    @Test
+    public void testFindsBackRankMate() {
+        board.placePiece(new King(PieceColor.BLACK), 0, 6);  // g8
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 5);  // f7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 6);  // g7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 7);  // h7
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);  // a1
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(4));
+        assertEquals("a1a8", Move.toString(result.getBestMove()));
+        assertTrue("Score should be a mate score.", result.isMate());
+        assertEquals(1, result.getMateIn());
+    }
+
+    @Test
+    public void testCapturesHangingQueen() {
+        board.placePiece(new King(PieceColor.WHITE), 7, 4);  // e1
+        board.placePiece(new Knight(PieceColor.WHITE), 5, 2); // c3
+        board.placePiece(new King(PieceColor.BLACK), 0, 4);  // e8
+        board.placePiece(new Queen(PieceColor.BLACK), 3, 3); // d5
+
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(3));
+        assertEquals("c3d5", Move.toString(result.getBestMove()));
+        assertTrue("White should be left a knight up.", result.getScore() > 200);
+    }
+
+    @Test
+    public void testSearchReportsEveryIterationAndLeavesBoardUnchanged() {
+        board.initializeStandardBoard();
+        long key = board.getZobristKey();
+        int[] iterations = new int[1];
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(4), r -> {
+            iterations[0]++;
+            assertEquals(iterations[0], r.getDepth());
+        });
+
+        assertEquals(4, iterations[0]);
+        assertEquals(4, result.getDepth());
+        assertTrue(result.getNodes() > 0);
+        assertEquals("PV should start with the best move.", result.getBestMove(), result.getPrincipalVariation()[0]);
+        assertTrue(MoveGenerator.generateLegalMoves(board, PieceColor.WHITE).contains(result.getBestMove()));
+        assertEquals("The caller's board should not be touched.", key, board.getZobristKey());
+    }
+
+    @Test
+    public void testStalemateHasNoBestMove() {
+        board.placePiece(new King(PieceColor.BLACK), 0, 7);   // h8
+        board.placePiece(new King(PieceColor.WHITE), 2, 5);   // f6
+        board.placePiece(new Queen(PieceColor.WHITE), 2, 6);  // g6 covers g8, g7 and h7
+
+        SearchResult result = engine.search(board, PieceColor.BLACK, SearchLimits.depth(3));
+        assertEquals(Move.NONE, result.getBestMove());
+        assertEquals(AlphaBetaEngine.DRAW, result.getScore());
+    }
+
+    @Test
+    public void testTimeLimitedSearchReturnsAMove() {
+        board.initializeStandardBoard();
+        long start = System.currentTimeMillis();
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.time(200));
+        assertTrue("Search should respect its time limit.", System.currentTimeMillis() - start < 2000);
+        assertNotEquals(Move.NONE, result.getBestMove());
+    }
+}
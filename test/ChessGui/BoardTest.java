@@ -0,0 +1,211 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class BoardTest {
+
+    private Board board;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+        board.initializeStandardBoard();
+    }
+
+    // Zobrist hashing tests
+    @Test
+    public void testTranspositionsShareZobristKey() {
+        Board other = new Board();
+        other.initializeStandardBoard();
+
+        board.movePiece(7, 6, 5, 5, true); // Nf3
+        board.movePiece(0, 1, 2, 2, true); // Nc6
+        board.movePiece(7, 1, 5, 2, true); // Nc3
+
+        other.movePiece(7, 1, 5, 2, true); // Nc3
+        other.movePiece(0, 1, 2, 2, true); // Nc6
+        other.movePiece(7, 6, 5, 5, true); // Nf3
+
+        assertEquals("Same position via different move orders should hash the same.", board.getZobristKey(), other.getZobristKey());
+    }
+
+    @Test
+    public void testIncrementalKeyMatchesRecomputedKey() {
+        long initialKey = board.getZobristKey();
+        assertEquals(board.computeZobristKey(), initialKey);
+
+        board.movePiece(6, 4, 4, 4, true); // e4, sets an en passant target
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        board.movePiece(1, 3, 3, 3, true); // d5
+        board.movePiece(4, 4, 3, 3, true); // exd5
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+
+        board.removePiece(7, 5);
+        board.removePiece(7, 6);
+        board.movePiece(0, 6, 2, 5, true); // Nf6
+        board.movePiece(7, 4, 7, 6, true); // O-O, clears white's castling rights
+        assertEquals(0, board.getCastlingRights() & (Board.CASTLE_WHITE_KINGSIDE | Board.CASTLE_WHITE_QUEENSIDE));
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void testPawnKeyChangesOnlyWithPawns() {
+        long pawnKey = board.getPawnKey();
+        assertEquals(board.computePawnKey(), pawnKey);
+
+        board.movePiece(7, 6, 5, 5, true); // Nf3
+        assertEquals("A knight move should not change the pawn key.", pawnKey, board.getPawnKey());
+        board.movePiece(1, 3, 3, 3, true); // d5
+        assertNotEquals(pawnKey, board.getPawnKey());
+        assertEquals(board.computePawnKey(), board.getPawnKey());
+        board.movePiece(6, 4, 4, 4, true); // e4
+        board.movePiece(3, 3, 4, 4, true); // dxe4
+        assertEquals(board.computePawnKey(), board.getPawnKey());
+        assertEquals(board.getPawnKey(), new Board(board).getPawnKey());
+    }
+
+    @Test
+    public void testUnmakeMoveRestoresZobristKey() {
+        long initialKey = board.getZobristKey();
+        MoveList moves = MoveGenerator.generateLegalMoves(board, PieceColor.WHITE);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            assertNotEquals("Every move should change the key.", initialKey, board.getZobristKey());
+            board.unmakeMove(undo);
+            assertEquals(initialKey, board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void testSideToMoveChangesKey() {
+        long whiteToMove = board.getZobristKey();
+        board.setSideToMove(PieceColor.BLACK);
+        assertEquals(whiteToMove ^ Zobrist.SIDE, board.getZobristKey());
+        board.setSideToMove(PieceColor.WHITE);
+        assertEquals(whiteToMove, board.getZobristKey());
+    }
+
+    // Legal move cache tests
+    @Test
+    public void testLegalMoveCacheHitsForRepeatedPosition() {
+        LegalMoveCache cache = new LegalMoveCache();
+        assertEquals(20, cache.getLegalMoves(board, PieceColor.WHITE).size());
+        assertEquals(20, cache.getLegalMoves(board, PieceColor.WHITE).size());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        board.movePiece(6, 4, 4, 4, true); // e4 gives a new key
+        assertEquals(20, cache.getLegalMoves(board, PieceColor.BLACK).size());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testLegalMoveCacheEvictsLeastRecentlyUsed() {
+        LegalMoveCache cache = new LegalMoveCache(2);
+        cache.getLegalMoves(board, PieceColor.WHITE);              // Start position
+        board.movePiece(6, 4, 4, 4, true);
+        cache.getLegalMoves(board, PieceColor.BLACK);              // After e4
+        board.movePiece(1, 4, 3, 4, true);
+        cache.getLegalMoves(board, PieceColor.WHITE);              // After e4 e5, evicts the start position
+        assertEquals(2, cache.size());
+
+        Board start = new Board();
+        start.initializeStandardBoard();
+        cache.getLegalMoves(start, PieceColor.WHITE);
+        assertEquals("Evicted start position should be generated again.", 4, cache.getMisses());
+    }
+
+    // FEN tests
+    @Test
+    public void testStartingFenMatchesStandardBoard() {
+        assertEquals(Board.STARTING_FEN, board.toFen());
+        Board parsed = Board.fromFen(Board.STARTING_FEN);
+        assertEquals(board.getZobristKey(), parsed.getZobristKey());
+        assertEquals(Board.CASTLE_ALL, parsed.getCastlingRights());
+        assertEquals(parsed.computeZobristKey(), parsed.getZobristKey());
+        assertEquals(parsed.computePawnKey(), parsed.getPawnKey());
+    }
+
+    @Test
+    public void testFenRoundTrip() {
+        String[] fens = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "4k3/8/8/8/8/8/8/4K2R b K - 37 112"
+        };
+        for (String fen : fens) {
+            board.setFromFen(fen);
+            assertEquals(fen, board.toFen());
+            assertEquals(board.computeZobristKey(), board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void testFenFields() {
+        board.setFromFen("r3k3/8/8/3pP3/8/8/8/R3K2R w Qq d6 3 27");
+        assertEquals(PieceColor.WHITE, board.getSideToMove());
+        assertEquals(Board.CASTLE_WHITE_QUEENSIDE | Board.CASTLE_BLACK_QUEENSIDE, board.getCastlingRights());
+        assertEquals(Bitboard.square(2, 3), board.getEnPassantSquare());
+        assertEquals(3, board.getHalfmoveClock());
+        assertEquals(27, board.getFullmoveNumber());
+        assertEquals(PieceType.ROOK, board.getPiece(7, 7).getType());
+        assertEquals(PieceColor.BLACK, board.getPiece(3, 3).getColor());
+
+        // Rights with no rook to back them are dropped; counters may be left off
+        board.setFromFen("  4k3/8/8/8/8/8/8/4K3   b  KQkq  -  ");
+        assertEquals(0, board.getCastlingRights());
+        assertEquals(PieceColor.BLACK, board.getSideToMove());
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getFullmoveNumber());
+    }
+
+    @Test
+    public void testMoveCountersFollowMoves() {
+        board.movePiece(7, 6, 5, 5, true); // Nf3
+        assertEquals(1, board.getHalfmoveClock());
+        assertEquals(1, board.getFullmoveNumber());
+        board.movePiece(0, 6, 2, 5, true); // Nf6
+        assertEquals(2, board.getHalfmoveClock());
+        assertEquals(2, board.getFullmoveNumber());
+
+        int move = board.createMove(6, 4, 4, 4, Bitboard.PAWN); // e4
+        MoveUndo undo = board.makeMove(move);
+        assertEquals(0, board.getHalfmoveClock());
+        board.unmakeMove(undo);
+        assertEquals(2, board.getHalfmoveClock());
+        assertEquals(2, board.getFullmoveNumber());
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/8/5N2/PPPPPPPP/RNBQKB1R w KQkq - 2 2", board.toFen());
+    }
+
+    @Test
+    public void testMalformedFenIsRejected() {
+        String[] fens = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",          // Seven ranks
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", // Nine squares
+            "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", // Unknown piece
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1", // White can't capture on e3
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1a",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+        };
+        for (String fen : fens) {
+            try {
+                board.setFromFen(fen);
+                fail("Should have rejected: " + fen);
+            } catch (IllegalArgumentException expected) {
+                assertEquals("A rejected FEN should leave the board empty.", 0L, board.getBitboards().getOccupied());
+            }
+        }
+    }
+}
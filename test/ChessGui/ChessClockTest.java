@@ -0,0 +1,92 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class ChessClockTest {
+
+    private static final long MS = 1_000_000L; // Nanoseconds per millisecond
+
+    private AtomicLong now;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(1_000 * MS);
+    }
+
+    @Test
+    public void testOnlyTheSideToMoveLosesTime() {
+        ChessClock clock = new ChessClock(new TimeControl(60_000, 0, 0), now::get);
+        clock.start(PieceColor.WHITE);
+        now.addAndGet(1_500 * MS);
+        assertEquals(58_500, clock.getRemainingMillis(PieceColor.WHITE));
+        assertEquals(60_000, clock.getRemainingMillis(PieceColor.BLACK));
+
+        assertTrue(clock.press());
+        assertEquals(PieceColor.BLACK, clock.getRunningSide());
+        now.addAndGet(2_000 * MS);
+        assertEquals(58_500, clock.getRemainingMillis(PieceColor.WHITE));
+        assertEquals(58_000, clock.getRemainingMillis(PieceColor.BLACK));
+    }
+
+    @Test
+    public void testIncrementIsAddedAfterEachMove() {
+        ChessClock clock = new ChessClock(new TimeControl(60_000, 2_000, 0), now::get);
+        clock.start(PieceColor.WHITE);
+        now.addAndGet(5_000 * MS);
+        clock.press();
+        assertEquals(57_000, clock.getRemainingMillis(PieceColor.WHITE));
+    }
+
+    @Test
+    public void testDelayRunsBeforeTheClock() {
+        ChessClock clock = new ChessClock(new TimeControl(60_000, 0, 3_000), now::get);
+        clock.start(PieceColor.WHITE);
+        now.addAndGet(2_000 * MS);
+        assertEquals("Time within the delay is free.", 60_000, clock.getRemainingMillis(PieceColor.WHITE));
+        now.addAndGet(2_000 * MS);
+        assertEquals(59_000, clock.getRemainingMillis(PieceColor.WHITE));
+        assertEquals(59_000 * MS, clock.getNanosUntilFlag());
+    }
+
+    @Test
+    public void testFlagFallsWhenTimeRunsOut() {
+        ChessClock clock = new ChessClock(new TimeControl(1_000, 5_000, 0), now::get);
+        clock.start(PieceColor.WHITE);
+        assertEquals(1_000 * MS, clock.getNanosUntilFlag());
+        now.addAndGet(999 * MS);
+        assertFalse(clock.isFlagged(PieceColor.WHITE));
+        now.addAndGet(1 * MS);
+        assertTrue(clock.isFlagged(PieceColor.WHITE));
+        assertFalse("A move after the flag fell earns no increment.", clock.press());
+        assertEquals(0, clock.getRemainingMillis(PieceColor.WHITE));
+        assertNull(clock.getRunningSide());
+    }
+
+    @Test
+    public void testStopFreezesTime() {
+        ChessClock clock = new ChessClock(new TimeControl(60_000, 0, 0), now::get);
+        clock.start(PieceColor.WHITE);
+        now.addAndGet(10_000 * MS);
+        clock.stop();
+        now.addAndGet(10_000 * MS);
+        assertEquals(50_000, clock.getRemainingMillis(PieceColor.WHITE));
+        assertEquals(-1, clock.getNanosUntilFlag());
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("5:00", ChessClock.format(300_000));
+        assertEquals("0:20", ChessClock.format(20_000));
+        assertEquals("0:19.9", ChessClock.format(19_950));
+        assertEquals("0:00.0", ChessClock.format(0));
+    }
+}
@@ -4,8 +4,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Window;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.JDialog;
+import javax.swing.SwingUtilities;
 
 import static org.junit.Assert.*;
 
@@ -41,7 +45,8 @@ public class ChessGameTest {
         setPrivateField(game, "blackPlayerName", black);
         setPrivateField(game, "isGameOver", false);
         board.initializeStandardBoard();
-        setPrivateField(game, "currentPlayer", "white");
+        setPrivateField(game, "currentPlayer", PieceColor.WHITE);
+        callPrivateMethod(game, "startRecord"); // Played moves are added to it
         gui.setGameInProgress(true);
     }
 
@@ -77,7 +82,7 @@ public class ChessGameTest {
     public void testStartGameSetsUpBoardAndPlayersCorrectly() throws Exception {
         setupTestGame("Alice", "Bob");
         assertFalse("Game should be in progress after starting.", game.isGameOver());
-        assertEquals("White should be the first player.", "white", game.getCurrentPlayer());
+        assertEquals("White should be the first player.", PieceColor.WHITE, game.getCurrentPlayer());
         assertTrue("White King should be at e1.", board.getPiece(7, 4) instanceof King);
         assertTrue("Black King should be at e8.", board.getPiece(0, 4) instanceof King);
     }
@@ -85,11 +90,11 @@ public class ChessGameTest {
     @Test
     public void testSwitchPlayerTogglesBetweenWhiteAndBlack() throws Exception {
         setupTestGame("Alice", "Bob");
-        assertEquals("white", game.getCurrentPlayer());
+        assertEquals(PieceColor.WHITE, game.getCurrentPlayer());
         callPrivateMethod(game, "switchPlayer");
-        assertEquals("black", game.getCurrentPlayer());
+        assertEquals(PieceColor.BLACK, game.getCurrentPlayer());
         callPrivateMethod(game, "switchPlayer");
-        assertEquals("white", game.getCurrentPlayer());
+        assertEquals(PieceColor.WHITE, game.getCurrentPlayer());
     }
 
     @Test
@@ -100,6 +105,118 @@ public class ChessGameTest {
         assertEquals("Black should win if White resigns.", -1, getPrivateField(game, "gameResult"));
     }
 
+    @Test
+    public void testBoardIgnoresInputOnComputerTurn() throws Exception {
+        setupTestGame("Alice", ChessGame.COMPUTER_NAME);
+        setPrivateField(game, "computerColor", PieceColor.BLACK);
+        setPrivateField(game, "currentPlayer", PieceColor.BLACK);
+        assertTrue(game.isComputerTurn());
+        game.attemptMove(1, 4, 3, 4); // Black e7-e5, made by hand
+        assertNull("The person can't move for the computer.", board.getPiece(3, 4));
+        assertEquals(PieceColor.BLACK, game.getCurrentPlayer());
+    }
+
+    @Test
+    public void testResignDuringComputerTurnIsByThePerson() throws Exception {
+        setupTestGame("Alice", ChessGame.COMPUTER_NAME);
+        setPrivateField(game, "computerColor", PieceColor.BLACK);
+        setPrivateField(game, "currentPlayer", PieceColor.BLACK);
+        game.resign();
+        assertEquals("The computer should win when the person resigns.", -1, getPrivateField(game, "gameResult"));
+    }
+
+    @Test
+    public void testMoveAfterFlagFallLosesOnTime() throws Exception {
+        setupTestGame("Alice", "Bob");
+        ChessClock clock = new ChessClock(new TimeControl(1, 0, 0));
+        setPrivateField(game, "timeControl", clock.getTimeControl());
+        setPrivateField(game, "clock", clock);
+        clock.start(PieceColor.WHITE);
+        Thread.sleep(5);
+        game.attemptMove(6, 4, 4, 4); // White e2-e4, too late
+        assertTrue("The game should end when the flag falls.", game.isGameOver());
+        assertNotNull("The late move should not be played.", board.getPiece(6, 4));
+        assertEquals("Black should win on time.", -1, getPrivateField(game, "gameResult"));
+    }
+
+    @Test
+    public void testMoveFinishedAfterFlagFallIsTakenBack() throws Exception {
+        setupTestGame("Alice", "Bob");
+        board.initializeEmptyBoard();
+        board.placePiece(new King(PieceColor.BLACK), 0, 7);  // h8
+        board.placePiece(new Rook(PieceColor.BLACK), 0, 0);  // a8
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);  // a1
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+        // Every reading of the clock is 0.6 s after the last: in time at the start of the
+        // move, flagged by the time it is pressed
+        AtomicLong now = new AtomicLong();
+        ChessClock clock = new ChessClock(new TimeControl(1000, 0, 0), () -> now.getAndAdd(600_000_000L));
+        setPrivateField(game, "timeControl", clock.getTimeControl());
+        setPrivateField(game, "clock", clock);
+        clock.start(PieceColor.WHITE);
+
+        game.attemptMove(7, 0, 0, 0); // Ra1xa8+, too late
+        assertTrue("The game should end when the flag falls.", game.isGameOver());
+        assertTrue("The late move should be taken back.", board.getPiece(7, 0) instanceof Rook);
+        assertTrue("The captured rook should be back.", board.getPiece(0, 0) instanceof Rook);
+        assertEquals(0, ((MoveList) getPrivateField(game, "movesPlayed")).size());
+        assertEquals(0, ((PgnGame) getPrivateField(game, "record")).getMoves().size());
+        assertEquals("Black keeps the rook to mate with, so wins on time.", -1, getPrivateField(game, "gameResult"));
+    }
+
+    @Test
+    public void testPromotionFinishedAfterFlagFallIsTakenBack() throws Exception {
+        setupTestGame("Alice", "Bob");
+        board.initializeEmptyBoard();
+        board.placePiece(new King(PieceColor.BLACK), 0, 7);  // h8
+        board.placePiece(new Rook(PieceColor.BLACK), 0, 0);  // a8
+        board.placePiece(new Pawn(PieceColor.WHITE), 1, 1);  // b7
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+        AtomicLong now = new AtomicLong();
+        ChessClock clock = new ChessClock(new TimeControl(1000, 0, 0), now::get);
+        setPrivateField(game, "timeControl", clock.getTimeControl());
+        setPrivateField(game, "clock", clock);
+        clock.start(PieceColor.WHITE);
+
+        // The flag falls, and its check comes due, while the promotion dialog is open
+        Thread closer = new Thread(() -> {
+            try {
+                JDialog dialog = null;
+                while (dialog == null) {
+                    Thread.sleep(20);
+                    for (Window window : Window.getWindows()) {
+                        if (window instanceof JDialog && window.isShowing()) {
+                            dialog = (JDialog) window;
+                        }
+                    }
+                }
+                now.set(2_000_000_000L);
+                SwingUtilities.invokeAndWait(() -> {
+                    try {
+                        callPrivateMethod(game, "flagCheckDue");
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                JDialog promotionDialog = dialog;
+                SwingUtilities.invokeAndWait(promotionDialog::dispose); // Closed without a choice: a queen
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        closer.setDaemon(true);
+        closer.start();
+        game.attemptMove(1, 1, 0, 0); // b7xa8=Q+, finished too late
+        closer.join(5000);
+
+        assertTrue("The game should end when the flag falls.", game.isGameOver());
+        assertTrue("The pawn should be back on b7.", board.getPiece(1, 1) instanceof Pawn);
+        assertTrue("The captured rook should be back.", board.getPiece(0, 0) instanceof Rook);
+        assertEquals(0, ((MoveList) getPrivateField(game, "movesPlayed")).size());
+        assertEquals(0, ((PgnGame) getPrivateField(game, "record")).getMoves().size());
+        assertEquals("Black keeps the rook to mate with, so wins on time.", -1, getPrivateField(game, "gameResult"));
+    }
+
     // Move validation and game end tests
     @Test
     public void testAttemptMove_ValidPawnMove_IsSuccessful() throws Exception {
@@ -107,7 +224,7 @@ public class ChessGameTest {
         game.attemptMove(6, 4, 4, 4); // White e2-e4
         assertNotNull("Pawn should be at the new location.", board.getPiece(4, 4));
         assertNull("Original square should be empty.", board.getPiece(6, 4));
-        assertEquals("Player should switch after a valid move.", "black", game.getCurrentPlayer());
+        assertEquals("Player should switch after a valid move.", PieceColor.BLACK, game.getCurrentPlayer());
     }
 
     @Test
@@ -115,7 +232,7 @@ public class ChessGameTest {
         setupTestGame("Alice", "Bob");
         game.attemptMove(1, 4, 3, 4); // Attempt to move black's pawn on white's turn
         assertNull("Black's pawn should not have moved.", board.getPiece(3, 4));
-        assertEquals("Player should not switch after an invalid move.", "white", game.getCurrentPlayer());
+        assertEquals("Player should not switch after an invalid move.", PieceColor.WHITE, game.getCurrentPlayer());
     }
 
     @Test
@@ -133,10 +250,10 @@ public class ChessGameTest {
     public void testStalemateIsDetected() throws Exception {
         setupTestGame("Alice", "Bob");
         board.initializeEmptyBoard();
-        board.placePiece(new King("black"), 0, 7);
-        board.placePiece(new King("white"), 2, 5);
-        board.placePiece(new Queen("white"), 1, 6);
-        setPrivateField(game, "currentPlayer", "black");
+        board.placePiece(new King(PieceColor.BLACK), 0, 7);
+        board.placePiece(new King(PieceColor.WHITE), 2, 5);
+        board.placePiece(new Queen(PieceColor.WHITE), 1, 6);
+        setPrivateField(game, "currentPlayer", PieceColor.BLACK);
         callPrivateMethod(game, "checkGameEndConditions");
         assertTrue("Game should be over on stalemate.", game.isGameOver());
     }
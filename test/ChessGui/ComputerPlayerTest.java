@@ -0,0 +1,185 @@
+package ChessGui;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class ComputerPlayerTest {
+
+    private ComputerPlayer computer;
+    private Board board;
+
+    @Before
+    public void setUp() {
+        computer = new ComputerPlayer(2, message -> { });
+        board = new Board();
+        board.placePiece(new King(PieceColor.BLACK), 0, 6);  // g8
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 5);  // f7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 6);  // g7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 7);  // h7
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);  // a1
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+    }
+
+    @After
+    public void tearDown() {
+        computer.shutdown();
+    }
+
+    @Test
+    public void testMoveIsDeliveredOnEventThread() throws Exception {
+        computer.setMoveTimeMillis(300);
+        AtomicInteger move = new AtomicInteger(Move.NONE);
+        AtomicBoolean onEventThread = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+            move.set(m);
+            onEventThread.set(SwingUtilities.isEventDispatchThread());
+            done.countDown();
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals("a1a8", Move.toString(move.get()));
+        assertTrue(onEventThread.get());
+        assertFalse(computer.isThinking());
+    }
+
+    @Test
+    public void testBookMoveNeedsNoSearch() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard();
+        computer.setOpeningBook(OpeningBook.open(OpeningBook.DEFAULT_PATH));
+        computer.setMoveTimeMillis(60_000);
+        AtomicInteger move = new AtomicInteger(Move.NONE);
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+            move.set(m);
+            done.countDown();
+        }));
+        assertTrue("A book move should come at once.", done.await(2, TimeUnit.SECONDS));
+        assertTrue(MoveGenerator.generateLegalMoves(board, PieceColor.WHITE).contains(move.get()));
+    }
+
+    @Test
+    public void testMoveNowCutsSearchShort() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard(); // Big enough that the search can't finish on its own
+        computer.setMoveTimeMillis(60_000);
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> done.countDown()));
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(computer::moveNow);
+        assertTrue("A move should arrive soon after moveNow.", done.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testCancelledSearchPlaysNoMove() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard();
+        computer.setMoveTimeMillis(60_000);
+        AtomicBoolean played = new AtomicBoolean();
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> played.set(true)));
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(computer::cancel);
+        assertFalse(computer.isThinking());
+
+        // A new search can start straight away, and only its move arrives
+        computer.setMoveTimeMillis(200);
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> done.countDown()));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { }); // Let any stray callback run first
+        assertFalse(played.get());
+    }
+
+    @Test
+    public void testPonderHitCarriesOnWithSameSearch() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard();
+        int ponderMove = playComputerMoveAndGetPonderMove();
+        assertNotEquals("The computer should be pondering a reply.", Move.NONE, ponderMove);
+
+        board.makeMove(ponderMove);
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> done.countDown()));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, computer.getPonderHits());
+        assertEquals(0, computer.getPonderMisses());
+    }
+
+    @Test
+    public void testPonderMissStartsNewSearch() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard();
+        int ponderMove = playComputerMoveAndGetPonderMove();
+
+        MoveList replies = MoveGenerator.generateLegalMoves(board, PieceColor.BLACK);
+        int reply = (replies.get(0) != ponderMove) ? replies.get(0) : replies.get(1);
+        board.makeMove(reply);
+        AtomicInteger move = new AtomicInteger(Move.NONE);
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+            move.set(m);
+            done.countDown();
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, computer.getPonderHits());
+        assertEquals(1, computer.getPonderMisses());
+        assertTrue(MoveGenerator.generateLegalMoves(board, PieceColor.WHITE).contains(move.get()));
+    }
+
+    @Test
+    public void testPonderSearchCancelledAsItStartsDoesNotBlockNextMove() throws Exception {
+        board.initializeEmptyBoard();
+        board.initializeStandardBoard();
+        computer.setMoveTimeMillis(50);
+        for (int i = 0; i < 20; i++) {
+            // Pondering starts as soon as the callback returns; the cancel queued here follows at once
+            CountDownLatch played = new CountDownLatch(1);
+            SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+                SwingUtilities.invokeLater(computer::cancel);
+                played.countDown();
+            }));
+            assertTrue(played.await(10, TimeUnit.SECONDS));
+            SwingUtilities.invokeAndWait(() -> { }); // Let the cancel run
+            assertFalse(computer.isPondering());
+
+            CountDownLatch done = new CountDownLatch(1);
+            SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+                SwingUtilities.invokeLater(computer::cancel);
+                done.countDown();
+            }));
+            assertTrue("The cancelled ponder search should not hold up the next move.",
+                    done.await(10, TimeUnit.SECONDS));
+            SwingUtilities.invokeAndWait(() -> { });
+        }
+    }
+
+    // Lets the computer play white's move on board, then returns the reply it ponders on
+    private int playComputerMoveAndGetPonderMove() throws Exception {
+        computer.setMoveTimeMillis(300);
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> computer.think(board, PieceColor.WHITE, m -> {
+            board.makeMove(m);
+            done.countDown();
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        AtomicInteger ponderMove = new AtomicInteger();
+        SwingUtilities.invokeAndWait(() -> ponderMove.set(computer.getPonderMove())); // Pondering starts after the callback
+        Thread.sleep(200);
+        return ponderMove.get();
+    }
+}
@@ -0,0 +1,73 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class EvaluationTest {
+
+    @Test
+    public void testStartingPositionIsBalanced() {
+        Board board = new Board();
+        board.initializeStandardBoard();
+        assertEquals(0, Evaluation.evaluate(board));
+        assertEquals(Evaluation.MAX_PHASE, board.getPhase());
+    }
+
+    @Test
+    public void testIncrementalTermsMatchFromScratchThroughMakeAndUnmake() {
+        MoveList moves = new MoveList();
+        for (Board board : Evaluation.randomPositions(50, 42L)) {
+            assertEquals(Evaluation.evaluateFromScratch(board), Evaluation.evaluate(board));
+            MoveGenerator.generateLegalMoves(board, board.getSideToMove(), moves);
+            int before = Evaluation.evaluate(board);
+            for (int i = 0; i < moves.size(); i++) {
+                MoveUndo undo = board.makeMove(moves.get(i));
+                assertEquals(Move.toString(moves.get(i)), Evaluation.evaluateFromScratch(board), Evaluation.evaluate(board));
+                board.unmakeMove(undo);
+                assertEquals(before, Evaluation.evaluate(board));
+            }
+            assertEquals(board.getMiddlegameScore(), new Board(board).getMiddlegameScore());
+        }
+    }
+
+    @Test
+    public void testScoreIsFromSideToMove() {
+        Board board = new Board();
+        board.placePiece(new King(PieceColor.WHITE), 7, 4);
+        board.placePiece(new King(PieceColor.BLACK), 0, 4);
+        board.placePiece(new Rook(PieceColor.WHITE), 4, 0);
+        int white = Evaluation.evaluate(board);
+        assertTrue("An extra rook should be worth a lot.", white > 400);
+        board.setSideToMove(PieceColor.BLACK);
+        assertEquals(-white, Evaluation.evaluate(board));
+    }
+
+    @Test
+    public void testPawnStructureTerms() {
+        // White: doubled, isolated pawns on the e-file; black: a lone passed pawn on a2
+        long whitePawns = Bitboard.bit(6, 4) | Bitboard.bit(5, 4);
+        long blackPawns = Bitboard.bit(6, 0);
+        int packed = Evaluation.evaluatePawnStructure(whitePawns, blackPawns);
+        assertTrue(Evaluation.middlegamePart(packed) < 0);
+        assertTrue(Evaluation.endgamePart(packed) < 0);
+
+        int mirrored = Evaluation.evaluatePawnStructure(Bitboard.bit(1, 0), Bitboard.bit(1, 4) | Bitboard.bit(2, 4));
+        assertEquals(-Evaluation.middlegamePart(packed), Evaluation.middlegamePart(mirrored));
+        assertEquals(-Evaluation.endgamePart(packed), Evaluation.endgamePart(mirrored));
+    }
+
+    @Test
+    public void testPackRoundTripsNegativeParts() {
+        int packed = Evaluation.pack(-37, -150);
+        assertEquals(-37, Evaluation.middlegamePart(packed));
+        assertEquals(-150, Evaluation.endgamePart(packed));
+        packed = Evaluation.pack(25, -3);
+        assertEquals(25, Evaluation.middlegamePart(packed));
+        assertEquals(-3, Evaluation.endgamePart(packed));
+    }
+}
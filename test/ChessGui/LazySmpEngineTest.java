@@ -0,0 +1,95 @@
+package ChessGui;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class LazySmpEngineTest {
+
+    private Board board;
+    private LazySmpEngine engine;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+        engine = new LazySmpEngine(3, 4);
+    }
+
+    @After
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void testHelpersFindSameMate() {
+        board.placePiece(new King(PieceColor.BLACK), 0, 6);  // g8
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 5);  // f7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 6);  // g7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 7);  // h7
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);  // a1
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(4));
+        assertEquals("a1a8", Move.toString(result.getBestMove()));
+        assertTrue(result.isMate());
+    }
+
+    @Test
+    public void testSearchIsRepeatableAndCountsAllThreads() {
+        board.initializeStandardBoard();
+        long key = board.getZobristKey();
+        for (int run = 0; run < 2; run++) {
+            SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(5));
+            assertEquals(5, result.getDepth());
+            assertTrue(MoveGenerator.generateLegalMoves(board, PieceColor.WHITE).contains(result.getBestMove()));
+        }
+        assertEquals("The caller's board should not be touched.", key, board.getZobristKey());
+        assertTrue(engine.getTranspositionTable().getStores() > 0);
+    }
+
+    @Test
+    public void testStopEndsUnlimitedSearch() throws InterruptedException {
+        board.initializeStandardBoard();
+        SearchResult[] result = new SearchResult[1];
+        Thread searcher = new Thread(() -> result[0] = engine.search(board, PieceColor.WHITE, SearchLimits.depth(SearchLimits.MAX_DEPTH)));
+        searcher.start();
+        Thread.sleep(300);
+        engine.stop();
+        searcher.join(5000);
+        assertFalse("Search should finish soon after stop().", searcher.isAlive());
+        assertNotNull(result[0]);
+        assertNotEquals(Move.NONE, result[0].getBestMove());
+    }
+
+    @Test
+    public void testListenerStopsSearchThatClearedEarlierStop() throws InterruptedException {
+        board.initializeStandardBoard();
+        engine.stop(); // Too early: the search clears it as it starts
+        SearchResult[] result = new SearchResult[1];
+        SearchListener stopAtOnce = new SearchListener() {
+            @Override
+            public void onIteration(SearchResult iteration) {
+            }
+
+            @Override
+            public boolean shouldStop() {
+                return true;
+            }
+        };
+        Thread searcher = new Thread(() -> result[0] = engine.search(board, PieceColor.WHITE,
+                SearchLimits.depth(SearchLimits.MAX_DEPTH), stopAtOnce));
+        searcher.start();
+        searcher.join(5000);
+        boolean finished = !searcher.isAlive();
+        engine.stop();
+        searcher.join();
+        assertTrue("The listener's stop request should end the search.", finished);
+        assertNotEquals(Move.NONE, result[0].getBestMove());
+    }
+}
@@ -0,0 +1,98 @@
+package ChessGui;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class OpeningBookTest {
+
+    private static final String GAMES = "[Result \"1-0\"]\n1. e4 e5 2. Nf3 Nc6 1-0\n"
+            + "[Result \"1-0\"]\n1. e4 c5 2. Nf3 d6 1-0\n"
+            + "[Result \"0-1\"]\n1. d4 d5 2. c4 e6 0-1\n"
+            + "[Result \"*\"]\n1. e4 e5 2. Bc4 *\n";
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("book", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private OpeningBook build(int plies, int minGames) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies, minGames);
+        PgnReader reader = new PgnReader(new StringReader(GAMES));
+        PgnGame game;
+        while ((game = reader.next()) != null) {
+            assertTrue(builder.addGame(game));
+        }
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    public void testLookupReturnsMovesByWeight() throws IOException {
+        OpeningBook book = build(4, 1);
+        Board board = new Board();
+        board.initializeStandardBoard();
+        int[] moves = new int[8];
+        int[] weights = new int[8];
+        assertEquals(2, book.lookup(board.getZobristKey(), moves, weights));
+        // e4: two wins and an unfinished game (2 + 2 + 1); d4: one loss, kept at weight 1
+        assertEquals("e2e4", Move.toString(moves[0]));
+        assertEquals(5, weights[0]);
+        assertEquals("d2d4", Move.toString(moves[1]));
+        assertEquals(1, weights[1]);
+
+        board.makeMove(moves[0]);
+        assertEquals(2, book.lookup(board.getZobristKey(), moves, weights)); // e5 and c5
+        assertEquals(0, book.lookup(0x1234L, moves, weights));
+    }
+
+    @Test
+    public void testPickMoveStaysInBookAndIsLegal() throws IOException {
+        OpeningBook book = build(4, 1);
+        Board board = new Board();
+        board.initializeStandardBoard();
+        Random random = new Random(1);
+        for (int i = 0; i < 50; i++) {
+            int move = book.pickMove(board, random);
+            assertTrue(MoveGenerator.generateLegalMoves(board, PieceColor.WHITE).contains(move));
+        }
+        board.makeMove(San.parse(board, "a3"));
+        assertEquals("Out of book.", Move.NONE, book.pickMove(board, random));
+    }
+
+    @Test
+    public void testMinimumGamesAndPlyLimit() throws IOException {
+        OpeningBook book = build(1, 2);
+        assertEquals("Only e4, played three times, makes the cut.", 1, book.size());
+    }
+
+    @Test
+    public void testRejectsFileThatIsNotABook() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        try {
+            OpeningBook.open(file);
+            fail("A file without the book header should not open.");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PawnHashTableTest {
+
+    @Test
+    public void testCachedScoreMatchesUncachedEvaluation() {
+        PawnHashTable table = new PawnHashTable(1024);
+        for (Board board : Evaluation.randomPositions(100, 7L)) {
+            int expected = Evaluation.evaluate(board);
+            assertEquals(expected, Evaluation.evaluate(board, table));
+            assertEquals("A second lookup should give the same score.", expected, Evaluation.evaluate(board, table));
+        }
+        assertEquals(200, table.getProbes());
+        assertTrue(table.getHits() >= 100);
+    }
+
+    @Test
+    public void testPieceMovesHitTheTable() {
+        PawnHashTable table = new PawnHashTable();
+        Board board = new Board();
+        board.initializeStandardBoard();
+        Evaluation.evaluate(board, table);
+        board.movePiece(7, 6, 5, 5, true); // Nf3
+        board.movePiece(0, 1, 2, 2, true); // Nc6
+        Evaluation.evaluate(board, table);
+        assertEquals(1, table.getHits());
+
+        board.movePiece(6, 4, 4, 4, true); // e4
+        Evaluation.evaluate(board, table);
+        assertEquals("A pawn move is a new structure.", 1, table.getHits());
+        assertEquals(1.0 / 3, table.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testEmptyBoardIsNotMistakenForAnEmptySlot() {
+        PawnHashTable table = new PawnHashTable(16);
+        Board board = new Board();
+        board.placePiece(new King(PieceColor.WHITE), 7, 4);
+        board.placePiece(new King(PieceColor.BLACK), 0, 4);
+        assertEquals(0L, board.getPawnKey());
+        Evaluation.evaluate(board, table);
+        assertEquals(0, table.getHits());
+        Evaluation.evaluate(board, table);
+        assertEquals(1, table.getHits());
+    }
+}
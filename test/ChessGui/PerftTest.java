@@ -0,0 +1,115 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PerftTest {
+
+    private Board board;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+    }
+
+    // Known node counts from the standard starting position
+    @Test
+    public void testStartingPositionNodeCounts() {
+        board.initializeStandardBoard();
+        assertEquals(20, Perft.perft(board, PieceColor.WHITE, 1));
+        assertEquals(400, Perft.perft(board, PieceColor.WHITE, 2));
+        assertEquals(8902, Perft.perft(board, PieceColor.WHITE, 3));
+        assertEquals(197281, Perft.perft(board, PieceColor.WHITE, 4));
+    }
+
+    // Well-known test positions with castling, promotions and pins, set up from FEN
+    @Test
+    public void testFenPositionNodeCounts() {
+        board.setFromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(48, Perft.perft(board, board.getSideToMove(), 1));
+        assertEquals(2039, Perft.perft(board, board.getSideToMove(), 2));
+        assertEquals(97862, Perft.perft(board, board.getSideToMove(), 3));
+
+        board.setFromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        assertEquals(6, Perft.perft(board, board.getSideToMove(), 1));
+        assertEquals(264, Perft.perft(board, board.getSideToMove(), 2));
+        assertEquals(9467, Perft.perft(board, board.getSideToMove(), 3));
+
+        board.setFromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        assertEquals(44, Perft.perft(board, board.getSideToMove(), 1));
+        assertEquals(1486, Perft.perft(board, board.getSideToMove(), 2));
+        assertEquals(62379, Perft.perft(board, board.getSideToMove(), 3));
+    }
+
+    // Rook and pawn endgame exercising en passant, discovered checks and double pushes
+    @Test
+    public void testEndgamePositionNodeCounts() {
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 2);   // c7
+        board.placePiece(new Pawn(PieceColor.BLACK), 2, 3);   // d6
+        board.placePiece(new King(PieceColor.WHITE), 3, 0);   // a5
+        board.placePiece(new Pawn(PieceColor.WHITE), 3, 1);   // b5
+        board.placePiece(new Rook(PieceColor.BLACK), 3, 7);   // h5
+        board.placePiece(new Rook(PieceColor.WHITE), 4, 1);   // b4
+        board.placePiece(new Pawn(PieceColor.BLACK), 4, 5);   // f4
+        board.placePiece(new King(PieceColor.BLACK), 4, 7);   // h4
+        board.placePiece(new Pawn(PieceColor.WHITE), 6, 4);   // e2
+        board.placePiece(new Pawn(PieceColor.WHITE), 6, 6);   // g2
+        assertEquals(14, Perft.perft(board, PieceColor.WHITE, 1));
+        assertEquals(191, Perft.perft(board, PieceColor.WHITE, 2));
+        assertEquals(2812, Perft.perft(board, PieceColor.WHITE, 3));
+        assertEquals(43238, Perft.perft(board, PieceColor.WHITE, 4));
+    }
+
+    @Test
+    public void testPerftLeavesBoardUnchanged() {
+        board.initializeStandardBoard();
+        Perft.perft(board, PieceColor.WHITE, 3);
+        assertEquals(20, Perft.perft(board, PieceColor.WHITE, 1));
+        assertTrue("White King should still be at e1.", board.getPiece(7, 4) instanceof King);
+        assertEquals("Castling rights should be restored.", Board.CASTLE_ALL, board.getCastlingRights());
+        assertNull("No en passant target should remain.", board.getEnPassantTarget());
+    }
+
+    @Test
+    public void testParallelPerftMatchesSequential() {
+        board.initializeStandardBoard();
+        assertEquals(197281, Perft.parallelPerft(board, PieceColor.WHITE, 4, 4, 1));
+        assertEquals(197281, Perft.parallelPerft(board, PieceColor.WHITE, 4, 4, 2));
+        assertEquals("Parallel perft should not disturb the original board.", 20, Perft.perft(board, PieceColor.WHITE, 1));
+    }
+
+    @Test
+    public void testBoardCopyDoesNotShareCastlingState() {
+        board.initializeStandardBoard();
+        Board copy = new Board(board);
+        copy.removePiece(7, 5);
+        copy.removePiece(7, 6);
+        copy.movePiece(7, 4, 7, 6, true);
+        assertTrue("Copy should have castled.", copy.getPiece(7, 6) instanceof King);
+        assertEquals("Copy should have lost white's castling rights.", 0,
+                copy.getCastlingRights() & (Board.CASTLE_WHITE_KINGSIDE | Board.CASTLE_WHITE_QUEENSIDE));
+        assertEquals("Original castling rights should be unaffected.", Board.CASTLE_ALL, board.getCastlingRights());
+        assertTrue("Original king should be unaffected.", board.getPiece(7, 4) instanceof King);
+    }
+
+    @Test
+    public void testDivideSumsToPerft() {
+        board.initializeStandardBoard();
+        Map<String, Long> divide = Perft.divide(board, PieceColor.WHITE, 3);
+        assertEquals(20, divide.size());
+        assertEquals(Long.valueOf(600), divide.get("e2e4"));
+        long total = 0;
+        for (long count : divide.values()) {
+            total += count;
+        }
+        assertEquals(8902, total);
+    }
+}
@@ -0,0 +1,153 @@
+package ChessGui;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PgnImporterTest {
+
+    private static int databases;
+    private String url;
+    private Connection connection;
+    private Path pgn;
+
+    @Before
+    public void setUp() throws SQLException, IOException {
+        url = "jdbc:derby:memory:importTest" + (databases++);
+        connection = DriverManager.getConnection(url + ";create=true");
+        pgn = Files.createTempFile("import", ".pgn");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try {
+            connection.close();
+            DriverManager.getConnection(url + ";drop=true");
+        } catch (SQLException e) {
+            // Dropping an in-memory database is reported as an exception
+        }
+        Files.deleteIfExists(pgn);
+    }
+
+    private static String game(String white, String black, String moves, String result) {
+        return "[White \"" + white + "\"]\n[Black \"" + black + "\"]\n[Result \"" + result + "\"]\n\n"
+                + moves + " " + result + "\n\n";
+    }
+
+    private void append(String text) throws IOException {
+        Files.write(pgn, text.getBytes(StandardCharsets.ISO_8859_1), StandardOpenOption.APPEND);
+    }
+
+    // "white-black-winner" for each match, in match_id order
+    private List<String> matches() throws SQLException {
+        List<String> matches = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT white_player_name, black_player_name, winner_name FROM MATCHES ORDER BY match_id")) {
+            while (rs.next()) {
+                matches.add(rs.getString(1) + "-" + rs.getString(2) + "-" + rs.getString(3));
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void testImportsFinishedLegalGamesOnly() throws IOException, SQLException {
+        append(game("Alice", "Bob", "1. f3 e5 2. g4 Qh4#", "0-1")
+                + game("Bob", "Carol", "1. e4 e5 2. Ke3", "1-0") // Illegal
+                + game("Carol", "Dave", "1. d4 d5", "*")         // Unfinished
+                + game("?", "Dave", "1. d4 d5", "1-0")           // No name
+                + game("Carol, C.", "Dave", "1. c4 c5", "1/2-1/2"));
+        PgnImporter importer = new PgnImporter(connection, 2, 100, message -> { });
+        importer.importFile(pgn);
+        assertEquals(5, importer.getGamesRead());
+        assertEquals(3, importer.getGamesRejected());
+        assertEquals(2, importer.getMatchesInserted());
+        assertEquals(4, importer.getPlayersAdded());
+        List<String> expected = new ArrayList<>();
+        expected.add("Alice-Bob-Bob");
+        expected.add("Carol, C.-Dave-null");
+        assertEquals(expected, matches());
+
+        // The moves are stored with each match, ready to replay
+        PlayerData playerData = new PlayerData(connection, message -> { });
+        Board board = new Board();
+        assertEquals(4, playerData.replayMatch(1, board).length);
+        assertEquals("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", board.toFen());
+        assertEquals(2, playerData.replayAllMatches((matchId, position, moves) -> { }));
+    }
+
+    // Matches go in in file order whatever the thread count, and importing the file again after
+    // more games were added to it only adds the new ones
+    @Test
+    public void testKeepsFileOrderAndResumes() throws IOException, SQLException {
+        StringBuilder first = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2300; i++) {
+            String white = "W" + (i % 37), black = "B" + i;
+            first.append(game(white, black, "1. e4 e5", (i % 2 == 0) ? "1-0" : "0-1"));
+            expected.add(white + "-" + black + "-" + ((i % 2 == 0) ? white : black));
+        }
+        append(first.toString());
+        PgnImporter importer = new PgnImporter(connection, 4, 300, message -> { });
+        importer.importFile(pgn);
+        assertEquals(expected, matches());
+
+        append(game("Late", "Comer", "1. d4", "1/2-1/2"));
+        expected.add("Late-Comer-null");
+        PgnImporter resumed = new PgnImporter(connection, 3, 300, message -> { });
+        resumed.importFile(pgn);
+        assertEquals(2300, resumed.getGamesSkipped());
+        assertEquals(1, resumed.getMatchesInserted());
+        assertEquals(expected, matches());
+
+        resumed.importFile(pgn);
+        assertEquals("Nothing new to import.", expected, matches());
+    }
+
+    // Players from a batch that was rolled back are inserted again when the same importer retries
+    @Test
+    public void testRetriesPlayersOfFailedBatch() throws IOException, SQLException {
+        append(game("Alice", "Bob", "1. e4 e5", "1-0") + game("Carol", "Zed", "1. d4 d5", "0-1"));
+        PgnImporter importer = new PgnImporter(connection, 2, 100, message -> { });
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE MATCHES ADD CONSTRAINT no_zed CHECK (black_player_name <> 'Zed')");
+        }
+        try {
+            importer.importFile(pgn);
+            fail("The batch should have failed on Zed's match.");
+        } catch (SQLException e) {
+            // Rolled back, players included
+        }
+        assertEquals(0, importer.getPlayersAdded());
+        assertTrue(matches().isEmpty());
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE MATCHES DROP CONSTRAINT no_zed");
+        }
+        importer.importFile(pgn);
+        assertEquals(4, importer.getPlayersAdded());
+        List<String> expected = new ArrayList<>();
+        expected.add("Alice-Bob-Alice");
+        expected.add("Carol-Zed-Zed");
+        assertEquals(expected, matches());
+    }
+}
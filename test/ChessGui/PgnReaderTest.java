@@ -0,0 +1,87 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PgnReaderTest {
+
+    @Test
+    public void testReadsTagsMovesAndResult() throws IOException {
+        String pgn = "[Event \"Club \\\"Open\\\"\"]\n[White \"Alice\"]\n[Black \"Bob\"]\n[Result \"1-0\"]\n\n"
+                + "1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6?? 4. Qxf7# 1-0\n";
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        PgnGame game = reader.next();
+        assertEquals("Club \"Open\"", game.getTag("Event"));
+        assertEquals("Alice", game.getTag("White"));
+        assertEquals(Arrays.asList("e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6??", "Qxf7#"), game.getMoves());
+        assertEquals(1, game.getResultValue());
+        assertNull(reader.next());
+        assertEquals(1, reader.getGamesRead());
+    }
+
+    @Test
+    public void testSkipsCommentsVariationsAndGlyphs() throws IOException {
+        String pgn = "1. d4 {A comment (with brackets)} d5 $1 2. c4 (2. Nf3 Nf6 (2... c5) 3. g3) 2... e6 ; rest of line\n"
+                + "% escaped line e4 e5\n3.Nc3 Nf6 1/2-1/2";
+        PgnGame game = new PgnReader(new StringReader(pgn)).next();
+        assertEquals(Arrays.asList("d4", "d5", "c4", "e6", "Nc3", "Nf6"), game.getMoves());
+        assertEquals(PgnGame.DRAW, game.getResult());
+    }
+
+    @Test
+    public void testReadsSeveralGamesIncludingOneWithoutResult() throws IOException {
+        String pgn = "[Result \"0-1\"]\n1. f3 e5 2. g4 Qh4# 0-1\n\n"
+                + "[Result \"*\"]\n1. e4 c5\n\n"
+                + "[Event \"Last\"]\n1. 0-0\n";
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        assertEquals(-1, reader.next().getResultValue());
+        PgnGame unfinished = reader.next();
+        assertEquals(Arrays.asList("e4", "c5"), unfinished.getMoves());
+        PgnGame last = reader.next();
+        assertEquals("Last", last.getTag("Event"));
+        assertEquals("Castling with zeros is a move, not a move number.", Arrays.asList("0-0"), last.getMoves());
+        assertNull(reader.next());
+        assertEquals(3, reader.getGamesRead());
+    }
+
+    @Test
+    public void testReplayPlaysTheMainLine() throws IOException {
+        PgnGame game = new PgnReader(new StringReader("1. f3 e5 2. g4 Qh4# 0-1")).next();
+        Board board = new Board();
+        int[] moves = game.replay(board);
+        assertEquals(4, moves.length);
+        assertEquals("d8h4", Move.toString(moves[3]));
+        assertEquals("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", board.toFen());
+    }
+
+    @Test
+    public void testReplayStartsFromFenTag() throws IOException {
+        String pgn = "[FEN \"4k3/8/8/8/8/8/4P3/4K3 b - - 0 30\"]\n30... Kd7 31. e4 *";
+        PgnGame game = new PgnReader(new StringReader(pgn)).next();
+        Board board = new Board();
+        game.replay(board);
+        assertEquals("8/3k4/8/8/4P3/8/8/4K3 b - e3 0 31", board.toFen());
+    }
+
+    @Test
+    public void testReplayReportsTheIllegalMove() throws IOException {
+        PgnGame game = new PgnReader(new StringReader("1. e4 e5 2. Nf3 Nf6 3. Bc4 Bc5 4. Ke2 Ke7 5. Ke1 Ke8 6. O-O *")).next();
+        Board board = new Board();
+        try {
+            game.replay(board);
+            fail("Castling after the king has moved should be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Illegal move 6. O-O", e.getMessage());
+        }
+        assertEquals("The board should be left before the bad move.", 6, board.getFullmoveNumber());
+    }
+}
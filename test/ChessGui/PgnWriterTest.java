@@ -0,0 +1,95 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PgnWriterTest {
+
+    private static String write(PgnGame... games) throws IOException {
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        for (PgnGame game : games) {
+            writer.write(game);
+        }
+        assertEquals(games.length, writer.getGamesWritten());
+        return out.toString();
+    }
+
+    @Test
+    public void testWritesSevenTagRosterFirst() throws IOException {
+        PgnGame game = new PgnGame();
+        game.setTag("ECO", "C20");
+        game.setTag("White", "Alice \"The Rook\"");
+        game.setTag("Event", "Club");
+        game.addMove("e4");
+        game.addMove("e5");
+        game.setResult(PgnGame.DRAW);
+        String expected = "[Event \"Club\"]\n[Site \"?\"]\n[Date \"?\"]\n[Round \"?\"]\n"
+                + "[White \"Alice \\\"The Rook\\\"\"]\n[Black \"?\"]\n[Result \"1/2-1/2\"]\n[ECO \"C20\"]\n\n"
+                + "1. e4 e5 1/2-1/2\n\n";
+        assertEquals(expected, write(game));
+    }
+
+    @Test
+    public void testNumbersMovesFromSetUpPosition() throws IOException {
+        PgnGame game = new PgnGame();
+        game.setTag("FEN", "4k3/8/8/8/8/8/4P3/4K3 b - - 3 12");
+        game.addMove("Kd7");
+        game.addMove("e4");
+        game.addMove("Ke6");
+        String pgn = write(game);
+        assertTrue(pgn, pgn.endsWith("\n\n12... Kd7 13. e4 Ke6 *\n\n"));
+    }
+
+    // Random legal games, including promotions and long ones, survive writing, reading back and
+    // replaying move for move
+    @Test
+    public void testRandomGamesRoundTrip() throws IOException {
+        Random random = new Random(22);
+        PgnGame[] games = new PgnGame[20];
+        int[][] played = new int[games.length][];
+        for (int g = 0; g < games.length; g++) {
+            Board board = new Board();
+            board.initializeStandardBoard();
+            games[g] = new PgnGame();
+            games[g].setTag("Round", Integer.toString(g + 1));
+            MoveList moves = new MoveList();
+            for (int ply = 0; ply < 200; ply++) {
+                MoveList legalMoves = MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                int move = legalMoves.get(random.nextInt(legalMoves.size()));
+                games[g].addMove(San.toSan(board, move));
+                moves.add(move);
+                board.makeMove(move);
+            }
+            games[g].setResult(PgnGame.UNKNOWN);
+            played[g] = moves.toArray();
+        }
+
+        String pgn = write(games);
+        for (String line : pgn.split("\n")) {
+            assertTrue("Line too long: " + line, line.length() <= 79);
+        }
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        Board board = new Board();
+        for (int g = 0; g < games.length; g++) {
+            PgnGame game = reader.next();
+            assertEquals(Integer.toString(g + 1), game.getTag("Round"));
+            assertEquals(games[g].getMoves(), game.getMoves());
+            assertArrayEquals(played[g], game.replay(board));
+        }
+        assertNull(reader.next());
+    }
+}
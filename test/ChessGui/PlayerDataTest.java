@@ -0,0 +1,201 @@
+package ChessGui;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class PlayerDataTest {
+
+    private static int databases;
+    private String url;
+    private Connection connection;
+    private PlayerData playerData;
+    private final List<String> log = new ArrayList<>();
+
+    @Before
+    public void setUp() throws SQLException {
+        url = "jdbc:derby:memory:playerDataTest" + (databases++);
+        connection = DriverManager.getConnection(url + ";create=true");
+        playerData = new PlayerData(connection, log::add);
+        playerData.checkOrAddPlayer("Alice");
+        playerData.checkOrAddPlayer("Bob");
+    }
+
+    @After
+    public void tearDown() {
+        try {
+            connection.close();
+            DriverManager.getConnection(url + ";drop=true");
+        } catch (SQLException e) {
+            // Dropping an in-memory database is reported as an exception
+        }
+    }
+
+    private static int[] play(String... sans) {
+        Board board = new Board();
+        board.initializeStandardBoard();
+        int[] moves = new int[sans.length];
+        for (int i = 0; i < sans.length; i++) {
+            moves[i] = San.parse(board, sans[i]);
+            board.makeMove(moves[i]);
+        }
+        return moves;
+    }
+
+    @Test
+    public void testMovesRoundTripThroughTwoBytesEach() {
+        int[] moves = play("e4", "d5", "exd5", "c6", "dxc6", "Nf6", "cxb7", "Nbd7", "bxa8=N");
+        byte[] bytes = Move.toBytes(moves);
+        assertEquals(2 * moves.length, bytes.length);
+        assertArrayEquals(moves, Move.fromBytes(bytes));
+    }
+
+    @Test
+    public void testStoresAndReplaysMatchMoves() {
+        int[] scholarsMate = play("e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6", "Qxf7#");
+        playerData.updateGameResults("Alice", "Bob", 1, scholarsMate);
+        playerData.updateGameResults("Bob", "Alice", 0); // No moves stored
+        int[] foolsMate = play("f3", "e5", "g4", "Qh4#");
+        playerData.updateGameResults("Alice", "Bob", -1, foolsMate);
+
+        assertArrayEquals(scholarsMate, playerData.getMatchMoves(1));
+        assertNull(playerData.getMatchMoves(2));
+        Board board = new Board();
+        assertArrayEquals(foolsMate, playerData.replayMatch(3, board));
+        assertEquals("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", board.toFen());
+        assertNull(playerData.replayMatch(2, board));
+
+        List<String> visited = new ArrayList<>();
+        long count = playerData.replayAllMatches((matchId, position, moves) ->
+                visited.add(matchId + ":" + moves.length + ":" + MoveGenerator.generateLegalMoves(position, position.getSideToMove()).size()));
+        assertEquals(2, count);
+        List<String> expected = new ArrayList<>();
+        expected.add("1:7:0"); // Both end in mate
+        expected.add("3:4:0");
+        assertEquals(expected, visited);
+        assertTrue(log.toString(), log.stream().noneMatch(line -> line.startsWith("Database Error")));
+    }
+
+    @Test
+    public void testRecordsHowGamesEnded() throws SQLException {
+        playerData.updateGameResults("Alice", "Bob", -1, null, PgnGame.TIME_FORFEIT);
+        playerData.updateGameResults("Bob", "Alice", 1, null, PgnGame.NORMAL_TERMINATION);
+        playerData.updateGameResults("Alice", "Bob", 0); // Not known
+        List<String> terminations = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT termination FROM MATCHES ORDER BY match_id")) {
+            while (rs.next()) {
+                terminations.add(rs.getString(1));
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        expected.add("time forfeit");
+        expected.add("normal");
+        expected.add(null);
+        assertEquals(expected, terminations);
+        String history = playerData.getMatchHistory();
+        assertTrue(history, history.contains("ID 1: Alice (W) vs Bob (B) - Bob won (time forfeit)"));
+        assertTrue(history, history.contains(String.format("ID 2: Bob (W) vs Alice (B) - Bob won%n")));
+    }
+
+    @Test
+    public void testAddsTerminationToOlderMatchesTable() throws SQLException {
+        String oldUrl = "jdbc:derby:memory:playerDataTest" + (databases++);
+        try (Connection old = DriverManager.getConnection(oldUrl + ";create=true")) {
+            try (Statement stmt = old.createStatement()) {
+                stmt.execute("CREATE TABLE PLAYERS (name VARCHAR(50) NOT NULL PRIMARY KEY, wins INT DEFAULT 0, "
+                        + "losses INT DEFAULT 0, ties INT DEFAULT 0, elo DOUBLE DEFAULT 1000.0)");
+                stmt.execute("CREATE TABLE MATCHES (match_id INT NOT NULL GENERATED ALWAYS AS IDENTITY, "
+                        + "white_player_name VARCHAR(50) NOT NULL, black_player_name VARCHAR(50) NOT NULL, "
+                        + "winner_name VARCHAR(50), PRIMARY KEY (match_id))");
+            }
+            PlayerData upgraded = new PlayerData(old, log::add);
+            upgraded.checkOrAddPlayer("Alice");
+            upgraded.checkOrAddPlayer("Bob");
+            upgraded.updateGameResults("Alice", "Bob", 1, null, PgnGame.TIME_FORFEIT);
+            try (Statement stmt = old.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT termination FROM MATCHES")) {
+                assertTrue(rs.next());
+                assertEquals(PgnGame.TIME_FORFEIT, rs.getString(1));
+            }
+        } finally {
+            try {
+                DriverManager.getConnection(oldUrl + ";drop=true");
+            } catch (SQLException e) {
+                // Dropping an in-memory database is reported as an exception
+            }
+        }
+    }
+
+    // Every player's stats, exactly, in name order
+    private List<String> stats() throws SQLException {
+        List<String> stats = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name, wins, losses, ties, elo FROM PLAYERS ORDER BY name")) {
+            while (rs.next()) {
+                stats.add(rs.getString(1) + " " + rs.getInt(2) + "/" + rs.getInt(3) + "/" + rs.getInt(4) + " " + rs.getDouble(5));
+            }
+        }
+        return stats;
+    }
+
+    private void playMatches(int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            String white = "P" + (i % 5), black = "P" + ((i * 3 + 1) % 7);
+            if (!white.equals(black)) {
+                playerData.checkOrAddPlayer(white);
+                playerData.checkOrAddPlayer(black);
+                playerData.updateGameResults(white, black, (i % 3) - 1);
+            }
+        }
+    }
+
+    private List<String> statsFromFullReplay() throws SQLException {
+        playerData.debugClearCheckpoints();
+        playerData.recalculateAllRankings();
+        return stats();
+    }
+
+    @Test
+    public void testRecalculationResumesFromCheckpoints() throws SQLException {
+        playerData.setCheckpointInterval(5);
+        playMatches(0, 24);
+        List<String> live = stats();
+        playerData.recalculateAllRankings();
+        long matches = playerData.getLastMatchesReplayed();
+        assertTrue(matches > 15);
+        assertEquals("Recalculating should agree with the stats kept game by game.", live, stats());
+
+        playMatches(24, 6);
+        playerData.recalculateAllRankings();
+        long added = playerData.getLastMatchesReplayed();
+        assertTrue("Only the new matches should be replayed.", added > 0 && added <= 6);
+        List<String> incremental = stats();
+        assertEquals(incremental, statsFromFullReplay());
+        assertEquals(matches + added, playerData.getLastMatchesReplayed());
+
+        // Deleting an early match invalidates every checkpoint after it
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM MATCHES WHERE match_id = 3");
+        }
+        playerData.recalculateAllRankings();
+        assertEquals(matches + added - 1, playerData.getLastMatchesReplayed());
+        List<String> afterDelete = stats();
+        assertEquals(afterDelete, statsFromFullReplay());
+        assertTrue(log.toString(), log.stream().noneMatch(line -> line.startsWith("Database Error")));
+    }
+}
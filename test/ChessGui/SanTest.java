@@ -0,0 +1,122 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class SanTest {
+
+    private Board board;
+
+    @Before
+    public void setUp() {
+        board = new Board();
+    }
+
+    private int play(String san) {
+        int move = San.parse(board, san);
+        assertNotEquals("Should parse " + san, Move.NONE, move);
+        board.makeMove(move);
+        return move;
+    }
+
+    @Test
+    public void testParsesOpeningMoves() {
+        board.initializeStandardBoard();
+        assertEquals("e2e4", Move.toString(play("e4")));
+        assertEquals("e7e5", Move.toString(play("e5")));
+        assertEquals("g1f3", Move.toString(play("Nf3")));
+        assertEquals("b8c6", Move.toString(play("Nc6")));
+        assertEquals("f1b5", Move.toString(play("Bb5")));
+        assertEquals("a7a6", Move.toString(play("a6")));
+        assertEquals("b5c6", Move.toString(play("Bxc6")));
+        assertEquals("d7c6", Move.toString(play("dxc6")));
+        assertEquals("e1g1", Move.toString(play("O-O")));
+        assertEquals("Black can't castle through its own queen.", Move.NONE, San.parse(board, "O-O-O!?"));
+    }
+
+    @Test
+    public void testRejectsIllegalAndAmbiguousMoves() {
+        board.initializeStandardBoard();
+        assertEquals(Move.NONE, San.parse(board, "e5"));
+        assertEquals(Move.NONE, San.parse(board, "Nd2"));
+        assertEquals(Move.NONE, San.parse(board, "O-O"));
+        assertEquals(Move.NONE, San.parse(board, "zz"));
+
+        // Two rooks can reach d1
+        board = new Board();
+        board.placePiece(new King(PieceColor.WHITE), 7, 4);
+        board.placePiece(new King(PieceColor.BLACK), 0, 4);
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 7);
+        board.removePiece(7, 4);
+        board.placePiece(new King(PieceColor.WHITE), 6, 4);
+        assertEquals(Move.NONE, San.parse(board, "Rd1"));
+        assertEquals("a1d1", Move.toString(San.parse(board, "Rad1")));
+        assertEquals("h1d1", Move.toString(San.parse(board, "Rhd1")));
+    }
+
+    @Test
+    public void testToSanRoundTrips() {
+        board.initializeStandardBoard();
+        String[] game = {"e4", "d5", "exd5", "Qxd5", "Nc3", "Qa5", "d4", "Nf6", "Nf3", "Bf5", "Bc4", "e6", "O-O", "Nbd7"};
+        for (String san : game) {
+            int move = San.parse(board, san);
+            assertEquals(san, San.toSan(board, move));
+            board.makeMove(move);
+        }
+    }
+
+    @Test
+    public void testCheckMateAndPromotionSuffixes() {
+        board.placePiece(new King(PieceColor.BLACK), 0, 6);  // g8
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 5);  // f7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 6);  // g7
+        board.placePiece(new Pawn(PieceColor.BLACK), 1, 7);  // h7
+        board.placePiece(new Rook(PieceColor.WHITE), 7, 0);  // a1
+        board.placePiece(new King(PieceColor.WHITE), 7, 6);  // g1
+        board.placePiece(new Pawn(PieceColor.WHITE), 1, 1);  // b7
+        assertEquals("Ra8#", San.toSan(board, San.parse(board, "Ra8")));
+        int promotion = San.parse(board, "b8=N");
+        assertEquals("b7b8n", Move.toString(promotion));
+        assertEquals(promotion, San.parse(board, "b8N"));
+        assertEquals("The queen covers the back rank too.", "b8=Q#", San.toSan(board, San.parse(board, "b8=Q")));
+    }
+
+    // Parsing without a move list works back from the destination; it must find exactly what
+    // choosing from the legal moves finds, pins, en passant and promotions included
+    @Test
+    public void testParseWithoutMoveListAgreesWithLegalMoves() {
+        Random random = new Random(22);
+        for (int game = 0; game < 40; game++) {
+            board = new Board();
+            board.initializeStandardBoard();
+            for (int ply = 0; ply < 150; ply++) {
+                MoveList legalMoves = MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < legalMoves.size(); i++) {
+                    String san = San.toSan(board, legalMoves.get(i));
+                    assertEquals(san + " in " + board.toFen(), legalMoves.get(i), San.parse(board, san));
+                    assertEquals(legalMoves.get(i), San.parse(board, san, legalMoves));
+                }
+                board.makeMove(legalMoves.get(random.nextInt(legalMoves.size())));
+            }
+        }
+
+        // The knight on c3 is pinned, so "Ne2" can only be the other one
+        board = Board.fromFen("4k3/8/8/b7/8/2N5/8/4K1N1 w - - 0 1");
+        assertEquals("g1e2", Move.toString(San.parse(board, "Ne2")));
+        board = Board.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        assertEquals("e5d6", Move.toString(San.parse(board, "exd6")));
+        assertEquals(Move.NONE, San.parse(board, "exf6"));
+    }
+}
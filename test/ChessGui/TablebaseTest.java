@@ -0,0 +1,229 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class TablebaseTest {
+
+    // Generated once for the whole class, since it takes a few seconds
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    private static synchronized Tablebase tablebase() throws IOException {
+        if (tablebase == null) {
+            Path file = Files.createTempFile("tablebase", ".bin");
+            file.toFile().deleteOnExit();
+            generator = new TablebaseGenerator(2);
+            generator.write(file);
+            tablebase = Tablebase.open(file);
+        }
+        return tablebase;
+    }
+
+    private static void place(Board board, PieceType type, PieceColor color, String square) {
+        board.placePiece(Piece.of(type, color), '8' - square.charAt(1), square.charAt(0) - 'a');
+    }
+
+    private static void place(Board board, PieceType type, PieceColor color, int square) {
+        board.placePiece(Piece.of(type, color), Bitboard.rowOf(square), Bitboard.colOf(square));
+    }
+
+    private static Board position(PieceColor sideToMove) {
+        Board board = new Board();
+        board.initializeEmptyBoard();
+        board.setSideToMove(sideToMove);
+        return board;
+    }
+
+    @Test
+    public void testGenerationIsReproducibleAcrossThreadCounts() {
+        byte[] oneThread = new TablebaseGenerator(1).generate(Bitboard.ROOK);
+        byte[] threeThreads = new TablebaseGenerator(3).generate(Bitboard.ROOK);
+        assertArrayEquals("Thread count should not change the table.", oneThread, threeThreads);
+    }
+
+    @Test
+    public void testLongestMatesAreTheKnownOnes() throws IOException {
+        tablebase();
+        // Ten moves with the queen, sixteen with the rook
+        assertEquals(19, longestMate(generator.generate(Bitboard.QUEEN)));
+        assertEquals(31, longestMate(generator.generate(Bitboard.ROOK)));
+    }
+
+    private static int longestMate(byte[] table) {
+        int longest = 0;
+        for (byte result : table) {
+            if (Tablebase.isWin(result)) {
+                longest = Math.max(longest, Tablebase.pliesToMate(result));
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    public void testMateInOneForEitherColour() throws IOException {
+        Board board = position(PieceColor.WHITE);
+        place(board, PieceType.KING, PieceColor.WHITE, "g6");
+        place(board, PieceType.QUEEN, PieceColor.WHITE, "b1");
+        place(board, PieceType.KING, PieceColor.BLACK, "h8");
+        int result = tablebase().probe(board);
+        assertTrue(Tablebase.isWin(result));
+        assertEquals(1, Tablebase.pliesToMate(result));
+        assertEquals("WHITE mates in 1", Tablebase.describe(result, PieceColor.WHITE));
+
+        // The same with the colours swapped and the board turned over
+        Board flipped = position(PieceColor.BLACK);
+        place(flipped, PieceType.KING, PieceColor.BLACK, "g3");
+        place(flipped, PieceType.QUEEN, PieceColor.BLACK, "b8");
+        place(flipped, PieceType.KING, PieceColor.WHITE, "h1");
+        assertEquals(result, tablebase().probe(flipped));
+        assertEquals("BLACK mates in 1", Tablebase.describe(result, PieceColor.BLACK));
+    }
+
+    @Test
+    public void testPawnEndings() throws IOException {
+        // King on the sixth in front of its pawn wins whoever moves
+        for (PieceColor side : PieceColor.values()) {
+            Board board = position(side);
+            place(board, PieceType.KING, PieceColor.WHITE, "e6");
+            place(board, PieceType.PAWN, PieceColor.WHITE, "e5");
+            place(board, PieceType.KING, PieceColor.BLACK, "e8");
+            int result = tablebase().probe(board);
+            assertTrue("White should win with " + side + " to move.",
+                    (side == PieceColor.WHITE) ? Tablebase.isWin(result) : Tablebase.isLoss(result));
+        }
+
+        // Rook pawn with the defending king in the corner
+        Board rookPawn = position(PieceColor.WHITE);
+        place(rookPawn, PieceType.KING, PieceColor.WHITE, "g5");
+        place(rookPawn, PieceType.PAWN, PieceColor.WHITE, "h5");
+        place(rookPawn, PieceType.KING, PieceColor.BLACK, "h8");
+        assertEquals(Tablebase.DRAW, tablebase().probe(rookPawn));
+
+        // Stalemate
+        Board stalemate = position(PieceColor.BLACK);
+        place(stalemate, PieceType.KING, PieceColor.WHITE, "b6");
+        place(stalemate, PieceType.PAWN, PieceColor.WHITE, "a7");
+        place(stalemate, PieceType.KING, PieceColor.BLACK, "a8");
+        assertEquals(Tablebase.DRAW, tablebase().probe(stalemate));
+    }
+
+    @Test
+    public void testOtherPositionsAreNotFound() throws IOException {
+        Board board = new Board();
+        board.initializeStandardBoard();
+        assertEquals(Tablebase.NOT_FOUND, tablebase().probe(board));
+
+        Board bishop = position(PieceColor.WHITE);
+        place(bishop, PieceType.KING, PieceColor.WHITE, "e1");
+        place(bishop, PieceType.BISHOP, PieceColor.WHITE, "c1");
+        place(bishop, PieceType.KING, PieceColor.BLACK, "e8");
+        assertEquals(Tablebase.NOT_FOUND, tablebase().probe(bishop));
+
+        // King and rook on their home squares, still able to castle
+        Board castling = position(PieceColor.WHITE);
+        place(castling, PieceType.KING, PieceColor.WHITE, "e1");
+        place(castling, PieceType.ROOK, PieceColor.WHITE, "h1");
+        place(castling, PieceType.KING, PieceColor.BLACK, "e8");
+        castling.setCastlingRights(Board.CASTLE_WHITE_KINGSIDE);
+        assertEquals(Tablebase.NOT_FOUND, tablebase().probe(castling));
+        castling.setCastlingRights(0);
+        assertNotEquals(Tablebase.NOT_FOUND, tablebase().probe(castling));
+    }
+
+    // Every result follows from the results after each legal move, as the move generator sees them
+    @Test
+    public void testResultsAgreeWithMoveGenerator() throws IOException {
+        Random random = new Random(20);
+        for (int piece : Tablebase.PIECES) {
+            int checked = 0;
+            while (checked < 1500) {
+                int strongKing = random.nextInt(64), square = random.nextInt(64), weakKing = random.nextInt(64);
+                PieceColor side = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+                if (strongKing == square || strongKing == weakKing || square == weakKing
+                        || (Attacks.king(strongKing) & (1L << weakKing)) != 0
+                        || (piece == Bitboard.PAWN && (Bitboard.rowOf(square) == 0 || Bitboard.rowOf(square) == 7))) {
+                    continue;
+                }
+                Board board = position(side);
+                place(board, PieceType.KING, PieceColor.WHITE, strongKing);
+                place(board, PieceType.fromIndex(piece), PieceColor.WHITE, square);
+                place(board, PieceType.KING, PieceColor.BLACK, weakKing);
+                board.setCastlingRights(0);
+                if (board.isKingInCheck(side.opposite())) {
+                    continue; // Not a legal position
+                }
+                assertEquals("Result for " + strongKing + "/" + square + "/" + weakKing + " " + side,
+                        expectedResult(board), tablebase().probe(board));
+                checked++;
+            }
+        }
+    }
+
+    private static int expectedResult(Board board) throws IOException {
+        PieceColor side = board.getSideToMove();
+        MoveList moves = MoveGenerator.generateLegalMoves(board, side);
+        if (moves.isEmpty()) {
+            return board.isKingInCheck(side) ? -1 : Tablebase.DRAW;
+        }
+        int fastestWin = Integer.MAX_VALUE, slowestLoss = -1;
+        boolean allLose = true;
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndo undo = board.makeMove(moves.get(i));
+            int reply = tablebase().probe(board);
+            board.unmakeMove(undo);
+            if (reply == Tablebase.NOT_FOUND) {
+                reply = Tablebase.DRAW; // Bare kings, or king and minor piece against king
+            }
+            if (Tablebase.isLoss(reply)) {
+                fastestWin = Math.min(fastestWin, Tablebase.pliesToMate(reply) + 1);
+            }
+            if (Tablebase.isWin(reply)) {
+                slowestLoss = Math.max(slowestLoss, Tablebase.pliesToMate(reply) + 1);
+            } else {
+                allLose = false;
+            }
+        }
+        if (fastestWin != Integer.MAX_VALUE) {
+            return fastestWin + 1;
+        }
+        return allLose ? -(slowestLoss + 1) : Tablebase.DRAW;
+    }
+
+    @Test
+    public void testSearchPlaysTheShortestMate() throws IOException {
+        // The first position in the rook table that takes at least 25 plies to mate
+        tablebase();
+        byte[] table = generator.generate(Bitboard.ROOK);
+        int index = 0;
+        while (!Tablebase.isWin(table[index]) || Tablebase.pliesToMate(table[index]) < 25) {
+            index++;
+        }
+        Board board = position(PieceColor.WHITE);
+        place(board, PieceType.KING, PieceColor.WHITE, (index >>> 12) & 63);
+        place(board, PieceType.ROOK, PieceColor.WHITE, (index >>> 6) & 63);
+        place(board, PieceType.KING, PieceColor.BLACK, index & 63);
+        board.setCastlingRights(0);
+        int plies = Tablebase.pliesToMate(tablebase().probe(board));
+        assertTrue(plies >= 25);
+
+        AlphaBetaEngine engine = new AlphaBetaEngine();
+        engine.setTablebase(tablebase());
+        SearchResult result = engine.search(board, PieceColor.WHITE, SearchLimits.depth(3));
+        assertTrue(result.isMate());
+        assertEquals((plies + 1) / 2, result.getMateIn());
+        assertTrue(engine.getTablebaseHits() > 0);
+        board.makeMove(result.getBestMove());
+        assertEquals("The move should keep to the shortest mate.", -plies, tablebase().probe(board));
+    }
+}
@@ -0,0 +1,37 @@
+package ChessGui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class TimeManagerTest {
+
+    @Test
+    public void testSpendsMoreOfTheClockAsTheGameGoesOn() {
+        TimeControl blitz = new TimeControl(5 * 60_000, 0, 0);
+        long opening = TimeManager.allocate(300_000, blitz, 1);
+        long later = TimeManager.allocate(300_000, blitz, 40);
+        assertTrue(opening > 0 && opening < 300_000 / 20);
+        assertTrue(later > opening);
+    }
+
+    @Test
+    public void testIncrementAndDelayAddTime() {
+        long plain = TimeManager.allocate(60_000, new TimeControl(60_000, 0, 0), 10);
+        assertTrue(TimeManager.allocate(60_000, new TimeControl(60_000, 2_000, 0), 10) > plain);
+        assertEquals(plain + 3_000, TimeManager.allocate(60_000, new TimeControl(60_000, 0, 3_000), 10));
+    }
+
+    @Test
+    public void testNeverRisksTheFlag() {
+        TimeControl bullet = new TimeControl(60_000, 0, 0);
+        assertTrue(TimeManager.allocate(600, bullet, 30) <= 200);
+        assertTrue(TimeManager.allocate(0, bullet, 30) > 0);
+        // Even a big increment can't be spent before it has been earned
+        assertTrue(TimeManager.allocate(1_000, new TimeControl(60_000, 30_000, 0), 30) < 1_000);
+    }
+}
@@ -0,0 +1,99 @@
+package ChessGui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Corban Guy, Naz Janif
+ */
+public class TranspositionTableTest {
+
+    private TranspositionTable table;
+
+    @Before
+    public void setUp() {
+        table = new TranspositionTable(1);
+    }
+
+    @Test
+    public void testStoreAndProbeRoundTrip() {
+        int move = Move.encode(52, 36, Move.DOUBLE_PAWN_PUSH);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -AlphaBetaEngine.MATE + 3, 12, TranspositionTable.BOUND_LOWER);
+
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertNotEquals(0L, entry);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-AlphaBetaEngine.MATE + 3, TranspositionTable.score(entry));
+        assertEquals(12, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+        assertEquals("A different key must miss.", 0L, table.probe(0x1234_5678_9ABC_DEF1L));
+        assertEquals(1, table.getHits());
+        assertEquals(2, table.getProbes());
+    }
+
+    @Test
+    public void testSizeIsPowerOfTwo() {
+        assertEquals(1024 * 1024, table.getSizeBytes());
+        assertEquals(65536, new TranspositionTable(1).getCapacity());
+        assertEquals(2 * 1024 * 1024, new TranspositionTable(3).getSizeBytes());
+    }
+
+    @Test
+    public void testShallowEntryIsReplacedFirst() {
+        // Keys that differ only above the bucket bits land in the same four-entry bucket
+        long step = 1L << 40;
+        for (int i = 0; i < 4; i++) {
+            table.store(i * step, Move.NONE, 0, (i == 2) ? 1 : 10, TranspositionTable.BOUND_EXACT);
+        }
+        table.store(4 * step, Move.NONE, 0, 5, TranspositionTable.BOUND_EXACT);
+
+        assertEquals("The depth 1 entry should have been evicted.", 0L, table.probe(2 * step));
+        assertNotEquals(0L, table.probe(4 * step));
+        assertNotEquals(0L, table.probe(0));
+        assertEquals(1, table.getCollisions());
+    }
+
+    @Test
+    public void testOldEntriesAreReplacedBeforeDeeperNewOnes() {
+        long step = 1L << 40;
+        table.store(0, Move.NONE, 0, 20, TranspositionTable.BOUND_EXACT); // Deep, but from the last search
+        table.newSearch();
+        for (int i = 1; i < 4; i++) {
+            table.store(i * step, Move.NONE, 0, 6, TranspositionTable.BOUND_EXACT);
+        }
+        table.store(4 * step, Move.NONE, 0, 6, TranspositionTable.BOUND_EXACT);
+        assertEquals("The stale entry should go first.", 0L, table.probe(0));
+        assertEquals("Evicting an old entry is not a collision.", 0, table.getCollisions());
+    }
+
+    @Test
+    public void testConcurrentWritersNeverProduceTornEntries() throws InterruptedException {
+        // Each key's data is derived from the key, so any entry that mixes two writes is detectable
+        AtomicInteger tornEntries = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long key = (i * 0x9E3779B97F4A7C15L) ^ seed;
+                    table.store(key, (int) (key & 0xFFFF), (int) (key >> 50), 7, TranspositionTable.BOUND_EXACT);
+                    long entry = table.probe(key ^ 1);
+                    if (entry != 0 && TranspositionTable.move(entry) != (int) ((key ^ 1) & 0xFFFF)) {
+                        tornEntries.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, tornEntries.get());
+        assertTrue(table.getFillRatio() > 0.5);
+    }
+}